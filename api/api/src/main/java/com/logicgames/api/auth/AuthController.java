@@ -2,11 +2,10 @@ package com.logicgames.api.auth;
 
 
 import com.logicgames.api.auth.dtos.*;
-import com.logicgames.api.config.RateLimitingService;
-import io.github.bucket4j.Bucket;
-import jakarta.servlet.http.HttpServletRequest;
+import com.logicgames.api.config.PasswordHashingBusyException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -26,7 +25,6 @@ import org.springframework.web.bind.annotation.RequestParam;
 public class AuthController {
 
     private final AuthService authService;
-    private final RateLimitingService rateLimitingService;
     // Escucha peticiones POST en /api/auth/register
     @PostMapping("/register")
     public ResponseEntity<String> register(
@@ -75,22 +73,11 @@ public class AuthController {
 
 
     // - (Para verificar el código de registro) ---
-    // Inyecta HttpServletRequest request para obtener la IP
+    // (El límite de intentos por IP lo pone RateLimitFilter: política "verify-email")
     @PostMapping("/verify-email")
-    public ResponseEntity<String> verifyEmail(@RequestBody VerifyEmailRequest req, HttpServletRequest request) {
-
-        String ip = request.getRemoteAddr();
-        Bucket bucket = rateLimitingService.resolveBucket(ip);
-
-        if (bucket.tryConsume(1)) {
-            // Tiene fichas, procede normal
-            authService.verifyEmail(req.getEmail(), req.getOtpCode());
-            return ResponseEntity.ok("Verificado");
-        } else {
-            // No tiene fichas
-            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
-                    .body("Has excedido el límite de intentos. Inténtalo en 1 hora.");
-        }
+    public ResponseEntity<String> verifyEmail(@RequestBody VerifyEmailRequest req) {
+        authService.verifyEmail(req.getEmail(), req.getOtpCode());
+        return ResponseEntity.ok("Verificado");
     }
 
     //  (Para reenviar el código) ---
@@ -116,6 +103,14 @@ public class AuthController {
         return ResponseEntity.badRequest().body(ex.getMessage());
     }
 
+    // Cola de hashing llena (ver BoundedPasswordEncoder): 429 al momento
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<String> handlePasswordHashingBusy(PasswordHashingBusyException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ex.getMessage());
+    }
+
     @PostMapping("/reset-password-code")
     public ResponseEntity<String> resetPasswordWithCode(@RequestBody ResetPasswordWithCodeRequest request) {
         authService.resetPasswordWithCode(request.getEmail(), request.getOtpCode(), request.getNewPassword());
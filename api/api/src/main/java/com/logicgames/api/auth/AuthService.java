@@ -3,6 +3,7 @@ package com.logicgames.api.auth;
 import com.logicgames.api.auth.dtos.*;
 import com.logicgames.api.email.EmailService;
 import com.logicgames.api.jwt.JwtService;
+import com.logicgames.api.jwt.VerifiedTokenCache;
 import com.logicgames.api.user.User;
 import com.logicgames.api.user.UserRepository;
 import com.logicgames.api.util.OtpUtil;
@@ -28,6 +29,7 @@ public class AuthService {
     private final AuthenticationManager authenticationManager;
     private final EmailService emailService;
     private final OtpUtil otpUtil;
+    private final VerifiedTokenCache tokenCache;
 
     // ========================================================================
     // SECCIÓN 1: REGISTRO Y VERIFICACIÓN DE EMAIL
@@ -247,6 +249,7 @@ public class AuthService {
         user.setVerificationToken(null);
         user.setVerificationTokenExpiry(null);
         userRepository.save(user);
+        tokenCache.invalidateUser(user.getEmail()); // el usuario ha cambiado: que se vuelva a cargar
     }
 
     // Cambia la contraseña y limpia los códigos de reseteo
@@ -257,5 +260,6 @@ public class AuthService {
         user.setResetToken(null);
         user.setResetTokenExpiry(null);
         userRepository.save(user);
+        tokenCache.invalidateUser(user.getEmail()); // el usuario ha cambiado: que se vuelva a cargar
     }
 }
\ No newline at end of file
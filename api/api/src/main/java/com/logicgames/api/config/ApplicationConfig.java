@@ -1,17 +1,18 @@
 package com.logicgames.api.config;
 
+import com.logicgames.api.user.User;
 import com.logicgames.api.user.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
 @RequiredArgsConstructor // Lombok creará un constructor con UserRepository
@@ -20,9 +21,29 @@ public class ApplicationConfig {
     private final UserRepository userRepository;
 
     @Bean // <-- Un "Post-it" que dice: "Spring, crea esta herramienta"
-    public PasswordEncoder passwordEncoder() {
-        // Usamos BCrypt, el estándar de oro para encriptar contraseñas
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(
+            @Value("${app.security.bcrypt.strength:10}") int strength,
+            @Value("${app.security.hashing.threads:0}") int threads,
+            @Value("${app.security.hashing.queue-capacity:32}") int queueCapacity
+    ) {
+        // Usamos BCrypt, el estándar de oro para encriptar contraseñas...
+        // ...pero en sus propios hilos (0 = la mitad de los núcleos) y con cola acotada
+        if (threads <= 0) {
+            threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        }
+        System.out.println("-> AUTH: BCrypt coste " + strength + " en " + threads + " hilo(s), cola de " + queueCapacity);
+        return new BoundedPasswordEncoder(strength, threads, queueCapacity);
+    }
+
+    // Re-hash transparente: tras un login correcto, si el hash guardado tiene otro coste
+    // (encoder.upgradeEncoding), el AuthenticationManager guarda el nuevo hash con esto.
+    @Bean
+    public UserDetailsPasswordService userDetailsPasswordService() {
+        return (userDetails, newEncodedPassword) -> {
+            User user = (User) userDetails;
+            user.setPassword(newEncodedPassword);
+            return userRepository.save(user);
+        };
     }
 
     // 1. El "Buscador de Usuarios" (UserDetailsService)
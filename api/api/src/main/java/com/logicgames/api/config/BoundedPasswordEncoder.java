@@ -0,0 +1,130 @@
+package com.logicgames.api.config;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt con presupuesto de CPU FIJO.
+ *
+ *   [hilos de Tomcat] --(cola acotada)--> [N hilos de hashing] --> BCrypt
+ *
+ * - Cada encode/matches (registro, reseteo y el login del AuthenticationManager)
+ *   se hace en uno de los N hilos: una ráfaga de logins nunca ocupa más de N núcleos
+ *   y el resto sigue libre para las partidas.
+ * - Si la cola está llena no esperamos: PasswordHashingBusyException (-> 429).
+ * - upgradeEncoding() es true si el coste del hash guardado no es el configurado:
+ *   Spring vuelve a hashear la contraseña al hacer login (ver ApplicationConfig).
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    // $2a$10$... -> versión y coste
+    private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+
+    private final BCryptPasswordEncoder bcrypt;
+    private final int strength;
+    private final ThreadPoolExecutor hashers;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public BoundedPasswordEncoder(int strength, int threads, int queueCapacity) {
+        this.bcrypt = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.hashers = new ThreadPoolExecutor(
+                threads, threads,
+                0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread t = new Thread(task, "bcrypt-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.hashers.prestartAllCoreThreads();
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> bcrypt.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> bcrypt.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int cost = costOf(encodedPassword);
+        return cost > 0 && cost != strength; // (los que no son BCrypt los descarta matches())
+    }
+
+    /**
+     * Coste de un hash BCrypt; -1 si no lo parece.
+     */
+    static int costOf(String encodedPassword) {
+        if (encodedPassword == null) {
+            return -1;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    /**
+     * Hashes esperando en la cola ahora mismo.
+     */
+    public int getQueuedCount() {
+        return hashers.getQueue().size();
+    }
+
+    /**
+     * Peticiones rechazadas por cola llena desde el arranque.
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    // Spring la llama al cerrar el contexto (método "shutdown" de un @Bean)
+    public void shutdown() {
+        hashers.shutdownNow();
+    }
+
+    private <T> T run(Callable<T> hashing) {
+        Future<T> result;
+        try {
+            result = hashers.submit(hashing);
+        } catch (RejectedExecutionException e) {
+            if (rejected.incrementAndGet() % 100 == 1) { // no inundar el log en plena ráfaga
+                System.err.println("-> AUTH: Cola de hashing llena, rechazando (" + rejected.get() + " en total)");
+            }
+            throw new PasswordHashingBusyException();
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando al hash de la contraseña", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime; // ej. "rawPassword cannot be null"
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
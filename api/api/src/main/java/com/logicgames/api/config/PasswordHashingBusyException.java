@@ -0,0 +1,12 @@
+package com.logicgames.api.config;
+
+/**
+ * La cola de hashing de contraseñas está llena: el controlador responde 429
+ * al momento en vez de dejar el hilo de Tomcat esperando.
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    public PasswordHashingBusyException() {
+        super("Demasiadas peticiones de acceso en este momento. Inténtalo de nuevo en unos segundos.");
+    }
+}
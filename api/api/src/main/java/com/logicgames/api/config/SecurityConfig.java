@@ -11,9 +11,11 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.authentication.AuthenticationProvider;
 import com.logicgames.api.jwt.JwtAuthenticationFilter;
+import com.logicgames.api.ratelimit.RateLimitFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.filter.CorsFilter;
 import java.util.List;
 
 @Configuration
@@ -22,6 +24,7 @@ import java.util.List;
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final RateLimitFilter rateLimitFilter;
 
 
     @Bean
@@ -66,6 +69,10 @@ public class SecurityConfig {
                         session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
 
+                // Límite de peticiones por IP y endpoint: lo primero tras CORS
+                // (así el 429 lleva las cabeceras CORS y el navegador puede leerlo)
+                .addFilterAfter(rateLimitFilter, CorsFilter.class)
+
                 // ¡Añade tu filtro "lector de carnets" ANTES del filtro normal de login!
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
         return http.build();
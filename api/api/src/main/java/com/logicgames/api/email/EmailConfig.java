@@ -0,0 +1,21 @@
+package com.logicgames.api.email;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class EmailConfig {
+
+    private static final String FROM_EMAIL = "monzonmariano1@gmail.com";
+
+    // Sin clave de verdad (la del .env de pruebas), MODO SIMULACIÓN: los emails se imprimen
+    @Bean
+    public EmailTransport emailTransport(@Value("${app.sendgrid.api-key:}") String sendGridApiKey) {
+        if (sendGridApiKey == null || sendGridApiKey.isBlank() || sendGridApiKey.equals("SG.FAKE.test_key")) {
+            System.out.println("-> EMAIL: Sin clave de SendGrid, MODO SIMULACIÓN (los emails salen por consola)");
+            return new SimulatedEmailTransport();
+        }
+        return new SendGridTransport(sendGridApiKey, FROM_EMAIL);
+    }
+}
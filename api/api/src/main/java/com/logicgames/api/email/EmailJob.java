@@ -0,0 +1,74 @@
+package com.logicgames.api.email;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Un email en la bandeja de salida (outbox): se inserta junto con el cambio
+ * que lo provoca y lo envía EmailOutboxDispatcher más tarde.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "email_jobs")
+public class EmailJob {
+
+    // Secuencia "pooled" (50 ids por llamada), como game_metrics
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "email_jobs_seq")
+    @SequenceGenerator(name = "email_jobs_seq", sequenceName = "email_jobs_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "to_email", nullable = false)
+    private String toEmail;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(name = "html_body", nullable = false, columnDefinition = "text")
+    private String htmlBody;
+
+    // Código y enlace en claro, una línea cada uno: solo los imprime el modo simulación
+    @Column(name = "debug_info", columnDefinition = "text")
+    private String debugInfo;
+
+    @Column(nullable = false, length = 16)
+    private String status; // "PENDING", "SENT", "FAILED"
+
+    @Column(nullable = false)
+    private int attempts;
+
+    // Cuándo toca (re)intentarlo. Mientras un dispatcher lo envía, se adelanta
+    // un rato (el "alquiler"): si esa instancia muere, otra lo retoma después.
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @PrePersist
+    void onPersist() {
+        LocalDateTime now = LocalDateTime.now();
+        if (createdAt == null) {
+            createdAt = now;
+        }
+        if (nextAttemptAt == null) {
+            nextAttemptAt = now;
+        }
+        if (status == null) {
+            status = "PENDING";
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.logicgames.api.email;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmailJobRepository extends JpaRepository<EmailJob, Long> {
+
+    /**
+     * Reclama un lote de emails pendientes que ya toca enviar, en UNA sentencia:
+     * les adelanta next_attempt_at hasta 'leaseUntil' (nadie más los coge mientras)
+     * y los devuelve. SKIP LOCKED: dos dispatchers a la vez se reparten las filas.
+     * (Sin @Modifying a propósito: por el RETURNING se lee como una consulta que
+     * devuelve filas; con @Modifying solo devolvería cuántas cambió)
+     */
+    @Transactional
+    @Query(value = "UPDATE email_jobs SET next_attempt_at = :leaseUntil WHERE id IN " +
+            "(SELECT id FROM email_jobs WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+            " ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+            "RETURNING *",
+            nativeQuery = true)
+    List<EmailJob> claimBatch(@Param("now") LocalDateTime now,
+                              @Param("leaseUntil") LocalDateTime leaseUntil,
+                              @Param("limit") int limit);
+
+    // Todos los enviados de un lote, en un solo UPDATE. El cuerpo ya no hace
+    // falta: se vacía (lleva el código y el enlace en claro)
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailJob j SET j.status = 'SENT', j.sentAt = :sentAt, j.htmlBody = '', j.debugInfo = null, " +
+            "j.attempts = j.attempts + 1, j.lastError = null WHERE j.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    // Un fallo con reintento: sigue PENDING hasta 'nextAttemptAt' (el cuerpo aún hace falta)
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailJob j SET j.status = 'PENDING', j.nextAttemptAt = :nextAttemptAt, " +
+            "j.attempts = j.attempts + 1, j.lastError = :error WHERE j.id = :id")
+    int markFailedAttempt(@Param("id") Long id,
+                          @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                          @Param("error") String error);
+
+    // Se da por perdido: como en markSent, el cuerpo ya no se va a enviar y se vacía
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailJob j SET j.status = 'FAILED', j.nextAttemptAt = :failedAt, j.htmlBody = '', " +
+            "j.debugInfo = null, j.attempts = j.attempts + 1, j.lastError = :error WHERE j.id = :id")
+    int markFailed(@Param("id") Long id,
+                   @Param("failedAt") LocalDateTime failedAt,
+                   @Param("error") String error);
+
+    /**
+     * Borra como mucho 'limit' emails ya terminados (SENT o FAILED) creados antes
+     * de la fecha (un lote = un DELETE corto, ver BatchedPurger). Devuelve cuántos borró.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM email_jobs WHERE id IN " +
+            "(SELECT id FROM email_jobs WHERE status <> 'PENDING' AND created_at < :cutOffDate LIMIT :limit)",
+            nativeQuery = true)
+    int deleteFinishedBatchBefore(@Param("cutOffDate") LocalDateTime cutOffDate, @Param("limit") int limit);
+
+    long countByStatus(String status);
+}
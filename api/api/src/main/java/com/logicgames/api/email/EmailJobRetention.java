@@ -0,0 +1,38 @@
+package com.logicgames.api.email;
+
+import com.logicgames.api.game.BatchedPurger;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Limpieza de la bandeja de salida: los emails ya terminados (SENT o FAILED)
+ * se borran pasados 'retention-days', en lotes (BatchedPurger).
+ * Sin esto email_jobs crece para siempre.
+ */
+@Component
+@RequiredArgsConstructor
+public class EmailJobRetention {
+
+    private final EmailJobRepository emailJobRepository;
+    private final BatchedPurger purger;
+
+    @Value("${app.email.outbox.retention-days:7}")
+    private int retentionDays;
+
+    @Value("${app.cleanup.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.cleanup.time-budget-ms:30000}")
+    private long timeBudgetMs;
+
+    @Scheduled(cron = "0 30 3 * * ?") // A las 3:30 AM (después de los usuarios sin verificar)
+    public void purgeFinishedJobs() {
+        LocalDateTime cutOffDate = LocalDateTime.now().minusDays(retentionDays);
+        purger.purge("EMAIL_JOBS", batchSize, System.currentTimeMillis() + timeBudgetMs,
+                limit -> emailJobRepository.deleteFinishedBatchBefore(cutOffDate, limit));
+    }
+}
@@ -0,0 +1,163 @@
+package com.logicgames.api.email;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vacía la bandeja de salida (email_jobs) en segundo plano:
+ *
+ *   [EmailService] --INSERT (misma transacción)--> email_jobs --lote--> [1 hilo] --> EmailTransport
+ *
+ * - Reclama lotes de 'batch-size' emails con una sola sentencia (ver claimBatch)
+ *   y marca todos los enviados con un solo UPDATE.
+ * - Un fallo reintentable vuelve a la cola con espera exponencial (con jitter);
+ *   tras 'max-attempts', o si no es reintentable, se queda en FAILED.
+ * - Tras cada commit con emails nuevos, EmailService lo despierta (wakeUp):
+ *   el código de verificación no espera al siguiente sondeo.
+ */
+@Component
+public class EmailOutboxDispatcher {
+
+    private final EmailJobRepository emailJobRepository;
+    private final EmailTransport transport;
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    private final Semaphore wake = new Semaphore(0);
+    private Thread worker;
+    private volatile boolean running;
+
+    public EmailOutboxDispatcher(
+            EmailJobRepository emailJobRepository,
+            EmailTransport transport,
+            @Value("${app.email.outbox.batch-size:20}") int batchSize,
+            @Value("${app.email.outbox.poll-interval-ms:5000}") long pollIntervalMs,
+            @Value("${app.email.outbox.lease-seconds:60}") long leaseSeconds,
+            @Value("${app.email.outbox.max-attempts:8}") int maxAttempts,
+            @Value("${app.email.outbox.initial-backoff-ms:2000}") long initialBackoffMs,
+            @Value("${app.email.outbox.max-backoff-ms:600000}") long maxBackoffMs
+    ) {
+        this.emailJobRepository = emailJobRepository;
+        this.transport = transport;
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = Duration.ofMillis(initialBackoffMs);
+        this.maxBackoff = Duration.ofMillis(maxBackoffMs);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        worker = new Thread(this::dispatchLoop, "email-outbox");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        wake.release();
+        worker.join(5000);
+    }
+
+    /**
+     * Hay emails nuevos: que el hilo no espere al siguiente sondeo.
+     */
+    public void wakeUp() {
+        if (wake.availablePermits() == 0) {
+            wake.release();
+        }
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                // Lotes seguidos mientras vengan llenos
+                int claimed;
+                do {
+                    claimed = dispatchBatch();
+                } while (running && claimed == batchSize);
+            } catch (Exception e) {
+                // ej. la BBDD no responde: se reintenta en el siguiente sondeo
+                System.err.println("-> EMAIL: Error vaciando la bandeja de salida: " + e.getMessage());
+            }
+            try {
+                wake.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                wake.drainPermits();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reclama y envía UN lote. Devuelve cuántos emails reclamó.
+     */
+    int dispatchBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailJob> jobs = emailJobRepository.claimBatch(now, now.plus(lease), batchSize);
+        if (jobs.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> sent = new ArrayList<>(jobs.size());
+        for (EmailJob job : jobs) {
+            try {
+                transport.send(job);
+                sent.add(job.getId());
+            } catch (EmailTransportException e) {
+                recordFailure(job, e.getMessage(), e.isRetryable());
+            } catch (RuntimeException e) {
+                recordFailure(job, e.toString(), true);
+            }
+        }
+        if (!sent.isEmpty()) {
+            emailJobRepository.markSent(sent, LocalDateTime.now());
+        }
+        return jobs.size();
+    }
+
+    private void recordFailure(EmailJob job, String error, boolean retryable) {
+        int attempts = job.getAttempts() + 1;
+        String message = error == null ? "?" : error.substring(0, Math.min(error.length(), 1000));
+        if (!retryable || attempts >= maxAttempts) {
+            System.err.println("-> EMAIL: Se abandona el email " + job.getId() + " a " + job.getToEmail()
+                    + " tras " + attempts + " intento(s): " + message);
+            emailJobRepository.markFailed(job.getId(), LocalDateTime.now(), message);
+            return;
+        }
+        Duration wait = backoff(attempts, initialBackoff, maxBackoff);
+        System.err.println("-> EMAIL: Falló el email " + job.getId() + " (intento " + attempts
+                + "), reintento en " + wait.toSeconds() + "s: " + message);
+        emailJobRepository.markFailedAttempt(job.getId(), LocalDateTime.now().plus(wait), message);
+    }
+
+    /**
+     * Espera antes del siguiente intento: initial * 2^(intentos-1), con tope,
+     * y un jitter entre la mitad y el total (que los reintentos no lleguen todos a la vez).
+     */
+    static Duration backoff(int attempts, Duration initial, Duration max) {
+        long ceiling = initial.toMillis() << Math.min(attempts - 1, 30);
+        if (ceiling <= 0 || ceiling > max.toMillis()) {
+            ceiling = max.toMillis();
+        }
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1));
+    }
+}
@@ -1,32 +1,22 @@
 package com.logicgames.api.email;
 
-import com.sendgrid.Method;
-import com.sendgrid.Request;
-import com.sendgrid.Response;
-import com.sendgrid.SendGrid;
-import com.sendgrid.helpers.mail.Mail;
-import com.sendgrid.helpers.mail.objects.Content;
-import com.sendgrid.helpers.mail.objects.Email;
-
-import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-
-import java.io.IOException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
+@RequiredArgsConstructor
 public class EmailService {
 
-    @Value("${app.sendgrid.api-key}")
-    private String sendGridApiKey;
+    private final EmailJobRepository emailJobRepository;
+    private final EmailOutboxDispatcher dispatcher;
+    private final EmailTransport transport;
 
     @Value("${APP_FRONTEND_URL}")
     private String frontendBaseUrl;
 
-    private final String FROM_EMAIL = "monzonmariano1@gmail.com";
-
-    private SendGrid sendGridClient;
-
     public void sendVerificationEmail(String toEmail, String code, String linkToken) {
         String subject = "¡Bienvenido a LogicGames! Confirma tu cuenta";
 
@@ -73,42 +63,31 @@ public class EmailService {
         sendEmail(toEmail, subject, contentBody, code, resetLink);
     }
     /**
-     * Método "helper" privado que construye y envía el email.
+     * Método "helper" privado que deja el email en la bandeja de salida.
+     *
+     * Ya no habla con SendGrid: inserta en email_jobs dentro de la transacción de quien
+     * llama (registro, reseteo...) y EmailOutboxDispatcher lo envía después.
+     * Si esa transacción hace rollback, el email tampoco sale.
+     * 'debugInfo' (códigos y enlaces en claro) solo se guarda en modo simulación.
      */
     private void sendEmail(String toEmail, String subject, String contentBody, String... debugInfo) {
-        // --- ¡MODO SIMULACIÓN (CORREGIDO)! ---
-        // Ahora SÍ comprobará la clave del .env
-        if (sendGridApiKey == null || sendGridApiKey.equals("SG.FAKE.test_key")) {
-            System.out.println("--- MODO SIMULACIÓN DE EMAIL ---");
-            System.out.println("A: " + toEmail);
-            System.out.println("Asunto: " + subject);
-            for (String info : debugInfo) {
-                System.out.println("¡DATO DE DEBUG!: " + info);
-            }
-            System.out.println("---------------------------------");
-            return;
-        }
-
-        // --- Lógica real de SendGrid ---
-        Email from = new Email(FROM_EMAIL);
-        Email to = new Email(toEmail);
-        Content content = new Content("text/html", contentBody);
-        Mail mail = new Mail(from, subject, to, content);
-
-        SendGrid sg = new SendGrid(sendGridApiKey);
-        Request request = new Request();
-
-        try {
-            request.setMethod(Method.POST);
-            request.setEndpoint("mail/send");
-            request.setBody(mail.build());
-            sg.api(request);
-
-            System.out.println("Email enviado exitosamente a: " + toEmail);
-
-        } catch (IOException ex) {
-            System.err.println("Error al enviar email: " + ex.getMessage());
-            throw new RuntimeException("Error al enviar email", ex);
+        emailJobRepository.save(EmailJob.builder()
+                .toEmail(toEmail)
+                .subject(subject)
+                .htmlBody(contentBody)
+                .debugInfo(debugInfo.length == 0 || !transport.usesDebugInfo() ? null : String.join("\n", debugInfo))
+                .build());
+
+        // Que el dispatcher lo envíe en cuanto el INSERT sea visible (tras el commit)
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatcher.wakeUp();
+                }
+            });
+        } else {
+            dispatcher.wakeUp();
         }
     }
 }
@@ -0,0 +1,25 @@
+package com.logicgames.api.email;
+
+/**
+ * Cómo sale de verdad un email de la bandeja de salida.
+ *
+ * - SendGridTransport: la API de SendGrid (un solo cliente HTTP para todo).
+ * - SimulatedEmailTransport: lo imprime por consola (desarrollo y pruebas).
+ *
+ * EmailConfig elige uno según la clave de SendGrid.
+ */
+public interface EmailTransport {
+
+    /**
+     * Envía un email. Si falla, lanza EmailTransportException diciendo
+     * si merece la pena reintentarlo.
+     */
+    void send(EmailJob job) throws EmailTransportException;
+
+    /**
+     * ¿Usa EmailJob.debugInfo (el código y el enlace en claro)? Si no, ni se guarda.
+     */
+    default boolean usesDebugInfo() {
+        return false;
+    }
+}
@@ -0,0 +1,24 @@
+package com.logicgames.api.email;
+
+/**
+ * Fallo al enviar un email. 'retryable' = false para los que no se van a
+ * arreglar solos (ej. un 400 de SendGrid por un destinatario inválido).
+ */
+public class EmailTransportException extends Exception {
+
+    private final boolean retryable;
+
+    public EmailTransportException(String message, boolean retryable) {
+        super(message);
+        this.retryable = retryable;
+    }
+
+    public EmailTransportException(String message, Throwable cause) {
+        super(message, cause);
+        this.retryable = true; // ej. timeouts y errores de red
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+}
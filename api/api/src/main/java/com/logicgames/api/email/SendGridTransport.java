@@ -0,0 +1,53 @@
+package com.logicgames.api.email;
+
+import com.sendgrid.Method;
+import com.sendgrid.Request;
+import com.sendgrid.Response;
+import com.sendgrid.SendGrid;
+import com.sendgrid.helpers.mail.Mail;
+import com.sendgrid.helpers.mail.objects.Content;
+import com.sendgrid.helpers.mail.objects.Email;
+
+import java.io.IOException;
+
+/**
+ * Envío real por la API de SendGrid.
+ *
+ * Antes se creaba un SendGrid (y con él un cliente HTTP) por email; ahora hay
+ * uno solo y las conexiones se reutilizan (keep-alive) entre envíos.
+ */
+public class SendGridTransport implements EmailTransport {
+
+    private final SendGrid sendGrid;
+    private final String fromEmail;
+
+    public SendGridTransport(String apiKey, String fromEmail) {
+        this.sendGrid = new SendGrid(apiKey);
+        this.fromEmail = fromEmail;
+    }
+
+    @Override
+    public void send(EmailJob job) throws EmailTransportException {
+        Mail mail = new Mail(new Email(fromEmail), job.getSubject(), new Email(job.getToEmail()),
+                new Content("text/html", job.getHtmlBody()));
+
+        Response response;
+        try {
+            Request request = new Request();
+            request.setMethod(Method.POST);
+            request.setEndpoint("mail/send");
+            request.setBody(mail.build());
+            response = sendGrid.api(request);
+        } catch (IOException ex) {
+            throw new EmailTransportException("Error al enviar email: " + ex.getMessage(), ex);
+        }
+
+        int status = response.getStatusCode();
+        if (status >= 200 && status < 300) {
+            return;
+        }
+        // 429 (límite de SendGrid) y 5xx se arreglan solos; el resto de 4xx no
+        boolean retryable = status == 429 || status >= 500;
+        throw new EmailTransportException("SendGrid respondió " + status + ": " + response.getBody(), retryable);
+    }
+}
@@ -0,0 +1,28 @@
+package com.logicgames.api.email;
+
+/**
+ * ¡MODO SIMULACIÓN! No envía nada: imprime el email (y los códigos en claro)
+ * por consola. Se usa cuando no hay clave de SendGrid de verdad.
+ */
+public class SimulatedEmailTransport implements EmailTransport {
+
+    @Override
+    public void send(EmailJob job) {
+        StringBuilder out = new StringBuilder()
+                .append("--- MODO SIMULACIÓN DE EMAIL ---\n")
+                .append("A: ").append(job.getToEmail()).append('\n')
+                .append("Asunto: ").append(job.getSubject()).append('\n');
+        if (job.getDebugInfo() != null) {
+            for (String info : job.getDebugInfo().split("\n")) {
+                out.append("¡DATO DE DEBUG!: ").append(info).append('\n');
+            }
+        }
+        out.append("---------------------------------");
+        System.out.println(out); // de una vez: que no se mezcle con otros hilos
+    }
+
+    @Override
+    public boolean usesDebugInfo() {
+        return true;
+    }
+}
@@ -0,0 +1,96 @@
+package com.logicgames.api.game;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Purgas EN LOTES para todos los jobs de limpieza.
+ *
+ * Los "deleteBy..." derivados de Spring Data cargan cada entidad y la borran
+ * una a una en UNA transacción (tras una oleada de bots: cientos de miles de
+ * entidades en memoria y un lock larguísimo). Aquí, en cambio:
+ * - Cada lote es un DELETE ... WHERE id IN (SELECT id ... LIMIT n) en su propia
+ *   transacción (el método del repositorio): locks cortos y nada en memoria.
+ * - Se repite mientras los lotes vengan llenos o hasta el 'deadline'; lo que
+ *   quede se borra en la siguiente pasada.
+ * - Progreso: un log cada PROGRESS_EVERY lotes, las filas borradas como métrica
+ *   "PURGED_<nombre>" (GameMetricRecorder) y el resultado de la última pasada (lastRuns).
+ */
+@Component
+@RequiredArgsConstructor
+public class BatchedPurger {
+
+    private static final int PROGRESS_EVERY = 20;
+
+    private final GameMetricRecorder metricRecorder;
+
+    private final Map<String, PurgeResult> lastRuns = new ConcurrentHashMap<>();
+
+    /**
+     * Resultado de una pasada. 'complete' = no quedaba nada (no se cortó por tiempo ni por error).
+     */
+    public record PurgeResult(String name, long rowsDeleted, int batches, long elapsedMillis,
+                              boolean complete, String error, LocalDateTime finishedAt) {
+    }
+
+    /**
+     * Llama a 'deleteBatch' (recibe el tamaño del lote, devuelve las filas borradas)
+     * hasta que un lote venga incompleto o pase 'deadline' (System.currentTimeMillis()).
+     */
+    public PurgeResult purge(String name, int batchSize, long deadline, IntUnaryOperator deleteBatch) {
+        long start = System.currentTimeMillis();
+        long total = 0;
+        int batches = 0;
+        boolean complete = false;
+        String error = null;
+
+        while (true) {
+            if (System.currentTimeMillis() > deadline) {
+                System.out.println("-> PURGA: [" + name + "] Sin tiempo, se sigue en la próxima pasada ("
+                        + total + " filas borradas).");
+                break;
+            }
+            int deleted;
+            try {
+                deleted = deleteBatch.applyAsInt(batchSize);
+            } catch (RuntimeException e) {
+                error = e.getMessage();
+                System.err.println("-> PURGA: [" + name + "] Falló el borrado: " + error);
+                break;
+            }
+            total += deleted;
+            batches++;
+            if (deleted < batchSize) {
+                complete = true;
+                break;
+            }
+            if (batches % PROGRESS_EVERY == 0) {
+                System.out.println("-> PURGA: [" + name + "] " + total + " filas borradas en " + batches
+                        + " lotes, sigue...");
+            }
+        }
+
+        long elapsed = System.currentTimeMillis() - start;
+        if (total > 0) {
+            System.out.println("-> PURGA: [" + name + "] " + total + " filas borradas en " + batches
+                    + " lotes (" + elapsed + " ms).");
+        }
+        metricRecorder.record("PURGED_" + name, total);
+
+        PurgeResult result = new PurgeResult(name, total, batches, elapsed, complete, error, LocalDateTime.now());
+        lastRuns.put(name, result);
+        return result;
+    }
+
+    /**
+     * La última pasada de cada purga (desde el arranque).
+     */
+    public Map<String, PurgeResult> lastRuns() {
+        return Map.copyOf(lastRuns);
+    }
+}
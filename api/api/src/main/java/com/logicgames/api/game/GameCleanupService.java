@@ -2,9 +2,13 @@ package com.logicgames.api.game;
 
 import com.logicgames.api.user.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
 
 
 @Service
@@ -12,10 +16,19 @@ import java.time.LocalDateTime;
 public class GameCleanupService {
 
     private final SudokuGameRepository sudokuGameRepository;
-    private final PreGeneratedPuzzleRepository puzzleRepository;
-    private final GameMetricRepository metricRepository;
-    private final SudokuGeneratorService generatorService;
+    private final GameMetricRecorder metricRecorder;
+    private final PuzzleRefillPipeline refillPipeline;
+    private final PuzzlePool puzzlePool;
+    private final PuzzlePoolProperties poolProperties;
     private final UserRepository userRepository;
+    private final BatchedPurger purger;
+
+    // Filas por DELETE y tiempo máximo de cada purga por pasada (lo que quede, en la siguiente)
+    @Value("${app.cleanup.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.cleanup.time-budget-ms:30000}")
+    private long timeBudgetMs;
 
     /**
      * ¡TU JOB!
@@ -28,6 +41,9 @@ public class GameCleanupService {
     /**
      * ¡TU JOB "ELÁSTICO" DE PRODUCCIÓN!
      * Se ejecuta "En el minuto 0 de cada hora" (ej. 13:00, 14:00, 15:00)
+     *
+     * Cada dificultad se decide por separado: EASY puede estar lleno
+     * mientras HARD está vacío.
      */
     @Scheduled(cron = "0 0 * * * ?") // Se ejecuta cada hora
     public void elasticCleanupJob() {
@@ -35,69 +51,73 @@ public class GameCleanupService {
 
         // --- 1. Limpieza de FAILED ---
         LocalDateTime failedCutOff = LocalDateTime.now().minusDays(7);
-        sudokuGameRepository.deleteByStateAndLastUpdatedAtBefore("FAILED", failedCutOff);
-        System.out.println("-> JOB ELÁSTICO: Partidas 'FAILED' antiguas borradas.");
+        BatchedPurger.PurgeResult failed = purger.purge("FAILED_GAMES", batchSize, deadline(),
+                limit -> sudokuGameRepository.deleteBatchByStateBefore("FAILED", failedCutOff, limit));
+        System.out.println("-> JOB ELÁSTICO: " + failed.rowsDeleted() + " partidas 'FAILED' antiguas borradas.");
 
-        // --- 2. Lógica Elástica del Pool  ---
+        // --- 2. Lógica Elástica del Pool (por dificultad) ---
 
-        // 2a. Define límites
-        long maxPoolSize = 40; // Tu límite "máximo"
-        long minPoolSize = 5;  // ¡Tu nuevo límite "mínimo"!
-        long lowDemandThreshold = 10;
+        // 2a. Mide la demanda de la última hora de TODAS las dificultades en una consulta
+        Map<String, Long> demandLastHour = consumedLastHour();
 
-        // 2b. Mide el estado actual
-        long currentPoolSize = puzzleRepository.count();
-        long demandLastHour = metricRepository.countByEventTypeAndEventTimestampAfter(
-                "PUZZLE_CONSUMED_EASY", LocalDateTime.now().minusHours(1)) +
-                metricRepository.countByEventTypeAndEventTimestampAfter(
-                        "PUZZLE_CONSUMED_MEDIUM", LocalDateTime.now().minusHours(1)) +
-                metricRepository.countByEventTypeAndEventTimestampAfter(
-                        "PUZZLE_CONSUMED_HARD", LocalDateTime.now().minusHours(1)
-                );
+        for (String difficulty : PuzzlePool.DIFFICULTIES) {
+            PuzzlePoolProperties.Watermarks limits = poolProperties.watermarksFor(difficulty);
 
-        System.out.println("-> JOB ELÁSTICO: (Pool: " + currentPoolSize + " / Demanda(1h): " + demandLastHour + ")");
+            // 2b. Tamaño actual: contador en memoria, sin count() a la BBDD
+            long currentPoolSize = puzzlePool.size(difficulty);
+            long demand = demandLastHour.getOrDefault(difficulty, 0L);
 
-        // 2c. ¡Toma la decisión!
+            System.out.println("-> JOB ELÁSTICO: [" + difficulty + "] (Pool: " + currentPoolSize + " / Demanda(1h): " + demand + ")");
 
-        // --- ESCALA HACIA ABAJO ---
-        if (currentPoolSize > maxPoolSize && demandLastHour < lowDemandThreshold) {
+            // 2c. ¡Toma la decisión!
 
-            System.out.println("-> JOB ELÁSTICO: ¡Sobreabastecimiento detectado! Purgando puzzles viejos...");
-            LocalDateTime poolCutOff = LocalDateTime.now().minusHours(1);
-            puzzleRepository.deleteByCreatedAtBefore(poolCutOff);
+            // --- ESCALA HACIA ABAJO ---
+            if (currentPoolSize > limits.getMax() && demand < limits.getLowDemand()) {
+                // Recorta hasta el máximo, empezando por los puzzles de hace más de 1 hora
+                int trimmed = puzzlePool.trim(difficulty, limits.getMax(), LocalDateTime.now().minusHours(1));
+                System.out.println("-> JOB ELÁSTICO: [" + difficulty + "] ¡Sobreabastecimiento! " + trimmed + " puzzles viejos purgados.");
 
-            // --- ¡NUEVA LÓGICA DE ESCALA HACIA ARRIBA !---
-        } else if (currentPoolSize < minPoolSize) {
+            // --- ESCALA HACIA ARRIBA ---
+            } else if (currentPoolSize < limits.getMin()) {
+                System.out.println("-> JOB ELÁSTICO: [" + difficulty + "] ¡Pool bajo detectado! Rellenando proactivamente...");
+                refillPipeline.populatePoolAsync(difficulty);
 
-            // ¡NOS ESTAMOS QUEDANDO SIN PUZZLES!
-            System.out.println("-> JOB ELÁSTICO: ¡Pool bajo detectado! Rellenando proactivamente...");
+            } else {
+                System.out.println("-> JOB ELÁSTICO: [" + difficulty + "] El tamaño del pool es saludable.");
+            }
+        }
 
-            // Llama al "Ayudante" asíncrono para que rellene
-            // (El Ayudante ya es "inteligente" y generará 10 o 20
-            // basado en la demanda de la última hora)
-            generatorService.populatePoolAsync("EASY");
-            generatorService.populatePoolAsync("MEDIUM");
-            generatorService.populatePoolAsync("HARD");
+        System.out.println("-> JOB ELÁSTICO: Ejecución completada.");
+    }
 
-        } else {
-            System.out.println("-> JOB ELÁSTICO: El tamaño del pool es saludable.");
+    private Map<String, Long> consumedLastHour() {
+        // Contadores en memoria: ya no hay COUNT sobre game_metrics
+        Map<String, Long> demand = new HashMap<>();
+        for (String difficulty : PuzzlePool.DIFFICULTIES) {
+            demand.put(difficulty, metricRecorder.count("PUZZLE_CONSUMED_" + difficulty, Duration.ofHours(1)));
         }
+        return demand;
+    }
 
-        System.out.println("-> JOB ELÁSTICO: Ejecución completada.");
+
+    private long deadline() {
+        return System.currentTimeMillis() + timeBudgetMs;
     }
 
 
     /**
      * Borra usuarios que nunca se verificaron después de 7 días.
+     * En lotes: tras una oleada de registros de bots pueden ser cientos de miles.
      */
     @Scheduled(cron = "0 0 3 * * ?") // Se ejecuta a las 3 AM
     public void cleanupUnverifiedUsers() {
         LocalDateTime cutOffDate = LocalDateTime.now().minusDays(7);
 
-        // Necesitas un método en UserRepository
-        userRepository.deleteByIsVerifiedFalseAndCreatedAtBefore(cutOffDate);
+        BatchedPurger.PurgeResult result = purger.purge("UNVERIFIED_USERS", batchSize, deadline(),
+                limit -> userRepository.deleteUnverifiedBatchBefore(cutOffDate, limit));
 
-        System.out.println("-> JOB: Usuarios no verificados más antiguos de 7 días borrados.");
+        System.out.println("-> JOB: " + result.rowsDeleted() + " usuarios no verificados más antiguos de 7 días borrados"
+                + (result.complete() ? "." : " (quedan más, siguen mañana)."));
     }
 
     // --- EJECUCIÓN DIARIA (PARA PRODUCCIÓN) ---
@@ -109,11 +129,14 @@ public class GameCleanupService {
 
         // 1. Borra partidas FAILED de hace más de 7 días
         LocalDateTime failedGamesCutOff = LocalDateTime.now().minusDays(7);
-        sudokuGameRepository.deleteByStateAndLastUpdatedAtBefore("FAILED", failedGamesCutOff);
+        purger.purge("FAILED_GAMES", batchSize, deadline(),
+                limit -> sudokuGameRepository.deleteBatchByStateBefore("FAILED", failedGamesCutOff, limit));
 
         // 2. Borra puzzles del pool de hace más de 1 día (para que siempre estén frescos)
+        // (necesita inyectar PreGeneratedPuzzleRepository puzzleRepository)
         LocalDateTime puzzlePoolCutOff = LocalDateTime.now().minusDays(1);
-        puzzleRepository.deleteByCreatedAtBefore(puzzlePoolCutOff);
+        purger.purge("POOL_PUZZLES", batchSize, deadline(),
+                limit -> puzzleRepository.deleteBatchBefore(puzzlePoolCutOff, limit));
     }
     */
 
@@ -5,7 +5,6 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Data
@@ -16,8 +15,10 @@ import java.time.LocalDateTime;
 @Table(name = "game_metrics")
 public class GameMetric {
 
+    // Secuencia "pooled" (50 ids por llamada) para poder insertar en lote
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "game_metrics_seq")
+    @SequenceGenerator(name = "game_metrics_seq", sequenceName = "game_metrics_seq", allocationSize = 50)
     private Long id;
 
     // El tipo de evento que estamos registrando
@@ -25,8 +26,15 @@ public class GameMetric {
     @Column(nullable = false)
     private String eventType;
 
-    // La hora en que ocurrió
-    @CreationTimestamp
+    // La hora en que ocurrió (la pone GameMetricRecorder al registrar el evento,
+    // no al escribirlo, porque las escrituras van en diferido)
     @Column(nullable = false, updatable = false)
     private LocalDateTime eventTimestamp;
+
+    @PrePersist
+    void onPersist() {
+        if (eventTimestamp == null) {
+            eventTimestamp = LocalDateTime.now();
+        }
+    }
 }
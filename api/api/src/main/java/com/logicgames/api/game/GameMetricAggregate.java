@@ -0,0 +1,48 @@
+package com.logicgames.api.game;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Métricas a largo plazo: una fila por tipo de evento y HORA o DÍA.
+ * Las calcula GameMetricRetentionService a partir de los minutos
+ * (game_metric_rollups) y de los eventos sueltos antiguos (game_metrics).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "game_metric_aggregates",
+        uniqueConstraints = @UniqueConstraint(name = "uk_game_metric_aggregates_bucket",
+                columnNames = {"event_type", "granularity", "bucket_start"}),
+        indexes = @Index(name = "idx_game_metric_aggregates_granularity_bucket",
+                columnList = "granularity, bucket_start"))
+public class GameMetricAggregate {
+
+    public static final String HOUR = "HOUR";
+    public static final String DAY = "DAY";
+
+    // Solo se inserta con las consultas nativas del repositorio: la BBDD pone el id
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_type", nullable = false)
+    private String eventType;
+
+    // "HOUR" o "DAY"
+    @Column(name = "granularity", nullable = false, length = 8)
+    private String granularity;
+
+    // Inicio de la hora/día (hora local)
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "event_count", nullable = false)
+    private long eventCount;
+}
@@ -0,0 +1,71 @@
+package com.logicgames.api.game;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface GameMetricAggregateRepository extends JpaRepository<GameMetricAggregate, Long> {
+
+    /**
+     * (Re)calcula las horas entre 'from' y 'to' sumando los minutos agregados
+     * y los eventos sueltos antiguos. Sobrescribe: se puede repetir sin contar doble.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO game_metric_aggregates (event_type, granularity, bucket_start, event_count) " +
+            "SELECT event_type, 'HOUR', hour, SUM(n) FROM (" +
+            "  SELECT event_type, date_trunc('hour', bucket_start) AS hour, event_count AS n FROM game_metric_rollups " +
+            "  WHERE bucket_start >= :from AND bucket_start < :to " +
+            "  UNION ALL " +
+            "  SELECT event_type, date_trunc('hour', event_timestamp), 1 FROM game_metrics " +
+            "  WHERE event_timestamp >= :from AND event_timestamp < :to" +
+            ") events GROUP BY event_type, hour " +
+            "ON CONFLICT (event_type, granularity, bucket_start) DO UPDATE SET event_count = EXCLUDED.event_count",
+            nativeQuery = true)
+    int rollUpHours(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Lo mismo para los días, a partir de las horas.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO game_metric_aggregates (event_type, granularity, bucket_start, event_count) " +
+            "SELECT event_type, 'DAY', date_trunc('day', bucket_start), SUM(event_count) FROM game_metric_aggregates " +
+            "WHERE granularity = 'HOUR' AND bucket_start >= :from AND bucket_start < :to " +
+            "GROUP BY event_type, date_trunc('day', bucket_start) " +
+            "ON CONFLICT (event_type, granularity, bucket_start) DO UPDATE SET event_count = EXCLUDED.event_count",
+            nativeQuery = true)
+    int rollUpDays(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Última hora/día agregado (null si todavía no hay ninguno)
+    @Query("SELECT MAX(a.bucketStart) FROM GameMetricAggregate a WHERE a.granularity = :granularity")
+    LocalDateTime findNewestBucketStart(@Param("granularity") String granularity);
+
+    /**
+     * Borra como mucho 'limit' filas de esa granularidad anteriores a la fecha.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM game_metric_aggregates WHERE id IN " +
+            "(SELECT id FROM game_metric_aggregates WHERE granularity = :granularity " +
+            "AND bucket_start < :cutOffDate LIMIT :limit)",
+            nativeQuery = true)
+    int deleteBatchBefore(@Param("granularity") String granularity,
+                          @Param("cutOffDate") LocalDateTime cutOffDate,
+                          @Param("limit") int limit);
+
+    // Perfil por hora del día: cuántos eventos de cada tipo hubo en cada hora (0-23)
+    // desde la fecha dada (cada fila: [eventType, hour, count])
+    @Query("SELECT a.eventType, EXTRACT(HOUR FROM a.bucketStart), SUM(a.eventCount) FROM GameMetricAggregate a " +
+            "WHERE a.granularity = 'HOUR' AND a.eventType IN :eventTypes AND a.bucketStart > :cutOffDate " +
+            "GROUP BY a.eventType, EXTRACT(HOUR FROM a.bucketStart)")
+    List<Object[]> sumByEventTypesAndHourOfDayAfter(@Param("eventTypes") Collection<String> eventTypes,
+                                                    @Param("cutOffDate") LocalDateTime cutOffDate);
+}
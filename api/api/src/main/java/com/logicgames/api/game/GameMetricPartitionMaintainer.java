@@ -0,0 +1,152 @@
+package com.logicgames.api.game;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Particiones diarias de game_metric_rollups (OPCIONAL: app.metrics.partitioning.enabled).
+ *
+ * La tabla se convierte una vez a mano con db/partitioning/game_metric_rollups.sql.
+ * A partir de ahí, en cada pasada de retención:
+ *  - se crean por adelantado las particiones de los próximos días, y
+ *  - las que quedan enteras fuera de la retención se TIRAN (DROP TABLE):
+ *    nada de borrar fila a fila.
+ */
+@Component
+@RequiredArgsConstructor
+public class GameMetricPartitionMaintainer {
+
+    static final String TABLE = "game_metric_rollups";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final GameMetricProperties properties;
+    private final PlatformTransactionManager transactionManager;
+
+    public void maintain() {
+        GameMetricProperties.Partitioning config = properties.getPartitioning();
+        if (!config.isEnabled()) {
+            return;
+        }
+        try {
+            if (!isPartitioned()) {
+                System.err.println("-> PARTICIONES: " + TABLE + " no está particionada. " +
+                        "Ejecuta db/partitioning/" + TABLE + ".sql o desactiva app.metrics.partitioning.enabled");
+                return;
+            }
+
+            LocalDate today = LocalDate.now();
+            for (int day = 0; day <= config.getPremakeDays(); day++) {
+                try {
+                    createPartition(today.plusDays(day));
+                } catch (RuntimeException e) {
+                    // Un día que falla no impide crear los demás ni tirar los viejos
+                    System.err.println("-> PARTICIONES: No se pudo crear " + partitionName(today.plusDays(day))
+                            + ": " + e.getMessage());
+                }
+            }
+
+            int minuteDays = properties.getRetention().getMinuteDays();
+            if (minuteDays > 0) {
+                dropPartitionsBefore(today.minusDays(minuteDays));
+            }
+        } catch (RuntimeException e) {
+            System.err.println("-> PARTICIONES: Falló el mantenimiento: " + e.getMessage());
+        }
+    }
+
+    private boolean isPartitioned() {
+        List<String> kind = jdbcTemplate.queryForList(
+                "SELECT relkind::text FROM pg_class WHERE relname = ?", String.class, TABLE);
+        return kind.contains("p");
+    }
+
+    /**
+     * Crea la partición de ese día si no existe. Si ya cayeron filas de ese día
+     * en la DEFAULT (ej. un reloj adelantado, o el job estuvo parado), Postgres no
+     * deja crearla: se crea suelta, se mueven ahí esas filas y se engancha
+     * (todo en una transacción).
+     */
+    void createPartition(LocalDate day) {
+        String partition = partitionName(day);
+        if (jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition)) {
+            return;
+        }
+        String bounds = "FROM ('" + day + "') TO ('" + day.plusDays(1) + "')";
+        String range = "bucket_start >= '" + day + "' AND bucket_start < '" + day.plusDays(1) + "'";
+        String defaultPartition = defaultPartition();
+        boolean stranded = defaultPartition != null && jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + defaultPartition + " WHERE " + range + ")", Boolean.class);
+        if (!stranded) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF " + TABLE +
+                    " FOR VALUES " + bounds);
+            return;
+        }
+
+        Integer moved = new TransactionTemplate(transactionManager).execute(status -> {
+            jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE " + TABLE + " INCLUDING DEFAULTS)");
+            int rows = jdbcTemplate.update("WITH moved AS (DELETE FROM " + defaultPartition + " WHERE " + range +
+                    " RETURNING id, event_type, bucket_start, event_count) " +
+                    "INSERT INTO " + partition + " (id, event_type, bucket_start, event_count) SELECT * FROM moved");
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " ATTACH PARTITION " + partition + " FOR VALUES " + bounds);
+            return rows;
+        });
+        System.out.println("-> PARTICIONES: " + moved + " filas de " + day + " sacadas de " + defaultPartition
+                + " a " + partition + ".");
+    }
+
+    // La partición DEFAULT de la tabla (null si no tiene)
+    private String defaultPartition() {
+        List<String> names = jdbcTemplate.queryForList(
+                "SELECT child.relname::text FROM pg_inherits " +
+                        "JOIN pg_class parent ON parent.oid = pg_inherits.inhparent " +
+                        "JOIN pg_class child ON child.oid = pg_inherits.inhrelid " +
+                        "WHERE parent.relname = ? AND pg_get_expr(child.relpartbound, child.oid) = 'DEFAULT'",
+                String.class, TABLE);
+        return names.isEmpty() ? null : names.get(0);
+    }
+
+    /**
+     * Tira las particiones cuyo día entero es anterior a 'cutOff'.
+     */
+    private void dropPartitionsBefore(LocalDate cutOff) {
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT child.relname::text FROM pg_inherits " +
+                        "JOIN pg_class parent ON parent.oid = pg_inherits.inhparent " +
+                        "JOIN pg_class child ON child.oid = pg_inherits.inhrelid " +
+                        "WHERE parent.relname = ?", String.class, TABLE);
+
+        for (String partition : partitions) {
+            LocalDate day = dayOf(partition);
+            if (day != null && day.plusDays(1).compareTo(cutOff) <= 0) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+                System.out.println("-> PARTICIONES: Partición " + partition + " eliminada.");
+            }
+        }
+    }
+
+    static String partitionName(LocalDate day) {
+        return TABLE + "_p" + day.format(SUFFIX);
+    }
+
+    // null si no es una de nuestras particiones diarias (ej. la DEFAULT)
+    static LocalDate dayOf(String partition) {
+        String prefix = TABLE + "_p";
+        if (!partition.startsWith(prefix)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(partition.substring(prefix.length()), SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.logicgames.api.game;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Retención de métricas (app.metrics.retention...) y tabla particionada
+ * opcional (app.metrics.partitioning...).
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.metrics")
+public class GameMetricProperties {
+
+    private Retention retention = new Retention();
+
+    private Partitioning partitioning = new Partitioning();
+
+    /**
+     * Cuánto se guarda de cada nivel (GameMetricRetentionService).
+     * Un valor de 0 días = sin límite.
+     */
+    @Data
+    public static class Retention {
+        // Eventos sueltos del histórico (game_metrics)
+        private int rawDays = 7;
+        // Filas por minuto (game_metric_rollups). Al menos lo que recarga GameMetricRecorder al arrancar
+        private int minuteDays = 3;
+        // Agregados por hora (los usa el perfil del autoescalador)
+        private int hourlyDays = 90;
+        // Agregados por día
+        private int dailyDays = 0;
+        // Horas ya agregadas que se recalculan en cada pasada (por si llegaron eventos tarde)
+        private int lookbackHours = 3;
+        // Filas por DELETE: lotes pequeños = locks cortos
+        private int batchSize = 5000;
+        // Tiempo máximo de cada pasada; lo que falte se hace en la siguiente
+        private long timeBudgetMs = 20000;
+    }
+
+    /**
+     * game_metric_rollups particionada por día (ver db/partitioning/game_metric_rollups.sql).
+     */
+    @Data
+    public static class Partitioning {
+        private boolean enabled = false;
+        // Particiones que se crean por adelantado (días)
+        private int premakeDays = 3;
+    }
+}
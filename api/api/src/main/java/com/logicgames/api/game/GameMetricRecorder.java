@@ -0,0 +1,133 @@
+package com.logicgames.api.game;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Métricas EN MEMORIA: ya no se escribe una fila por evento.
+ *
+ * - record() solo suma 1 al contador del minuto actual (MinuteCounters).
+ * - count() responde "¿cuántos en la última hora?" sin tocar la BBDD.
+ * - Cada pocos segundos se vuelcan los minutos como filas agregadas en
+ *   game_metric_rollups (una por tipo y minuto), y al arrancar se recargan
+ *   para no perder la ventana al reiniciar.
+ */
+@Component
+@RequiredArgsConstructor
+public class GameMetricRecorder {
+
+    private final GameMetricRollupRepository rollupRepository;
+
+    // Minutos que se guardan en memoria (las ventanas más largas se recortan)
+    @Value("${app.metrics.window-minutes:1440}")
+    private int windowMinutes;
+
+    private final Map<String, MinuteCounters> counters = new ConcurrentHashMap<>();
+
+    // Solo para el volcado (y la carga inicial), nunca en una petición
+    private final Object flushLock = new Object();
+    private long lastFlushMinute = currentMinute();
+
+    /**
+     * Anota un evento (ej. "PUZZLE_CONSUMED_EASY") en el minuto actual.
+     */
+    public void record(String eventType) {
+        counters(eventType).increment(currentMinute());
+    }
+
+    /**
+     * Anota 'count' eventos de golpe (ej. filas borradas por una purga).
+     */
+    public void record(String eventType, long count) {
+        if (count > 0) {
+            counters(eventType).add(currentMinute(), count);
+        }
+    }
+
+    /**
+     * Eventos de ese tipo en la ventana dada (el minuto en curso incluido),
+     * contados en memoria.
+     */
+    public long count(String eventType, Duration window) {
+        MinuteCounters counter = counters.get(eventType);
+        if (counter == null) {
+            return 0;
+        }
+        long now = currentMinute();
+        return counter.sum(now - Math.max(1, window.toMinutes()) + 1, now);
+    }
+
+    @PostConstruct
+    void warmUp() {
+        synchronized (flushLock) {
+            try {
+                long from = currentMinute() - windowMinutes + 1;
+                for (GameMetricRollup rollup : rollupRepository.findByBucketStartGreaterThanEqual(toDateTime(from))) {
+                    counters(rollup.getEventType()).load(toMinute(rollup.getBucketStart()), rollup.getEventCount());
+                }
+            } catch (RuntimeException e) {
+                // Sin histórico las ventanas empiezan vacías, pero la app arranca igual
+                System.err.println("-> MÉTRICAS: No se pudieron recargar los contadores: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Vuelca lo nuevo desde el último volcado (incluido el minuto en curso, a trozos).
+     * Se repasa también el minuto anterior por si algún evento llegó justo en el cambio.
+     */
+    @Scheduled(fixedDelayString = "${app.metrics.flush-interval-ms:5000}")
+    public void flush() {
+        synchronized (flushLock) {
+            long now = currentMinute();
+            try {
+                for (Map.Entry<String, MinuteCounters> entry : counters.entrySet()) {
+                    MinuteCounters counter = entry.getValue();
+                    for (long minute = Math.max(lastFlushMinute - 1, now - counter.size() + 1); minute <= now; minute++) {
+                        long delta = counter.unflushed(minute);
+                        if (delta != 0) {
+                            rollupRepository.addCount(entry.getKey(), toDateTime(minute), delta);
+                            counter.markFlushed(minute, delta);
+                        }
+                    }
+                }
+                lastFlushMinute = now;
+            } catch (RuntimeException e) {
+                // Lo no volcado sigue en memoria: se reintenta en el siguiente volcado
+                System.err.println("-> MÉTRICAS: Falló el volcado de contadores: " + e.getMessage());
+            }
+        }
+    }
+
+    private MinuteCounters counters(String eventType) {
+        return counters.computeIfAbsent(eventType, type -> new MinuteCounters(windowMinutes));
+    }
+
+    private static long currentMinute() {
+        return System.currentTimeMillis() / 60_000;
+    }
+
+    private static LocalDateTime toDateTime(long minute) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(minute * 60), ZoneId.systemDefault());
+    }
+
+    private static long toMinute(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toEpochSecond() / 60;
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+}
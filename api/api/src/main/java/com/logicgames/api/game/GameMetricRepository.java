@@ -2,12 +2,32 @@ package com.logicgames.api.game;
 
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 
+// Eventos sueltos (histórico): las métricas nuevas van agregadas a GameMetricRollupRepository
 @Repository
 public interface GameMetricRepository extends JpaRepository<GameMetric, Long> {
 
     // "Cuenta cuántos eventos de un tipo ocurrieron DESPUÉS de una fecha"
     long countByEventTypeAndEventTimestampAfter(String eventType, LocalDateTime cutOffDate);
+
+    // Evento más antiguo (null si la tabla está vacía)
+    @Query("SELECT MIN(m.eventTimestamp) FROM GameMetric m")
+    LocalDateTime findOldestEventTimestamp();
+
+    /**
+     * Borra como mucho 'limit' eventos anteriores a la fecha (un lote = un DELETE corto).
+     * Devuelve cuántos borró.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM game_metrics WHERE id IN " +
+            "(SELECT id FROM game_metrics WHERE event_timestamp < :cutOffDate LIMIT :limit)",
+            nativeQuery = true)
+    int deleteBatchBefore(@Param("cutOffDate") LocalDateTime cutOffDate, @Param("limit") int limit);
 }
@@ -0,0 +1,151 @@
+package com.logicgames.api.game;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Retención de métricas, cada hora:
+ *
+ *   game_metrics (eventos sueltos) --+
+ *                                    +--> agregados por HORA --> agregados por DÍA
+ *   game_metric_rollups (minutos) ---+
+ *
+ * 1. Agrega las horas y días completos (recalculando las últimas horas por si
+ *    llegó algo tarde; las consultas sobrescriben, así que repetir no cuenta doble).
+ * 2. Mantiene las particiones si la tabla de minutos está particionada.
+ * 3. Borra lo que sale de la ventana de cada nivel EN LOTES pequeños (locks cortos),
+ *    con un tiempo máximo por pasada. Solo si el paso 1 terminó: nunca se borra
+ *    nada que no esté ya agregado.
+ */
+@Service
+@RequiredArgsConstructor
+public class GameMetricRetentionService {
+
+    // Tamaño de cada INSERT ... SELECT al agregar (para que ninguno sea enorme)
+    private static final int HOURS_PER_STEP = 24;
+    private static final int DAYS_PER_STEP = 31;
+
+    private final GameMetricRepository metricRepository;
+    private final GameMetricRollupRepository rollupRepository;
+    private final GameMetricAggregateRepository aggregateRepository;
+    private final GameMetricPartitionMaintainer partitionMaintainer;
+    private final GameMetricProperties properties;
+    private final BatchedPurger purger;
+
+    @Scheduled(cron = "0 2 * * * ?") // Cada hora, antes de que el autoescalador relea el perfil (min. 5)
+    public void run() {
+        GameMetricProperties.Retention retention = properties.getRetention();
+        long deadline = System.currentTimeMillis() + retention.getTimeBudgetMs();
+        LocalDateTime currentHour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+
+        boolean rolledUp;
+        try {
+            rolledUp = rollUp(currentHour, retention, deadline);
+        } catch (RuntimeException e) {
+            System.err.println("-> RETENCIÓN: Falló la agregación: " + e.getMessage());
+            rolledUp = false;
+        }
+
+        partitionMaintainer.maintain();
+
+        if (!rolledUp) {
+            System.out.println("-> RETENCIÓN: Agregación incompleta, no se borra nada en esta pasada.");
+            return;
+        }
+
+        // Los minutos y eventos sueltos se guardan como poco lo que se recalcula en cada pasada
+        LocalDateTime stillNeeded = currentHour.minusHours(retention.getLookbackHours());
+        LocalDateTime rawCutOff = cutOff(retention.getRawDays(), stillNeeded);
+        purge("GAME_METRICS", rawCutOff, deadline,
+                limit -> metricRepository.deleteBatchBefore(rawCutOff, limit));
+        LocalDateTime minuteCutOff = cutOff(retention.getMinuteDays(), stillNeeded);
+        purge("GAME_METRIC_ROLLUPS", minuteCutOff, deadline,
+                limit -> rollupRepository.deleteBatchBefore(minuteCutOff, limit));
+        LocalDateTime hourCutOff = cutOff(retention.getHourlyDays(), currentHour.truncatedTo(ChronoUnit.DAYS).minusDays(2));
+        purge("AGGREGATES_HOUR", hourCutOff, deadline,
+                limit -> aggregateRepository.deleteBatchBefore(GameMetricAggregate.HOUR, hourCutOff, limit));
+        LocalDateTime dayCutOff = cutOff(retention.getDailyDays(), currentHour);
+        purge("AGGREGATES_DAY", dayCutOff, deadline,
+                limit -> aggregateRepository.deleteBatchBefore(GameMetricAggregate.DAY, dayCutOff, limit));
+    }
+
+    /**
+     * Devuelve false si se acabó el tiempo antes de terminar.
+     */
+    private boolean rollUp(LocalDateTime currentHour, GameMetricProperties.Retention retention, long deadline) {
+        // Horas: desde la última agregada (menos el margen) o, la primera vez, desde el dato más antiguo
+        LocalDateTime newestHour = aggregateRepository.findNewestBucketStart(GameMetricAggregate.HOUR);
+        LocalDateTime from = newestHour != null
+                ? newestHour.minusHours(retention.getLookbackHours())
+                : oldestSource();
+        if (from == null) {
+            return true; // no hay nada que agregar
+        }
+        from = from.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime firstHour = from;
+
+        while (from.isBefore(currentHour)) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            LocalDateTime to = earliest(from.plusHours(HOURS_PER_STEP), currentHour);
+            aggregateRepository.rollUpHours(from, to);
+            from = to;
+        }
+
+        // Días completos, a partir de las horas (se recalcula también el último)
+        LocalDateTime today = currentHour.truncatedTo(ChronoUnit.DAYS);
+        LocalDateTime newestDay = aggregateRepository.findNewestBucketStart(GameMetricAggregate.DAY);
+        from = (newestDay != null ? newestDay.minusDays(1) : firstHour).truncatedTo(ChronoUnit.DAYS);
+
+        while (from.isBefore(today)) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            LocalDateTime to = earliest(from.plusDays(DAYS_PER_STEP), today);
+            aggregateRepository.rollUpDays(from, to);
+            from = to;
+        }
+        return true;
+    }
+
+    private LocalDateTime oldestSource() {
+        LocalDateTime oldestRaw = metricRepository.findOldestEventTimestamp();
+        LocalDateTime oldestMinute = rollupRepository.findOldestBucketStart();
+        if (oldestRaw == null) {
+            return oldestMinute;
+        }
+        return oldestMinute == null ? oldestRaw : earliest(oldestRaw, oldestMinute);
+    }
+
+    /**
+     * DELETE en lotes (BatchedPurger) hasta que no quede nada o se acabe el tiempo
+     * compartido de la pasada. cutOffDate null = sin límite, no se borra nada.
+     */
+    private void purge(String name, LocalDateTime cutOffDate, long deadline, IntUnaryOperator deleteBatch) {
+        if (cutOffDate == null) {
+            return; // sin límite
+        }
+        purger.purge(name, properties.getRetention().getBatchSize(), deadline, deleteBatch);
+    }
+
+    /**
+     * Fecha de corte para 'days' días de retención, nunca posterior a 'notAfter'.
+     * null = sin límite.
+     */
+    private static LocalDateTime cutOff(int days, LocalDateTime notAfter) {
+        if (days <= 0) {
+            return null;
+        }
+        return earliest(LocalDateTime.now().minusDays(days), notAfter);
+    }
+
+    private static LocalDateTime earliest(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
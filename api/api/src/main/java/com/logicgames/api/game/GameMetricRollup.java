@@ -0,0 +1,41 @@
+package com.logicgames.api.game;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Métricas YA AGREGADAS: una fila por tipo de evento y minuto
+ * (en vez de una fila por evento como en game_metrics).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "game_metric_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_game_metric_rollups_bucket",
+                columnNames = {"event_type", "bucket_start"}),
+        indexes = @Index(name = "idx_game_metric_rollups_bucket", columnList = "bucket_start"))
+public class GameMetricRollup {
+
+    // Solo se inserta con el "upsert" nativo del repositorio: la BBDD pone el id
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Ej. "PUZZLE_CONSUMED_EASY"
+    @Column(name = "event_type", nullable = false)
+    private String eventType;
+
+    // Inicio del minuto (hora local, como el resto de fechas de la app)
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    // Cuántos eventos hubo en ese minuto
+    @Column(name = "event_count", nullable = false)
+    private long eventCount;
+}
@@ -0,0 +1,48 @@
+package com.logicgames.api.game;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface GameMetricRollupRepository extends JpaRepository<GameMetricRollup, Long> {
+
+    /**
+     * Suma 'count' al minuto dado (crea la fila si no existe).
+     * Sumar en vez de sobrescribir permite volcar un minuto a trozos
+     * (y que varias instancias escriban el mismo minuto).
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO game_metric_rollups (event_type, bucket_start, event_count) " +
+            "VALUES (:eventType, :bucketStart, :count) " +
+            "ON CONFLICT (event_type, bucket_start) " +
+            "DO UPDATE SET event_count = game_metric_rollups.event_count + EXCLUDED.event_count",
+            nativeQuery = true)
+    void addCount(@Param("eventType") String eventType,
+                  @Param("bucketStart") LocalDateTime bucketStart,
+                  @Param("count") long count);
+
+    // Para recargar los contadores en memoria al arrancar
+    List<GameMetricRollup> findByBucketStartGreaterThanEqual(LocalDateTime from);
+
+    // Primer minuto guardado (null si no hay ninguno)
+    @Query("SELECT MIN(r.bucketStart) FROM GameMetricRollup r")
+    LocalDateTime findOldestBucketStart();
+
+    /**
+     * Borra como mucho 'limit' minutos anteriores a la fecha (un lote = un DELETE corto).
+     * Devuelve cuántos borró.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM game_metric_rollups WHERE id IN " +
+            "(SELECT id FROM game_metric_rollups WHERE bucket_start < :cutOffDate LIMIT :limit)",
+            nativeQuery = true)
+    int deleteBatchBefore(@Param("cutOffDate") LocalDateTime cutOffDate, @Param("limit") int limit);
+}
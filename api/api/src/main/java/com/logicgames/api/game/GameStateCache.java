@@ -0,0 +1,195 @@
+package com.logicgames.api.game;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Caché "write-behind" de las partidas EN JUEGO, una por usuario.
+ *
+ * - /save solo cambia la copia en memoria y la marca como pendiente.
+ * - Cada pocos segundos se vuelca lo pendiente: un UPDATE por jugador y
+ *   ventana, por muchos /save que haya hecho (solo cuenta el último).
+ * - Al completar/fallar, el servicio se lleva lo pendiente (take) y lo
+ *   escribe junto con el cambio de estado. Al apagar, se vuelca todo.
+ * - Las entradas sin tocar un rato se olvidan (la BBDD ya está al día).
+ * - El volcado escribe fuera del lock de la entrada, así que su UPDATE es
+ *   condicional (saveProgress): una copia que se quedó vieja entretanto no pisa
+ *   jugadas (/moves) ni un puzzle nuevo puesto en la misma fila.
+ *
+ * Ojo: la caché es de ESTA instancia. Con varias instancias, las peticiones
+ * de un mismo usuario deben ir siempre a la misma.
+ */
+@Component
+public class GameStateCache {
+
+    private final SudokuGameRepository sudokuGameRepository;
+    private final Duration idleEviction;
+
+    private final Map<Long, Entry> games = new ConcurrentHashMap<>();
+
+    public GameStateCache(
+            SudokuGameRepository sudokuGameRepository,
+            @Value("${app.game.cache.idle-eviction-seconds:1800}") long idleEvictionSeconds
+    ) {
+        this.sudokuGameRepository = sudokuGameRepository;
+        this.idleEviction = Duration.ofSeconds(idleEvictionSeconds);
+    }
+
+    /**
+     * Copia de la partida en juego del usuario, si está en la caché.
+     */
+    public Optional<SudokuGame> get(Long userId) {
+        Entry entry = games.get(userId);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        synchronized (entry) {
+            entry.lastAccess = System.nanoTime();
+            return Optional.of(entry.game.toBuilder().build());
+        }
+    }
+
+    /**
+     * Lee la partida en juego del usuario SIN copiarla (ej. para validar jugadas
+     * a ritmo de autoguardado). 'reader' no debe modificarla ni quedársela.
+     */
+    public <T> Optional<T> read(Long userId, Function<SudokuGame, T> reader) {
+        Entry entry = games.get(userId);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        synchronized (entry) {
+            entry.lastAccess = System.nanoTime();
+            return Optional.ofNullable(reader.apply(entry.game));
+        }
+    }
+
+    /**
+     * Mete (o reemplaza) la partida recién leída/escrita en la BBDD.
+     * Lo pendiente de una partida anterior del usuario se descarta: ya no está en juego.
+     */
+    public void put(Long userId, SudokuGame game) {
+        games.put(userId, new Entry(game.toBuilder().build()));
+    }
+
+    /**
+     * Anota el progreso sin tocar la BBDD. Devuelve false si la partida no
+     * está en la caché (el servicio la carga y vuelve a llamar).
+     */
+    public boolean updateProgress(Long userId, String boardString, long timeElapsedSeconds) {
+        Entry entry = games.get(userId);
+        if (entry == null) {
+            return false;
+        }
+        synchronized (entry) {
+            if (games.get(userId) != entry) {
+                return false; // la acaban de sacar (completar/fallar): que decida la BBDD
+            }
+            entry.game.setBoardString(boardString);
+            entry.game.setTimeElapsedSeconds(timeElapsedSeconds);
+            entry.game.setLastUpdatedAt(LocalDateTime.now());
+            entry.lastAccess = System.nanoTime();
+            entry.version++;
+            return true;
+        }
+    }
+
+    /**
+     * Saca la partida de la caché y devuelve su progreso si había algo sin volcar
+     * (para escribirlo junto con el cambio de estado, en el mismo UPDATE).
+     */
+    public Optional<SudokuGame> take(Long userId) {
+        Entry entry = games.remove(userId);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        synchronized (entry) {
+            return entry.version != entry.flushedVersion ? Optional.of(entry.game.toBuilder().build()) : Optional.empty();
+        }
+    }
+
+    /**
+     * Vuelca lo de UN usuario ya (ej. antes de aplicar jugadas directamente en la BBDD)
+     * y lo saca de la caché.
+     */
+    public void flushAndEvict(Long userId) {
+        take(userId).ifPresent(this::write);
+    }
+
+    @Scheduled(fixedDelayString = "${app.game.cache.flush-interval-ms:10000}")
+    public void flush() {
+        long idleBefore = System.nanoTime() - idleEviction.toNanos();
+        int written = 0;
+        for (Map.Entry<Long, Entry> mapEntry : games.entrySet()) {
+            Entry entry = mapEntry.getValue();
+            SudokuGame snapshot;
+            long version;
+            synchronized (entry) {
+                if (games.get(mapEntry.getKey()) != entry) {
+                    continue; // ya la sacaron (take): lo pendiente lo escribió quien la sacó
+                }
+                if (entry.version == entry.flushedVersion) {
+                    if (entry.lastAccess - idleBefore < 0) {
+                        games.remove(mapEntry.getKey(), entry); // al día y sin uso: fuera
+                    }
+                    continue;
+                }
+                snapshot = entry.game.toBuilder().build();
+                version = entry.version;
+            }
+            try {
+                if (!write(snapshot)) {
+                    // Ya no está en juego, o la BBDD tiene algo más nuevo (jugadas, otro
+                    // puzzle en la misma fila...): esta copia no vale, que se relea
+                    games.remove(mapEntry.getKey(), entry);
+                    continue;
+                }
+                written++;
+                synchronized (entry) {
+                    entry.flushedVersion = Math.max(entry.flushedVersion, version);
+                }
+            } catch (RuntimeException e) {
+                // Sigue pendiente: se reintenta en el siguiente volcado
+                System.err.println("-> PARTIDAS: Falló el volcado de la partida " + snapshot.getId() + ": " + e.getMessage());
+            }
+        }
+        if (written > 0) {
+            System.out.println("-> PARTIDAS: " + written + " partidas volcadas a la BBDD.");
+        }
+    }
+
+    private boolean write(SudokuGame game) {
+        // (Condicional: una copia vieja nunca pisa lo que se escribió después, ver saveProgress)
+        return sudokuGameRepository.saveProgress(game.getId(), game.getLastMoveSeq(), game.getSolutionString(),
+                game.getBoardString(), game.getTimeElapsedSeconds(), game.getLastUpdatedAt()) > 0;
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    int size() {
+        return games.size();
+    }
+
+    private static final class Entry {
+        private final SudokuGame game;
+        private long version;
+        private long flushedVersion;
+        private long lastAccess = System.nanoTime();
+
+        private Entry(SudokuGame game) {
+            this.game = game;
+        }
+    }
+}
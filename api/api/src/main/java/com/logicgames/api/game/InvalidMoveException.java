@@ -0,0 +1,13 @@
+package com.logicgames.api.game;
+
+/**
+ * Lo que manda el jugador no vale: un lote de jugadas no consecutivo, una jugada
+ * sobre una pista del puzzle, un tablero mal formado... Se responde 400 con el motivo.
+ * (Solo esta: cualquier otro IllegalArgumentException es un fallo nuestro, no del cliente)
+ */
+public class InvalidMoveException extends RuntimeException {
+
+    public InvalidMoveException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,118 @@
+package com.logicgames.api.game;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contador de UN tipo de evento, por minutos, en un anillo de LongAdder.
+ *
+ * - Cada hueco del anillo es un minuto (minuto % tamaño). Cuando llega el
+ *   primer evento de un minuto nuevo, el hueco se "recicla" (se pone a 0).
+ * - Sumar es lock-free (LongAdder reparte la contención entre celdas);
+ *   el único lock es el de reciclar un hueco, una vez por minuto.
+ * - Contar una ventana recorre solo los minutos de esa ventana.
+ *
+ * Además recuerda cuánto de cada minuto se ha volcado ya a la BBDD, para que
+ * GameMetricRecorder escriba solo la diferencia (esa parte solo la toca el
+ * hilo que vuelca).
+ */
+final class MinuteCounters {
+
+    private final int size;
+    private final LongAdder[] counts;
+    private final AtomicLongArray minuteOf;
+
+    private final long[] flushed;
+    private final long[] flushedMinute;
+
+    MinuteCounters(int size) {
+        this.size = size;
+        this.counts = new LongAdder[size];
+        this.minuteOf = new AtomicLongArray(size);
+        this.flushed = new long[size];
+        this.flushedMinute = new long[size];
+        for (int i = 0; i < size; i++) {
+            counts[i] = new LongAdder();
+            minuteOf.set(i, -1);
+            flushedMinute[i] = -1;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    void increment(long minute) {
+        add(minute, 1);
+    }
+
+    void add(long minute, long amount) {
+        int slot = slot(minute);
+        if (minuteOf.get(slot) != minute && !rotate(slot, minute)) {
+            return; // el hueco ya es de un minuto posterior: llegamos tarde
+        }
+        counts[slot].add(amount);
+    }
+
+    private boolean rotate(int slot, long minute) {
+        synchronized (this) {
+            long current = minuteOf.get(slot);
+            if (current < minute) {
+                // Primero a 0 y LUEGO el minuto nuevo: quien vea el minuto nuevo
+                // ya suma sobre el hueco limpio
+                counts[slot].reset();
+                minuteOf.set(slot, minute);
+                return true;
+            }
+            return current == minute;
+        }
+    }
+
+    /**
+     * Eventos entre dos minutos (ambos incluidos). Los minutos que ya no
+     * caben en el anillo no cuentan.
+     */
+    long sum(long fromMinute, long toMinute) {
+        long total = 0;
+        for (long minute = Math.max(fromMinute, toMinute - size + 1); minute <= toMinute; minute++) {
+            total += get(minute);
+        }
+        return total;
+    }
+
+    long get(long minute) {
+        int slot = slot(minute);
+        return minuteOf.get(slot) == minute ? counts[slot].sum() : 0;
+    }
+
+    /**
+     * Lo que hay en ese minuto y todavía no se ha volcado.
+     */
+    long unflushed(long minute) {
+        int slot = slot(minute);
+        long done = flushedMinute[slot] == minute ? flushed[slot] : 0;
+        return get(minute) - done;
+    }
+
+    void markFlushed(long minute, long amount) {
+        int slot = slot(minute);
+        if (flushedMinute[slot] != minute) {
+            flushedMinute[slot] = minute;
+            flushed[slot] = 0;
+        }
+        flushed[slot] += amount;
+    }
+
+    /**
+     * Carga un minuto que ya está en la BBDD (al arrancar): cuenta para las
+     * ventanas pero no se vuelve a volcar.
+     */
+    void load(long minute, long amount) {
+        add(minute, amount);
+        markFlushed(minute, amount);
+    }
+
+    private int slot(long minute) {
+        return (int) Math.floorMod(minute, (long) size);
+    }
+}
@@ -0,0 +1,19 @@
+package com.logicgames.api.game;
+
+import lombok.Getter;
+
+/**
+ * El lote de jugadas no encaja con lo que hay guardado (falta alguna jugada
+ * anterior, o otro lote se ha aplicado a la vez). Se responde 409 con la
+ * última jugada guardada para que el cliente reenvíe desde ahí.
+ */
+@Getter
+public class MoveConflictException extends RuntimeException {
+
+    private final long lastMoveSeq;
+
+    public MoveConflictException(String message, long lastMoveSeq) {
+        super(message);
+        this.lastMoveSeq = lastMoveSeq;
+    }
+}
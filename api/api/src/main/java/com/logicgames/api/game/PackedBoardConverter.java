@@ -0,0 +1,23 @@
+package com.logicgames.api.game;
+
+import com.logicgames.api.game.engine.PackedBoard;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Las entidades siguen viendo el tablero como "5300..." (81 caracteres),
+ * pero en la BBDD se guarda empaquetado (bytea de 41 bytes, ver PackedBoard).
+ */
+@Converter
+public class PackedBoardConverter implements AttributeConverter<String, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(String board) {
+        return board == null ? null : PackedBoard.pack(board);
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] packed) {
+        return packed == null ? null : PackedBoard.unpack(packed);
+    }
+}
@@ -0,0 +1,146 @@
+package com.logicgames.api.game;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Autoescalador PREDICTIVO del pool (complementa al job elástico de cada hora).
+ *
+ * Cada pocos segundos, y para cada dificultad:
+ *  1. Mide el ritmo de consumo (puzzles/segundo) y lo suaviza con una media
+ *     móvil exponencial (EWMA).
+ *  2. Lo compara con el perfil "por hora del día" sacado de los agregados por hora
+ *     (ej. a las 21h siempre hay más gente) y se queda con el mayor.
+ *  3. Si al ritmo previsto el pool se vaciaría antes del "lead time", pide un
+ *     relleno del tamaño de la demanda prevista, limitado por lo que el
+ *     generador puede producir sin acaparar la CPU.
+ */
+@Component
+@RequiredArgsConstructor
+public class PoolAutoscaler {
+
+    private final PuzzlePool puzzlePool;
+    private final PuzzleRefillPipeline refillPipeline;
+    private final GameMetricAggregateRepository aggregateRepository;
+    private final PuzzlePoolProperties poolProperties;
+
+    private final Map<String, DemandModel> models = new ConcurrentHashMap<>();
+
+    /**
+     * Recalcula el perfil por hora del día (al arrancar y cada hora).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 5 * * * ?")
+    public void refreshProfile() {
+        int days = poolProperties.getAutoscaler().getProfileDays();
+
+        Map<String, String> difficultyByEvent = new HashMap<>();
+        for (String difficulty : PuzzlePool.DIFFICULTIES) {
+            difficultyByEvent.put("PUZZLE_CONSUMED_" + difficulty, difficulty);
+            difficultyByEvent.put("POOL_EMPTY_" + difficulty, difficulty);
+        }
+
+        Map<String, double[]> profiles = new HashMap<>();
+        for (Object[] row : aggregateRepository.sumByEventTypesAndHourOfDayAfter(
+                difficultyByEvent.keySet(), LocalDateTime.now().minusDays(days))) {
+            String difficulty = difficultyByEvent.get((String) row[0]);
+            int hour = ((Number) row[1]).intValue();
+            long count = ((Number) row[2]).longValue();
+            // Media de puzzles/segundo en esa hora del día
+            profiles.computeIfAbsent(difficulty, d -> new double[24])[hour] += count / (days * 3600.0);
+        }
+
+        for (String difficulty : PuzzlePool.DIFFICULTIES) {
+            model(difficulty).profile = profiles.getOrDefault(difficulty, new double[24]);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.pool.autoscaler.tick-ms:10000}")
+    public void tick() {
+        PuzzlePoolProperties.Autoscaler config = poolProperties.getAutoscaler();
+        if (!config.isEnabled()) {
+            return;
+        }
+        long now = System.nanoTime();
+        int hour = LocalDateTime.now().getHour();
+
+        for (String difficulty : PuzzlePool.DIFFICULTIES) {
+            DemandModel model = model(difficulty);
+            long totalDemand = puzzlePool.demand(difficulty);
+
+            if (model.lastTickNanos == 0) {
+                model.lastTickNanos = now;
+                model.lastDemand = totalDemand;
+                continue;
+            }
+
+            // 1. Ritmo observado desde el último tick, suavizado
+            double seconds = (now - model.lastTickNanos) / 1e9;
+            double observed = (totalDemand - model.lastDemand) / seconds;
+            model.ewma = config.getAlpha() * observed + (1 - config.getAlpha()) * model.ewma;
+            model.lastTickNanos = now;
+            model.lastDemand = totalDemand;
+
+            // 2. Previsión: lo que vemos ahora o lo que suele pasar a esta hora (y la siguiente)
+            double forecast = Math.max(model.ewma,
+                    Math.max(model.profile[hour], model.profile[(hour + 1) % 24]));
+
+            scale(difficulty, forecast, config);
+        }
+    }
+
+    private void scale(String difficulty, double forecast, PuzzlePoolProperties.Autoscaler config) {
+        PuzzlePoolProperties.Watermarks limits = poolProperties.watermarksFor(difficulty);
+        int available = puzzlePool.size(difficulty) + refillPipeline.inFlight(difficulty);
+
+        // 3. ¿Cuánto aguantamos al ritmo previsto?
+        double secondsToEmpty = forecast > 0 ? available / forecast : Double.POSITIVE_INFINITY;
+        if (secondsToEmpty >= config.getLeadTimeSeconds() && available >= limits.getMin()) {
+            return;
+        }
+
+        // 4. Tamaño del relleno: la demanda prevista para la ventana de cobertura...
+        int wanted = (int) Math.ceil(forecast * config.getCoverageSeconds()) - available;
+        wanted = Math.max(wanted, Math.max(config.getMinBatch(), limits.getMin() - available));
+
+        // ...sin pedir más de lo que el generador hace con su parte de CPU en esa ventana...
+        double throughput = refillPipeline.throughputPerSecond();
+        if (throughput > 0) {
+            int generatorBudget = (int) Math.ceil(throughput * config.getMaxGeneratorShare() * config.getCoverageSeconds());
+            wanted = Math.min(wanted, generatorBudget);
+        }
+
+        // ...ni pasarnos del máximo de esta dificultad
+        wanted = Math.min(wanted, limits.getMax() - available);
+        if (wanted <= 0) {
+            return;
+        }
+
+        System.out.printf("-> AUTOESCALADO: [%s] Previsión %.3f/s, pool %d (mínimo %d). Pidiendo %d puzzles.%n",
+                difficulty, forecast, available, limits.getMin(), wanted);
+        refillPipeline.refill(difficulty, wanted);
+    }
+
+    private DemandModel model(String difficulty) {
+        return models.computeIfAbsent(difficulty, d -> new DemandModel());
+    }
+
+    /**
+     * Estado del modelo de demanda de una dificultad.
+     * (Solo lo toca el hilo del scheduler; 'profile' se reemplaza entero)
+     */
+    private static final class DemandModel {
+        long lastTickNanos;
+        long lastDemand;
+        double ewma;
+        volatile double[] profile = new double[24];
+    }
+}
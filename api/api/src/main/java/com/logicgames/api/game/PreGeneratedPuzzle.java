@@ -16,17 +16,24 @@ import java.time.LocalDateTime;
 @Table(name = "pre_generated_puzzles")
 public class PreGeneratedPuzzle {
 
+    // Secuencia "pooled": una llamada a la secuencia reserva 50 ids,
+    // así los saveAll del pool van en lotes JDBC sin ida y vuelta por fila.
+    // (Mismo nombre e incremento que la que Hibernate ya creaba por defecto)
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pre_generated_puzzles_seq")
+    @SequenceGenerator(name = "pre_generated_puzzles_seq", sequenceName = "pre_generated_puzzles_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
     private String difficulty; // "EASY", "MEDIUM", "HARD"
 
-    @Column(nullable = false, length = 100)
+    // Empaquetados en la BBDD (41 bytes cada uno, ver PackedBoard)
+    @Convert(converter = PackedBoardConverter.class)
+    @Column(nullable = false)
     private String boardString;
 
-    @Column(nullable = false, length = 100)
+    @Convert(converter = PackedBoardConverter.class)
+    @Column(nullable = false)
     private String solutionString;
 
     // --- ¡AÑADE ESTE CAMPO! ---
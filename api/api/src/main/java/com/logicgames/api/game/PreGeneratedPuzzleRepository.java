@@ -3,29 +3,32 @@ package com.logicgames.api.game;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import org.springframework.stereotype.Repository;
-import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Modifying;
-import org.springframework.transaction.annotation.Transactional;
-import java.time.LocalDateTime;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Repository
 public interface PreGeneratedPuzzleRepository extends  JpaRepository<PreGeneratedPuzzle, Long>{
 
     /**
-     * SOLUCIÓN RACE CONDITION:
-     * Usamos una consulta nativa de PostgreSQL con "FOR UPDATE SKIP LOCKED".
-     * Esto busca un puzzle, lo bloquea atómicamente y salta los que estén siendo usados por otros.
+     * Para calentar el pool en memoria (PuzzlePool): los puzzles más antiguos primero.
+     * (Ya no hace falta "FOR UPDATE SKIP LOCKED": el reparto se hace en memoria)
      */
-    @Query(value = "SELECT * FROM pre_generated_puzzles WHERE difficulty = :difficulty LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
-    Optional<PreGeneratedPuzzle> findAnyAvailableByDifficulty(@Param("difficulty") String difficulty);
+    List<PreGeneratedPuzzle> findByDifficultyOrderByIdAsc(String difficulty, Pageable pageable);
 
     /**
      * ¡El método del JOB!
-     * Borra puzzles pre-generados que son más viejos que la fecha límite.
+     * Borra como mucho 'limit' puzzles pre-generados más viejos que la fecha límite
+     * (un lote = un DELETE corto, ver BatchedPurger). Devuelve cuántos borró.
      */
     @Modifying
     @Transactional
-    void deleteByCreatedAtBefore(LocalDateTime cutOffDate);
+    @Query(value = "DELETE FROM pre_generated_puzzles WHERE id IN " +
+            "(SELECT id FROM pre_generated_puzzles WHERE created_at < :cutOffDate LIMIT :limit)",
+            nativeQuery = true)
+    int deleteBatchBefore(@Param("cutOffDate") LocalDateTime cutOffDate, @Param("limit") int limit);
 }
@@ -0,0 +1,237 @@
+package com.logicgames.api.game;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool de puzzles EN MEMORIA (una cola sin bloqueos por dificultad).
+ *
+ * - Las peticiones sacan puzzles con claim(): sin BBDD, sin locks.
+ * - La tabla pre_generated_puzzles sigue siendo la copia durable: al arrancar
+ *   (y cada cierto tiempo) se recargan las filas que no estén ya en memoria.
+ * - Los puzzles consumidos se borran de la BBDD en diferido y en lote.
+ *   Si el servidor cae antes de borrar, esos puzzles se volverán a servir
+ *   tras reiniciar (no pasa nada: siguen siendo puzzles válidos).
+ */
+@Component
+@RequiredArgsConstructor
+public class PuzzlePool {
+
+    public static final List<String> DIFFICULTIES = List.of("EASY", "MEDIUM", "HARD");
+
+    private final PreGeneratedPuzzleRepository puzzleRepository;
+
+    // Máximo de filas que se cargan por dificultad en cada recarga
+    @Value("${app.pool.memory.max-per-difficulty:500}")
+    private int maxPerDifficulty;
+
+    private final Map<String, Shelf> shelves = new ConcurrentHashMap<>();
+
+    // Ids que están en memoria o pendientes de borrar (para no recargarlos)
+    private final Set<Long> known = ConcurrentHashMap.newKeySet();
+
+    // Ids consumidos pendientes de borrar en la BBDD (write-behind)
+    private final Queue<Long> consumed = new ConcurrentLinkedQueue<>();
+
+    // Solo para las tareas de fondo (recarga y borrado), nunca en una petición
+    private final Object maintenanceLock = new Object();
+
+    /**
+     * Saca un puzzle del pool. Vacío si no queda ninguno de esa dificultad.
+     */
+    public Optional<PreGeneratedPuzzle> claim(String difficulty) {
+        shelf(difficulty).demand.increment(); // cuenta aunque el pool esté vacío: es demanda igual
+        return poll(difficulty);
+    }
+
+    /**
+     * Como claim(), pero SIN contar demanda: para volver a mirar el pool dentro
+     * de la misma petición (ej. SingleFlightGenerator). Si no, un solo fallo
+     * contaría varias veces y el autoescalador pediría de más.
+     */
+    public Optional<PreGeneratedPuzzle> poll(String difficulty) {
+        PreGeneratedPuzzle puzzle = shelf(difficulty).poll();
+        if (puzzle == null) {
+            return Optional.empty();
+        }
+        consumed.add(puzzle.getId());
+        return Optional.of(puzzle);
+    }
+
+    /**
+     * Añade puzzles recién guardados (ya tienen id).
+     */
+    public void offer(List<PreGeneratedPuzzle> saved) {
+        for (PreGeneratedPuzzle puzzle : saved) {
+            if (known.add(puzzle.getId())) {
+                shelf(puzzle.getDifficulty()).add(puzzle);
+            }
+        }
+    }
+
+    /**
+     * Tamaño del pool de una dificultad en O(1) (contador, no recorre la cola).
+     */
+    public int size(String difficulty) {
+        return shelf(difficulty).size.get();
+    }
+
+    /**
+     * Total de puzzles pedidos a esta dificultad desde el arranque
+     * (servidos o no). El autoescalador calcula el ritmo con las diferencias.
+     */
+    public long demand(String difficulty) {
+        return shelf(difficulty).demand.sum();
+    }
+
+    private Shelf shelf(String difficulty) {
+        return shelves.computeIfAbsent(difficulty, d -> new Shelf());
+    }
+
+    /**
+     * Recorta una dificultad hasta 'maxSize' quitando los puzzles más antiguos
+     * (solo los creados antes de 'olderThan'). Se borran de la BBDD en diferido.
+     * Devuelve cuántos quitó.
+     */
+    public int trim(String difficulty, int maxSize, LocalDateTime olderThan) {
+        Shelf shelf = shelf(difficulty);
+        int removed = 0;
+        while (shelf.size.get() > maxSize) {
+            PreGeneratedPuzzle oldest = shelf.queue.peek();
+            if (oldest == null || oldest.getCreatedAt() == null || !oldest.getCreatedAt().isBefore(olderThan)) {
+                break; // lo que queda es reciente
+            }
+            // Quitamos ESE puzzle: un claim() concurrente puede habérselo llevado ya,
+            // y un poll() se llevaría el siguiente (quizá reciente). Si no está, otra vuelta.
+            if (shelf.remove(oldest)) {
+                consumed.add(oldest.getId());
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Calienta el pool al arrancar con las filas que quedaron sin consumir.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reload();
+        System.out.println("-> POOL: Pool en memoria cargado " + sizes());
+    }
+
+    /**
+     * Recarga desde la BBDD lo que no esté ya en memoria
+     * (ej. filas escritas por otra instancia del backend).
+     */
+    @Scheduled(fixedDelayString = "${app.pool.memory.reload-interval-ms:60000}",
+            initialDelayString = "${app.pool.memory.reload-interval-ms:60000}")
+    public void reload() {
+        synchronized (maintenanceLock) {
+            // Primero borramos lo consumido, para no volver a cargarlo
+            flushConsumed();
+            for (String difficulty : DIFFICULTIES) {
+                int room = maxPerDifficulty - size(difficulty);
+                if (room <= 0) {
+                    continue;
+                }
+                List<PreGeneratedPuzzle> rows = puzzleRepository
+                        .findByDifficultyOrderByIdAsc(difficulty, PageRequest.of(0, maxPerDifficulty));
+                Shelf shelf = shelf(difficulty);
+                for (int i = 0; i < rows.size() && room > 0; i++) {
+                    PreGeneratedPuzzle row = rows.get(i);
+                    if (known.add(row.getId())) {
+                        shelf.add(row);
+                        room--;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Write-behind: borra en un solo DELETE los puzzles consumidos.
+     */
+    @Scheduled(fixedDelayString = "${app.pool.memory.delete-flush-interval-ms:2000}")
+    public void flushConsumed() {
+        synchronized (maintenanceLock) {
+            List<Long> ids = new ArrayList<>();
+            Long id;
+            while ((id = consumed.poll()) != null) {
+                ids.add(id);
+            }
+            if (ids.isEmpty()) {
+                return;
+            }
+            try {
+                puzzleRepository.deleteAllByIdInBatch(ids);
+                ids.forEach(known::remove);
+            } catch (RuntimeException e) {
+                // Los devolvemos a la cola para el siguiente intento
+                consumed.addAll(ids);
+                System.err.println("-> POOL: No se pudieron borrar " + ids.size() + " puzzles consumidos: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Cola de una dificultad con su contador (size() de la cola es O(n)).
+     */
+    private static final class Shelf {
+        final Queue<PreGeneratedPuzzle> queue = new ConcurrentLinkedQueue<>();
+        final AtomicInteger size = new AtomicInteger();
+        final LongAdder demand = new LongAdder();
+
+        void add(PreGeneratedPuzzle puzzle) {
+            queue.add(puzzle);
+            size.incrementAndGet();
+        }
+
+        PreGeneratedPuzzle poll() {
+            PreGeneratedPuzzle puzzle = queue.poll();
+            if (puzzle != null) {
+                size.decrementAndGet();
+            }
+            return puzzle;
+        }
+
+        boolean remove(PreGeneratedPuzzle puzzle) {
+            if (!queue.remove(puzzle)) {
+                return false;
+            }
+            size.decrementAndGet();
+            return true;
+        }
+    }
+
+    private String sizes() {
+        StringBuilder sb = new StringBuilder();
+        for (String difficulty : DIFFICULTIES) {
+            sb.append(difficulty).append('=').append(size(difficulty)).append(' ');
+        }
+        return sb.toString().trim();
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flushConsumed();
+    }
+}
@@ -0,0 +1,56 @@
+package com.logicgames.api.game;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Límites del pool POR DIFICULTAD (app.pool.watermarks.EASY.min=..., etc.).
+ * Si una dificultad no está configurada, usa los valores por defecto.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.pool")
+public class PuzzlePoolProperties {
+
+    private Map<String, Watermarks> watermarks = new HashMap<>();
+
+    private Autoscaler autoscaler = new Autoscaler();
+
+    public Watermarks watermarksFor(String difficulty) {
+        return watermarks.getOrDefault(difficulty, new Watermarks());
+    }
+
+    @Data
+    public static class Watermarks {
+        // Por debajo de esto, se rellena
+        private int min = 5;
+        // Por encima de esto (y con poca demanda), se recorta
+        private int max = 40;
+        // Consumos en la última hora por debajo de los cuales la demanda es "baja"
+        private int lowDemand = 10;
+    }
+
+    /**
+     * Parámetros del autoescalador predictivo (PoolAutoscaler).
+     */
+    @Data
+    public static class Autoscaler {
+        private boolean enabled = true;
+        // Peso de la última medida en la media móvil exponencial (0-1)
+        private double alpha = 0.3;
+        // Si el pool se vaciaría antes de este tiempo, se rellena YA
+        private int leadTimeSeconds = 120;
+        // Cuántos segundos de demanda prevista debe cubrir cada relleno
+        private int coverageSeconds = 900;
+        // Días de agregados por hora para el perfil por hora del día
+        private int profileDays = 14;
+        // Fracción máxima de la capacidad del generador que puede pedir un relleno
+        private double maxGeneratorShare = 0.5;
+        // Tamaño mínimo de un relleno (no merece la pena pedir 1 ó 2)
+        private int minBatch = 5;
+    }
+}
@@ -0,0 +1,275 @@
+package com.logicgames.api.game;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tubería de relleno del pool de puzzles:
+ *
+ *   [N hilos generadores] --(cola acotada)--> [1 hilo escritor] --saveAll--> BBDD --> PuzzlePool
+ *
+ * - Los generadores reparten el trabajo entre los núcleos (con un límite configurable)
+ *   y corren con prioridad mínima para no robar CPU a los hilos de las peticiones.
+ * - Si el escritor va lento, la cola se llena y los generadores se BLOQUEAN
+ *   (backpressure) en vez de acumular puzzles en memoria.
+ * - Quien pide un relleno nunca espera: solo encola trabajo. Si hay demasiados
+ *   rellenos pendientes, el nuevo se descarta (el siguiente job lo volverá a pedir).
+ */
+@Component
+@RequiredArgsConstructor
+public class PuzzleRefillPipeline {
+
+    private final SudokuGeneratorService generatorService;
+    private final PreGeneratedPuzzleRepository puzzleRepository;
+    private final PuzzlePool puzzlePool;
+    private final GameMetricRecorder metricRecorder;
+
+    // 0 = "todos los núcleos menos uno"
+    @Value("${app.pool.refill.parallelism:0}")
+    private int parallelism;
+
+    // Puzzles generados esperando a ser escritos
+    @Value("${app.pool.refill.queue-capacity:64}")
+    private int queueCapacity;
+
+    // Filas por cada saveAll del escritor
+    @Value("${app.pool.refill.batch-size:25}")
+    private int batchSize;
+
+    // Tareas de generación pendientes como máximo
+    @Value("${app.pool.refill.max-pending-tasks:64}")
+    private int maxPendingTasks;
+
+    // Puzzles pedidos y aún no entregados al pool, por dificultad
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, AtomicBoolean> requestingRefill = new ConcurrentHashMap<>();
+
+    // Para medir el rendimiento real del generador (puzzles/segundo por hilo)
+    private final AtomicLong generatedCount = new AtomicLong();
+    private final AtomicLong generationNanos = new AtomicLong();
+
+    private ThreadPoolExecutor generators;
+    private BlockingQueue<PreGeneratedPuzzle> generated;
+    private Thread writer;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        if (parallelism <= 0) {
+            parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        generators = new ThreadPoolExecutor(
+                parallelism, parallelism,
+                30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(maxPendingTasks),
+                task -> {
+                    Thread t = new Thread(task, "sudoku-gen-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    t.setPriority(Thread.MIN_PRIORITY);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        generators.allowCoreThreadTimeOut(true);
+
+        generated = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writer = new Thread(this::writeLoop, "sudoku-pool-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * ¡El antiguo método asíncrono de SudokuGeneratorService!
+     * Decide cuántos puzzles generar según la demanda de la última hora
+     * y reparte el trabajo en la tubería. Vuelve al instante.
+     *
+     * Como mucho UN relleno por dificultad: si ya hay puzzles en camino
+     * (o otro hilo está pidiendo uno ahora mismo), no hace nada.
+     */
+    public void populatePoolAsync(String difficulty) {
+        AtomicBoolean requesting = requesting(difficulty);
+        if (!requesting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            if (inFlight(difficulty) == 0) {
+                refill(difficulty, refillSizeFor(difficulty));
+            }
+        } finally {
+            requesting.set(false);
+        }
+    }
+
+    private int refillSizeFor(String difficulty) {
+        // 1. Define el tipo de métrica a buscar
+        String eventType = "PUZZLE_CONSUMED_" + difficulty.toUpperCase(); // ej. "PUZZLE_CONSUMED_MEDIUM"
+
+        // 2. ¡Consulta los contadores en memoria! (la última hora)
+        long demandLastHour = metricRecorder.count(eventType, Duration.ofHours(1));
+
+        // 3. ¡Toma la decisión!
+        int puzzlesToGenerate = 10; // Generación estándar
+        if (demandLastHour > 5) { // Si se usaron más de 5 puzzles en la última hora...
+            puzzlesToGenerate = 20; // ...¡duplica la generación!
+            System.out.println("-> POOL: ¡Demanda alta detectada! (" + demandLastHour + ") Generando 20 puzzles para " + difficulty);
+        } else {
+            System.out.println("-> POOL: (Demanda baja) Generando 10 puzzles para " + difficulty);
+        }
+        return puzzlesToGenerate;
+    }
+
+    /**
+     * Reparte 'count' puzzles en tantas tareas como hilos generadores.
+     */
+    public void refill(String difficulty, int count) {
+        int tasks = Math.min(parallelism, count);
+        for (int t = 0; t < tasks; t++) {
+            // Reparto equitativo: las primeras tareas se llevan el resto
+            int share = count / tasks + (t < count % tasks ? 1 : 0);
+            try {
+                pending(difficulty).addAndGet(share);
+                generators.execute(() -> generate(difficulty, share));
+            } catch (RejectedExecutionException e) {
+                pending(difficulty).addAndGet(-share);
+                System.err.println("-> POOL: Demasiados rellenos pendientes, se descarta el de " + difficulty);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Puzzles ya generados (ej. lo que sobró de un vuelo de SingleFlightGenerator)
+     * directos al escritor. No bloquea: si la cola está llena, se descartan.
+     */
+    public void offer(String difficulty, List<SudokuGeneratorService.GeneratedPuzzle> puzzles) {
+        for (SudokuGeneratorService.GeneratedPuzzle puzzle : puzzles) {
+            if (!puzzle.inBand) {
+                continue; // (al pool solo van puzzles de la dificultad pedida)
+            }
+            pending(difficulty).incrementAndGet();
+            if (!generated.offer(toEntity(difficulty, puzzle))) {
+                pending(difficulty).decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Puzzles de esa dificultad que ya están en camino (generándose o por escribir).
+     */
+    public int inFlight(String difficulty) {
+        return pending(difficulty).get();
+    }
+
+    /**
+     * Capacidad estimada de la tubería en puzzles/segundo (todos los hilos).
+     * 0 si todavía no se ha generado nada.
+     */
+    public double throughputPerSecond() {
+        long count = generatedCount.get();
+        long nanos = generationNanos.get();
+        if (count == 0 || nanos == 0) {
+            return 0;
+        }
+        return parallelism * (count / (nanos / 1e9));
+    }
+
+    private AtomicBoolean requesting(String difficulty) {
+        return requestingRefill.computeIfAbsent(difficulty, d -> new AtomicBoolean());
+    }
+
+    private AtomicInteger pending(String difficulty) {
+        return inFlight.computeIfAbsent(difficulty, d -> new AtomicInteger());
+    }
+
+    private void generate(String difficulty, int count) {
+        int done = 0;
+        try {
+            for (; done < count && running; done++) {
+                long start = System.nanoTime();
+                SudokuGeneratorService.GeneratedPuzzle puzzle = generatorService.generateSudokuSync(difficulty);
+                generationNanos.addAndGet(System.nanoTime() - start);
+                generatedCount.incrementAndGet();
+
+                if (!puzzle.inBand) {
+                    // Al pool solo van puzzles de la dificultad pedida (ver SudokuGeneratorService)
+                    System.err.println("-> POOL: Puzzle fuera de banda para " + difficulty + " (" + puzzle.grade + "), descartado.");
+                    pending(difficulty).decrementAndGet();
+                    continue;
+                }
+
+                generated.put(toEntity(difficulty, puzzle)); // ¡Bloquea si el escritor va atrasado!
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("-> POOL: Falló la generación para " + difficulty + ": " + e.getMessage());
+        } finally {
+            // Lo que no llegó a la cola ya no está "en camino"
+            pending(difficulty).addAndGet(-(count - done));
+        }
+    }
+
+    private static PreGeneratedPuzzle toEntity(String difficulty, SudokuGeneratorService.GeneratedPuzzle puzzle) {
+        return PreGeneratedPuzzle.builder()
+                .difficulty(difficulty)
+                .boardString(puzzle.boardString)
+                .solutionString(puzzle.solutionString)
+                .build(); // (El 'createdAt' se añade solo)
+    }
+
+    /**
+     * Único escritor: agrupa lo que haya en la cola y lo guarda de una vez.
+     */
+    private void writeLoop() {
+        List<PreGeneratedPuzzle> batch = new ArrayList<>(batchSize);
+        while (running || !generated.isEmpty()) {
+            try {
+                PreGeneratedPuzzle first = generated.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                generated.drainTo(batch, batchSize - 1);
+                // Una vez guardados (ya tienen id) pasan al pool en memoria
+                puzzlePool.offer(puzzleRepository.saveAll(batch));
+                batch.forEach(p -> pending(p.getDifficulty()).decrementAndGet());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                batch.forEach(p -> pending(p.getDifficulty()).decrementAndGet());
+                System.err.println("-> POOL: Falló el guardado de " + batch.size() + " puzzles: " + e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        generators.shutdownNow();
+        generators.awaitTermination(5, TimeUnit.SECONDS);
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+}
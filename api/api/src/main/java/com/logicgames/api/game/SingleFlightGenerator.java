@@ -0,0 +1,131 @@
+package com.logicgames.api.game;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Generación síncrona "single-flight" para cuando el pool está vacío.
+ *
+ * Sin esto, un arranque en frío con 50 peticiones a la vez = 50 generaciones
+ * en paralelo (+ 50 rellenos). Con esto:
+ *  - La primera petición de una dificultad es la "líder": genera UN puzzle en
+ *    su propio hilo y de él saca un lote pequeño de variantes equivalentes
+ *    (SudokuGeneratorService.variantsOf: microsegundos, no otra generación).
+ *  - Las que esperaban a ese vuelo se reparten las variantes en cuanto la líder
+ *    termina; lo que sobra va al pool (por el escritor de PuzzleRefillPipeline).
+ *  - Solo si llegan más de las que caben en un lote, la siguiente lidera otro vuelo.
+ * El relleno de verdad (puzzles distintos) lo pide la líder a la tubería.
+ */
+@Component
+@RequiredArgsConstructor
+public class SingleFlightGenerator {
+
+    private final SudokuGeneratorService generatorService;
+    private final PuzzlePool puzzlePool;
+    private final PuzzleRefillPipeline refillPipeline;
+
+    // Puzzles por vuelo (el de la líder + variantes para las demás)
+    @Value("${app.pool.single-flight.batch-size:8}")
+    private int batchSize;
+
+    private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+
+    public SudokuGeneratorService.GeneratedPuzzle generate(String difficulty) {
+        while (true) {
+            // 1. ¿Ha dejado ya algo la tubería?
+            SudokuGeneratorService.GeneratedPuzzle puzzle = fromPool(difficulty);
+            if (puzzle != null) {
+                return puzzle;
+            }
+
+            // 2. Nos subimos al vuelo en curso o lo creamos nosotros
+            Flight mine = new Flight();
+            Flight flight = flights.putIfAbsent(difficulty, mine);
+            if (flight == null) {
+                return lead(difficulty, mine);
+            }
+
+            // Seguidora: nos apuntamos (si aún da tiempo) y esperamos nuestra variante
+            synchronized (flight) {
+                if (flight.closed) {
+                    continue; // la líder ya repartió: otra vuelta
+                }
+                flight.waiting++;
+            }
+            puzzle = flight.batch.join().poll();
+            if (puzzle != null) {
+                return puzzle;
+            }
+            // (No cupimos en el lote, o la líder falló: otra vuelta)
+        }
+    }
+
+    private SudokuGeneratorService.GeneratedPuzzle lead(String difficulty, Flight flight) {
+        Queue<SudokuGeneratorService.GeneratedPuzzle> shared = new ConcurrentLinkedQueue<>();
+        try {
+            // (Otra vez: el pool ha podido llenarse entre el paso 1 y el 2)
+            SudokuGeneratorService.GeneratedPuzzle puzzle = fromPool(difficulty);
+            if (puzzle != null) {
+                return puzzle;
+            }
+            puzzle = generatorService.generateSudokuSync(difficulty);
+
+            int followers;
+            synchronized (flight) {
+                flight.closed = true; // desde aquí, quien llegue no cuenta con este lote
+                followers = flight.waiting;
+            }
+            List<SudokuGeneratorService.GeneratedPuzzle> variants = generatorService.variantsOf(puzzle, batchSize - 1);
+            int forFollowers = Math.min(followers, variants.size());
+            shared.addAll(variants.subList(0, forFollowers));
+
+            // Primero el relleno de verdad (si se pide después de las sobras, las
+            // sobras ya cuentan como "en camino" y no se pediría)
+            refillPipeline.populatePoolAsync(difficulty);
+            refillPipeline.offer(difficulty, variants.subList(forFollowers, variants.size()));
+            return puzzle;
+        } finally {
+            synchronized (flight) {
+                flight.closed = true;
+            }
+            flights.remove(difficulty, flight);
+            flight.batch.complete(shared);
+        }
+    }
+
+    // (La demanda ya la contó SudokuService al fallar su claim: aquí solo se mira)
+    private SudokuGeneratorService.GeneratedPuzzle fromPool(String difficulty) {
+        Optional<PreGeneratedPuzzle> pooled = puzzlePool.poll(difficulty);
+        return pooled.map(p -> new SudokuGeneratorService.GeneratedPuzzle(p.getBoardString(), p.getSolutionString()))
+                .orElse(null);
+    }
+
+    // Seguidoras apuntadas a un vuelo (solo para los tests)
+    int waiting(String difficulty) {
+        Flight flight = flights.get(difficulty);
+        if (flight == null) {
+            return 0;
+        }
+        synchronized (flight) {
+            return flight.waiting;
+        }
+    }
+
+    /**
+     * Un vuelo: la líder reparte aquí las variantes de su puzzle.
+     */
+    private static final class Flight {
+        final CompletableFuture<Queue<SudokuGeneratorService.GeneratedPuzzle>> batch = new CompletableFuture<>();
+        int waiting;
+        boolean closed;
+    }
+}
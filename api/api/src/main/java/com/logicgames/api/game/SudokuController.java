@@ -11,7 +11,15 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import com.logicgames.api.game.dtos.SaveGameRequest;
 import com.logicgames.api.game.dtos.SudokuSolutionRequest;
-import java.security.Principal;// <-- ¡La herramienta para saber "quién" llama!
+import com.logicgames.api.game.dtos.MoveBatchRequest;
+import com.logicgames.api.game.dtos.MoveBatchResponse;
+import com.logicgames.api.game.dtos.ValidateBoardRequest;
+import com.logicgames.api.game.dtos.ValidateBoardResponse;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import com.logicgames.api.user.AuthenticatedUser; // <-- ¡El "quién" llama! (id + email, lo pone el filtro JWT)
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import java.util.List;
 
 @RestController
@@ -25,12 +33,11 @@ public class SudokuController {
      */
     @GetMapping("/load-or-create")
     public ResponseEntity<SudokuGame> loadOrCreateGame(
-            Principal principal,
+            @AuthenticationPrincipal AuthenticatedUser player,
             @RequestParam String difficulty,
             @RequestParam String gameMode
     ) {
-        String userEmail = principal.getName();
-        SudokuGame game = sudokuService.loadOrCreateGame(userEmail, difficulty,gameMode);
+        SudokuGame game = sudokuService.loadOrCreateGame(player, difficulty,gameMode);
         return ResponseEntity.ok(game);
     }
 
@@ -40,29 +47,64 @@ public class SudokuController {
      */
     @PostMapping("/save")
     public ResponseEntity<Void> saveGame(
-            Principal principal,
+            @AuthenticationPrincipal AuthenticatedUser player,
             @RequestBody SaveGameRequest request // <-- Usa el DTO de "Guardar"
     ) {
-        String userEmail = principal.getName();
-        sudokuService.saveGameProgress(userEmail, request);
+        sudokuService.saveGameProgress(player, request);
 
         // Devuelve 200 OK (vacío)
         return ResponseEntity.ok().build();
     }
 
+    /**
+     *
+     * Endpoint para guardar SOLO las jugadas nuevas (autoguardado ligero).
+     * 409 si falta alguna jugada anterior: el cuerpo dice desde dónde reenviar.
+     */
+    @PostMapping("/moves")
+    public ResponseEntity<MoveBatchResponse> applyMoves(
+            @AuthenticationPrincipal AuthenticatedUser player,
+            @Valid @RequestBody MoveBatchRequest request
+    ) {
+        return ResponseEntity.ok(sudokuService.applyMoves(player, request));
+    }
+
+    /**
+     *
+     * Endpoint para comprobar un tablero o una jugada (sin guardar nada).
+     * Devuelve las celdas que chocan.
+     */
+    @PostMapping("/validate")
+    public ResponseEntity<ValidateBoardResponse> validateBoard(
+            @AuthenticationPrincipal AuthenticatedUser player,
+            @Valid @RequestBody ValidateBoardRequest request
+    ) {
+        return ResponseEntity.ok(sudokuService.validateBoard(player, request));
+    }
+
+    @ExceptionHandler(MoveConflictException.class)
+    public ResponseEntity<MoveBatchResponse> handleMoveConflict(MoveConflictException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(MoveBatchResponse.builder().lastMoveSeq(ex.getLastMoveSeq()).applied(0).build());
+    }
+
+    @ExceptionHandler(InvalidMoveException.class)
+    public ResponseEntity<String> handleInvalidMove(InvalidMoveException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+
     /**
      *
      * Endpoint para comprobar la solución final.
      */
     @PostMapping("/complete")
     public ResponseEntity<Boolean> completeGame(
-            Principal principal,
+            @AuthenticationPrincipal AuthenticatedUser player,
             @RequestBody SudokuSolutionRequest request // <-- Usa el DTO de "Solución"
     ) {
-        String userEmail = principal.getName();
 
         // Llama al "cerebro" y devuelve true (ganó) o false (falló)
-        boolean didWin = sudokuService.completeGame(userEmail, request);
+        boolean didWin = sudokuService.completeGame(player, request);
 
         return ResponseEntity.ok(didWin);
     }
@@ -71,9 +113,8 @@ public class SudokuController {
      * Endpoint para marcar la partida como fallida (tiempo agotado).
      */
     @PostMapping("/fail")
-    public ResponseEntity<Void> failGame(Principal principal) {
-        String userEmail = principal.getName();
-        sudokuService.failGame(userEmail);
+    public ResponseEntity<Void> failGame(@AuthenticationPrincipal AuthenticatedUser player) {
+        sudokuService.failGame(player);
         return ResponseEntity.ok().build();
     }
     /**
@@ -81,11 +122,10 @@ public class SudokuController {
      * Endpoint para obtener el historial de partidas completadas (scoreboard).
      */
     @GetMapping("/scoreboard")
-    public ResponseEntity<List<ScoreboardEntryDTO>> getScoreboard(Principal principal) {
-        String userEmail = principal.getName();
+    public ResponseEntity<List<ScoreboardEntryDTO>> getScoreboard(@AuthenticationPrincipal AuthenticatedUser player) {
 
         // Llama al "cerebro"
-        List<ScoreboardEntryDTO> scoreboard = sudokuService.getScoreboard(userEmail);
+        List<ScoreboardEntryDTO> scoreboard = sudokuService.getScoreboard(player);
         return ResponseEntity.ok(scoreboard);
     }
 }
@@ -1,19 +1,22 @@
 package com.logicgames.api.game;
 
 import java.time.LocalDateTime;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.logicgames.api.user.User;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Data // Post-it: Escribe Getters, Setters, toString...
-@Builder // Post-it: Escribe el constructor "fluido"
+@Builder(toBuilder = true) // Post-it: Escribe el constructor "fluido" (y copias con toBuilder)
 @NoArgsConstructor // Post-it: Escribe un constructor vacío
 @AllArgsConstructor // Post-it: Escribe un constructor con todos los campos
 @Entity // Post-it: ¡Esto es una tabla de BBDD!
-@Table(name = "sudoku_game") // Le damos un nombre limpio a la tabla
+@Table(name = "sudoku_game") // Le damos un nombre limpio a la tabla (índices: db/migration/V2)
 public class SudokuGame {
 
     @Id // Post-it: Esta es la Clave Primaria
@@ -21,18 +24,28 @@ public class SudokuGame {
     private Long id;
 
     // --- ¡LA CONEXIÓN CLAVE! ---
-    @ManyToOne // Post-it: "Muchas de ESTAS partidas (SudokuGame) pertenecen a UN Usuario"
+    @ManyToOne(fetch = FetchType.LAZY) // Post-it: "Muchas de ESTAS partidas (SudokuGame) pertenecen a UN Usuario"
     @JoinColumn(name = "user_id", nullable = false) // Define la columna "foreign key"
-    private User user; // Guarda el objeto 'User' completo
+    @JsonIgnore // ¡Nunca al JSON! (llevaba el hash de la contraseña y el front no lo usa)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private User user; // LAZY: normalmente es una referencia (solo el id), sin consultar _user
 
     // --- ESTADO DEL JUEGO ---
 
-    @Column(length = 81, nullable = false) // 81 caracteres, no puede ser nulo
+    // En la BBDD van empaquetados (41 bytes, ver PackedBoard); aquí siguen siendo texto
+    @Convert(converter = PackedBoardConverter.class)
+    @Column(nullable = false)
     private String boardString; // El tablero actual del jugador (ej. "5300...")
 
-    @Column(length = 81, nullable = false)
+    @Convert(converter = PackedBoardConverter.class)
+    @Column(nullable = false)
+    @JsonIgnore // ¡Nunca al JSON! (completeGame valida con las reglas, no con la solución)
     private String solutionString; // La solución (ej. "5346...")
 
+    @JsonIgnore
+    private byte[] givenMask; // Qué celdas son pistas del puzzle (81 bits; null en partidas antiguas)
+
     @Column(nullable = false)
     private String difficulty; // "EASY", "MEDIUM", "HARD"
 
@@ -52,4 +65,9 @@ public class SudokuGame {
 
     @Column(nullable = false)
     private LocalDateTime lastUpdatedAt; // La última vez que se tocó esta fila
+
+    // --- JUGADAS (POST /moves) ---
+
+    @Column(nullable = false)
+    private Long lastMoveSeq; // Número de la última jugada aplicada (0 = ninguna)
 }
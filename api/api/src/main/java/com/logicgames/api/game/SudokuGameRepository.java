@@ -1,10 +1,11 @@
 package com.logicgames.api.game;
 
 
-import com.logicgames.api.user.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
@@ -15,24 +16,75 @@ import java.util.Optional;
 public interface SudokuGameRepository extends  JpaRepository<SudokuGame,Long>{
 
     // --- Pregunta 1: Para el botón "Retomar Partida" ---
-    // "Busca una partida por su 'User' (dueño) Y por su 'state'"
-    Optional<SudokuGame> findByUserAndState(User user, String state);
+    // "Busca una partida por el id de su dueño (user_id) Y por su 'state'"
+    // (JPQL a mano: 'g.user.id' es la propia columna user_id, sin JOIN con _user;
+    // el método derivado "findByUser_Id..." sí añade el JOIN)
+    @Query("SELECT g FROM SudokuGame g WHERE g.user.id = :userId AND g.state = :state")
+    Optional<SudokuGame> findByUserIdAndState(@Param("userId") Long userId, @Param("state") String state);
 
     // --- Pregunta 2: Para el "Historial / Scoreboard" ---
-    // "Busca TODAS las partidas por 'User' Y 'state',
+    // "Busca TODAS las partidas por user_id Y 'state',
     // y ordénalas por 'timeElapsedSeconds' de menor a mayor"
-    List<SudokuGame> findByUserAndStateOrderByTimeElapsedSecondsAsc(User user, String state);
+    @Query("SELECT g FROM SudokuGame g WHERE g.user.id = :userId AND g.state = :state " +
+            "ORDER BY g.timeElapsedSeconds ASC")
+    List<SudokuGame> findByUserIdAndStateOrderByTimeElapsedSecondsAsc(@Param("userId") Long userId,
+                                                                      @Param("state") String state);
 
 
 
+    /**
+     * Guarda un lote de jugadas en UN UPDATE, solo si nadie ha aplicado otro
+     * lote desde que leímos la partida (last_move_seq sigue siendo 'expectedSeq').
+     * Devuelve 0 si otro lote se nos adelantó.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE SudokuGame g SET g.boardString = :boardString, g.lastMoveSeq = :lastMoveSeq, " +
+            "g.timeElapsedSeconds = :timeElapsedSeconds, g.lastUpdatedAt = :lastUpdatedAt " +
+            "WHERE g.id = :id AND g.lastMoveSeq = :expectedSeq")
+    int applyMoves(@Param("id") Long id,
+                   @Param("expectedSeq") long expectedSeq,
+                   @Param("boardString") String boardString,
+                   @Param("lastMoveSeq") long lastMoveSeq,
+                   @Param("timeElapsedSeconds") long timeElapsedSeconds,
+                   @Param("lastUpdatedAt") LocalDateTime lastUpdatedAt);
+
+    /**
+     * Volcado de la caché de partidas (GameStateCache): escribe el último
+     * progreso, pero solo si la partida sigue en juego (nunca "resucita" una
+     * partida ya completada o fallida) y si nadie la ha tocado desde la copia:
+     * - mismo puzzle (solutionString: al sobrescribir la partida se reutiliza la fila),
+     * - ninguna jugada aplicada entretanto (lastMoveSeq),
+     * - nada escrito después que esta copia (lastUpdatedAt).
+     * Devuelve 0 si no se escribió: la copia ya no vale.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE SudokuGame g SET g.boardString = :boardString, g.timeElapsedSeconds = :timeElapsedSeconds, " +
+            "g.lastUpdatedAt = :lastUpdatedAt WHERE g.id = :id AND g.state = 'IN_PROGRESS' " +
+            "AND g.lastMoveSeq = :lastMoveSeq AND g.solutionString = :solutionString " +
+            "AND g.lastUpdatedAt <= :lastUpdatedAt")
+    int saveProgress(@Param("id") Long id,
+                     @Param("lastMoveSeq") long lastMoveSeq,
+                     @Param("solutionString") String solutionString,
+                     @Param("boardString") String boardString,
+                     @Param("timeElapsedSeconds") long timeElapsedSeconds,
+                     @Param("lastUpdatedAt") LocalDateTime lastUpdatedAt);
+
     /**
      * ¡El método del JOB!
-     * Borra partidas que cumplan DOS condiciones:
+     * Borra como mucho 'limit' partidas que cumplan DOS condiciones:
      * 1. Su estado es el que le pasemos (ej. "FAILED").
      * 2. Su última actualización fue ANTES de la fecha límite.
+     * Un lote = un DELETE corto (ver BatchedPurger). Devuelve cuántas borró.
      */
     @Modifying
     @Transactional
-    void deleteByStateAndLastUpdatedAtBefore(String state, LocalDateTime cutOffDate);
+    @Query(value = "DELETE FROM sudoku_game WHERE id IN " +
+            "(SELECT id FROM sudoku_game WHERE state = :state AND last_updated_at < :cutOffDate LIMIT :limit)",
+            nativeQuery = true)
+    int deleteBatchByStateBefore(@Param("state") String state,
+                                 @Param("cutOffDate") LocalDateTime cutOffDate,
+                                 @Param("limit") int limit);
 
 }
@@ -1,181 +1,245 @@
 package com.logicgames.api.game;
 
-import lombok.RequiredArgsConstructor;
-import org.springframework.scheduling.annotation.Async;
+import com.logicgames.api.game.engine.SudokuGrader;
+import com.logicgames.api.game.engine.SudokuSolver;
+import com.logicgames.api.game.engine.Technique;
+import lombok.Getter;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
+/**
+ * Generador puro de puzzles (sin BBDD). El relleno del pool vive en
+ * PuzzleRefillPipeline.
+ */
 @Service
-@RequiredArgsConstructor
 public class SudokuGeneratorService {
 
-    private final PreGeneratedPuzzleRepository puzzleRepository;
-    private final GameMetricRepository metricRepository;
+    // Un solver y un "corrector" por hilo: se reutilizan sus arrays en cada generación
+    private static final ThreadLocal<SudokuSolver> SOLVER = ThreadLocal.withInitial(SudokuSolver::new);
+    private static final ThreadLocal<SudokuGrader> GRADER = ThreadLocal.withInitial(SudokuGrader::new);
 
-    private static final Random RANDOM = new Random();
+    // Si una pasada de "excavado" no llega a los huecos pedidos, probamos con otra solución
+    private static final int MAX_DIG_ATTEMPTS = 5;
 
-    private static final int BOARD_SIZE = 9;
-    private static final int SUB_GRID_SIZE = 3;
+    // Candidatos como mucho por puzzle hasta dar con uno de la dificultad pedida
+    // (HARD es el más raro: ~1 de cada 15 candidatos)
+    private static final int MAX_GRADE_ATTEMPTS = 200;
 
+    @Getter // (para los benchmarks, que viven en otro paquete)
     public static class GeneratedPuzzle {
         String boardString;
         String solutionString;
+        Technique grade;   // la técnica más difícil que hace falta (null = sin corregir)
+        boolean inBand;    // ¿cae en la banda de su dificultad?
         GeneratedPuzzle(String b, String s) { boardString = b; solutionString = s; }
     }
 
     /**
      * ¡Tu método 'generateSudoku', renombrado a 'Sync' para claridad!
+     * Usa el motor de máscaras de bits (SudokuSolver), garantiza que el
+     * puzzle tiene UNA sola solución y, además, que su dificultad es la pedida:
+     * cada candidato se corrige con SudokuGrader (técnicas humanas) y solo se
+     * queda si cae en la banda de esa dificultad (ver bandFor).
+     * Si tras MAX_GRADE_ATTEMPTS ninguno cae, devuelve el más cercano (inBand = false).
      */
     public GeneratedPuzzle generateSudokuSync(String difficulty) {
-        int[][] board = new int[BOARD_SIZE][BOARD_SIZE];
-
-        populateBoard(board);
-        String solutionString = gridToString(board);
-
-        int numRemoves = 43;
-        if ("EASY".equals(difficulty)) numRemoves = 33;
-        if ("HARD".equals(difficulty)) numRemoves = 53;
-
-        removeCells(board, numRemoves);
-        String boardString = gridToString(board);
+        Technique[] band = bandFor(difficulty);
+        SudokuGrader grader = GRADER.get();
+        int[] cells = new int[SudokuSolver.CELLS];
+
+        GeneratedPuzzle closest = null;
+        int closestDistance = Integer.MAX_VALUE;
+        for (int attempt = 0; attempt < MAX_GRADE_ATTEMPTS; attempt++) {
+            GeneratedPuzzle candidate = generateCandidate(difficulty);
+            for (int cell = 0; cell < SudokuSolver.CELLS; cell++) {
+                cells[cell] = candidate.boardString.charAt(cell) - '0';
+            }
+            candidate.grade = grader.grade(cells);
 
-        return new GeneratedPuzzle(boardString, solutionString);
+            int distance = distanceToBand(candidate.grade, band);
+            if (distance == 0) {
+                candidate.inBand = true;
+                return candidate;
+            }
+            if (distance < closestDistance) {
+                closest = candidate;
+                closestDistance = distance;
+            }
+        }
+        return closest;
     }
 
     /**
-     * Tu método 'populateBoard' (sin cambios)
+     * 'count' puzzles equivalentes a 'puzzle' casi gratis: los números se
+     * renombran, las filas se barajan dentro de su banda (y las bandas entre sí),
+     * igual con las columnas, y a veces se traspone. Siguen teniendo solución
+     * única y necesitan las mismas técnicas (misma dificultad), pero a la vista
+     * son otro tablero. Para repartir UNA generación entre varias peticiones.
      */
-    private static void populateBoard(int[][] board) {
-        if (!solve(board, 0, 0)) {
-            throw new IllegalStateException("No se pudo generar un sudoku válido.");
+    public List<GeneratedPuzzle> variantsOf(GeneratedPuzzle puzzle, int count) {
+        Random random = ThreadLocalRandom.current();
+        List<GeneratedPuzzle> variants = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            char[] digits = new char[10];
+            int[] relabel = shuffled(9, random);
+            digits[0] = '0';
+            for (int d = 1; d <= 9; d++) {
+                digits[d] = (char) ('1' + relabel[d - 1]);
+            }
+            int[] rows = linesShuffle(random);
+            int[] cols = linesShuffle(random);
+            boolean transpose = random.nextBoolean();
+
+            GeneratedPuzzle variant = new GeneratedPuzzle(
+                    transform(puzzle.boardString, digits, rows, cols, transpose),
+                    transform(puzzle.solutionString, digits, rows, cols, transpose));
+            variant.grade = puzzle.grade;
+            variant.inBand = puzzle.inBand;
+            variants.add(variant);
         }
+        return variants;
     }
 
-    /**
-     * Tu método 'solve' (sin cambios)
-     */
-    private static boolean solve(int[][] board, int row, int col) {
-        if (col == BOARD_SIZE) {
-            col = 0;
-            row++;
-            if (row == BOARD_SIZE) {
-                return true;
+    private static String transform(String board, char[] digits, int[] rows, int[] cols, boolean transpose) {
+        char[] out = new char[SudokuSolver.CELLS];
+        for (int r = 0; r < 9; r++) {
+            for (int c = 0; c < 9; c++) {
+                int from = transpose ? cols[c] * 9 + rows[r] : rows[r] * 9 + cols[c];
+                out[r * 9 + c] = digits[board.charAt(from) - '0'];
             }
         }
+        return new String(out);
+    }
 
-        if (board[row][col] != 0) {
-            return solve(board, row, col + 1);
+    // Orden de filas (o columnas): bandas barajadas y, dentro de cada una, sus 3 líneas
+    private static int[] linesShuffle(Random random) {
+        int[] bands = shuffled(3, random);
+        int[] lines = new int[9];
+        for (int b = 0; b < 3; b++) {
+            int[] inBand = shuffled(3, random);
+            for (int l = 0; l < 3; l++) {
+                lines[b * 3 + l] = bands[b] * 3 + inBand[l];
+            }
         }
+        return lines;
+    }
 
-
-        for (int num : RANDOM.ints(1, BOARD_SIZE + 1).distinct().limit(BOARD_SIZE).toArray()) {
-            if (isValid(board, row, col, num)) {
-                board[row][col] = num;
-                if (solve(board, row, col + 1)) {
-                    return true;
-                }
-            }
+    private static int[] shuffled(int n, Random random) {
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
         }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        return order;
+    }
 
-        board[row][col] = 0;
-        return false;
+    /**
+     * Banda de técnicas [más fácil, más difícil] de cada dificultad:
+     * - EASY: basta con singles.
+     * - MEDIUM: hacen falta parejas o candidatos bloqueados.
+     * - HARD: hace falta X-Wing o cadenas (pero se puede resolver sin probar).
+     */
+    static Technique[] bandFor(String difficulty) {
+        if ("EASY".equals(difficulty)) return new Technique[]{Technique.NAKED_SINGLE, Technique.HIDDEN_SINGLE};
+        if ("HARD".equals(difficulty)) return new Technique[]{Technique.X_WING, Technique.SINGLE_DIGIT_CHAIN};
+        return new Technique[]{Technique.NAKED_PAIR, Technique.LOCKED_CANDIDATES};
+    }
+
+    private static int distanceToBand(Technique grade, Technique[] band) {
+        if (grade.compareTo(band[0]) < 0) return band[0].ordinal() - grade.ordinal();
+        if (grade.compareTo(band[1]) > 0) return grade.ordinal() - band[1].ordinal();
+        return 0;
     }
 
     /**
-     * Tu método 'isValid' (sin cambios)
+     * Un candidato SIN corregir: solución única y los huecos de su dificultad
+     * (público para el benchmark del corrector).
      */
-    private static boolean isValid(int[][] board, int row, int col, int num) {
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            if (board[row][i] == num || board[i][col] == num) {
-                return false;
+    public GeneratedPuzzle generateCandidate(String difficulty) {
+        Random random = ThreadLocalRandom.current();
+        int numRemoves = removalsFor(difficulty);
+
+        int[] solution = new int[SudokuSolver.CELLS];
+        int[] board = new int[SudokuSolver.CELLS];
+        GeneratedPuzzle best = null;
+        int bestRemoved = -1;
+
+        for (int attempt = 0; attempt < MAX_DIG_ATTEMPTS; attempt++) {
+            populateBoard(solution, random);
+            System.arraycopy(solution, 0, board, 0, SudokuSolver.CELLS);
+
+            int removed = removeCells(board, numRemoves, random);
+            if (removed > bestRemoved) {
+                bestRemoved = removed;
+                best = new GeneratedPuzzle(SudokuSolver.toBoardString(board), SudokuSolver.toBoardString(solution));
             }
-        }
-
-        int r = row - row % SUB_GRID_SIZE;
-        int c = col - col % SUB_GRID_SIZE;
-        for (int i = r; i < r + SUB_GRID_SIZE; i++) {
-            for (int j = c; j < c + SUB_GRID_SIZE; j++) {
-                if (board[i][j] == num) {
-                    return false;
-                }
+            if (removed == numRemoves) {
+                break;
             }
         }
 
-        return true;
+        // Si ningún intento llegó a los huecos pedidos, nos quedamos con el más cercano
+        // (sigue siendo de solución única)
+        return best;
     }
 
     /**
-     * Tu método 'removeCells'
+     * Huecos a excavar. Ya no deciden la dificultad (eso lo hace la banda), pero
+     * sin bastantes huecos casi nunca hacen falta técnicas de MEDIUM/HARD:
+     * con 43 huecos prácticamente todo se resuelve con singles.
      */
-    private static void removeCells(int[][] board, int numRemoves) {
-
-        for (int i = 0; i < numRemoves; i++) {
-            int row = RANDOM.nextInt(BOARD_SIZE);
-            int col = RANDOM.nextInt(BOARD_SIZE);
-            if (board[row][col] != 0) {
-                board[row][col] = 0;
-            } else {
-                i--;
-            }
-        }
+    static int removalsFor(String difficulty) {
+        int numRemoves = 53;
+        if ("EASY".equals(difficulty)) numRemoves = 33;
+        return numRemoves;
     }
 
     /**
-     * Tu "helper" para convertir int[][] a String
+     * Rellena un tablero completo y válido usando el solver del hilo.
      */
-    private String gridToString(int[][] grid) {
-        StringBuilder sb = new StringBuilder(81);
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                sb.append(grid[i][j]);
-            }
+    private static void populateBoard(int[] board, Random random) {
+        SudokuSolver solver = SOLVER.get();
+        solver.clear();
+        if (!solver.fillRandom(random)) {
+            throw new IllegalStateException("No se pudo generar un sudoku válido.");
         }
-        return sb.toString();
+        solver.copyTo(board);
     }
-    // --- FIN DE TU ALGORITMO ---
-
 
     /**
-     * ¡El método asíncrono!
-     * Se ejecuta en un hilo separado para rellenar el pool.
+     * Tu método 'removeCells', ahora "excavando con garantía":
+     * recorre las celdas en orden aleatorio y solo deja un hueco si el
+     * puzzle sigue teniendo solución única. Devuelve cuántas quitó.
      */
-    @Async
-    public void populatePoolAsync(String difficulty) {
-        System.out.println("-> TAREA ASÍNCRONA: Iniciando generación de pool para " + difficulty);
-        // 1. Define el tipo de métrica a buscar
-        String eventType = "PUZZLE_CONSUMED_" + difficulty.toUpperCase(); // ej. "PUZZLE_CONSUMED_MEDIUM"
-
-        // 2. Define la ventana de tiempo (ej. la última hora)
-        LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
-
-        // 3. ¡Consulta la BBDD!
-        long demandLastHour = metricRepository.countByEventTypeAndEventTimestampAfter(eventType, oneHourAgo);
-        // 4. ¡Toma la decisión!
-        int puzzlesToGenerate = 10; // Generación estándar
-        if (demandLastHour > 5) { // Si se usaron más de 5 puzzles en la última hora...
-            puzzlesToGenerate = 20; // ...¡duplica la generación!
-            System.out.println("-> TAREA ASÍNCRONA: ¡Demanda alta detectada! (" + demandLastHour + ") Generando 20 puzzles.");
-        } else {
-            System.out.println("-> TAREA ASÍNCRONA: (Demanda baja) Iniciando generación de pool de 10 para " + difficulty);
-        }
-        try {
-            // 5. ¡Usa la nueva variable en el bucle!
-            for (int i = 0; i < puzzlesToGenerate; i++) {
-                GeneratedPuzzle puzzle = this.generateSudokuSync(difficulty);
-
-                PreGeneratedPuzzle prePuzzle = PreGeneratedPuzzle.builder()
-                        .difficulty(difficulty)
-                        .boardString(puzzle.boardString)
-                        .solutionString(puzzle.solutionString)
-                        .build(); // (El 'createdAt' se añade solo)
-
-                puzzleRepository.save(prePuzzle);
+    private static int removeCells(int[] board, int numRemoves, Random random) {
+        SudokuSolver solver = SOLVER.get();
+        solver.load(board);
+
+        int[] order = shuffled(SudokuSolver.CELLS, random);
+        int removed = 0;
+        for (int i = 0; i < order.length && removed < numRemoves; i++) {
+            int cell = order[i];
+            int digit = board[cell];
+
+            solver.unplace(cell);
+            if (solver.countSolutions(2) == 1) {
+                board[cell] = 0;
+                removed++;
+            } else {
+                solver.place(cell, digit); // deshacemos: habría más de una solución
             }
-            System.out.println("-> TAREA ASÍNCRONA: Pool rellenado para " + difficulty);
-        } catch (Exception e) {
-            System.err.println("-> TAREA ASÍNCRONA: Falló la generación del pool: " + e.getMessage());
         }
+        return removed;
     }
+
+    // --- FIN DE TU ALGORITMO ---
 }
@@ -3,17 +3,26 @@ package com.logicgames.api.game;
 
 
 
-import com.logicgames.api.user.User;
+import com.logicgames.api.game.engine.BoardValidator;
+import com.logicgames.api.game.engine.PackedBoard;
+import com.logicgames.api.game.engine.SudokuSolver;
+import com.logicgames.api.user.AuthenticatedUser;
 import com.logicgames.api.user.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import com.logicgames.api.game.dtos.SudokuSolutionRequest;
 import com.logicgames.api.game.dtos.SaveGameRequest;
+import com.logicgames.api.game.dtos.MoveBatchRequest;
+import com.logicgames.api.game.dtos.MoveBatchResponse;
+import com.logicgames.api.game.dtos.ValidateBoardRequest;
+import com.logicgames.api.game.dtos.ValidateBoardResponse;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Optional;
 import java.util.List;
 import com.logicgames.api.game.dtos.ScoreboardEntryDTO;
 import java.util.stream.Collectors;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service // Post-it: "Soy un Cerebro (Lógica de Negocio)"
@@ -21,17 +30,23 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public class SudokuService {
 
+    // Un validador por hilo: reutiliza sus arrays en cada comprobación
+    private static final ThreadLocal<BoardValidator> VALIDATOR = ThreadLocal.withInitial(BoardValidator::new);
+
 
     // El Archivador de Sudoku (para buscar/guardar partidas)
     private final SudokuGameRepository sudokuGameRepository;
-    // El Archivador de User (para encontrar al jugador)
+    // Las partidas en juego, en memoria (los /save se vuelcan en diferido)
+    private final GameStateCache gameStateCache;
+    // El Archivador de User (solo para referencias por id al crear partidas)
     private final UserRepository userRepository;
-    // Para las metricas
-    private final GameMetricRepository metricRepository;
+    // Para las metricas (se escriben en lote, fuera de la petición)
+    private final GameMetricRecorder metricRecorder;
 
     // --- 1. Las Herramientas que necesitamos ---
-    private final PreGeneratedPuzzleRepository puzzleRepository;
-    private final SudokuGeneratorService generatorService;
+    private final PuzzlePool puzzlePool;
+    private final SingleFlightGenerator singleFlightGenerator;
+    private final PuzzleRefillPipeline refillPipeline;
 
 
 
@@ -39,41 +54,53 @@ public class SudokuService {
      * Lógica principal: Carga la partida "IN_PROGRESS" de un usuario.
      * Si no existe, o si la dificultad es diferente, crea una NUEVA.
      * Esta es la lógica de "sobrescribir" que discutimos.
+     * (Primero mira en la caché de partidas: si está ahí, ni se toca la BBDD)
      */
-    public SudokuGame loadOrCreateGame(String userEmail, String difficulty, String gameMode) {
+    public SudokuGame loadOrCreateGame(AuthenticatedUser player, String difficulty, String gameMode) {
+        String userEmail = player.email();
 
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalStateException("Usuario no encontrado"));
+        Optional<SudokuGame> cachedGameOpt = gameStateCache.get(player.id());
+        if (cachedGameOpt.isPresent() && isSameGame(cachedGameOpt.get(), difficulty, gameMode)) {
+            System.out.println("Partida en progreso encontrada (caché) para: " + userEmail);
+            return cachedGameOpt.get();
+        }
 
         Optional<SudokuGame> existingGameOpt = sudokuGameRepository
-                .findByUserAndState(user, "IN_PROGRESS");
+                .findByUserIdAndState(player.id(), "IN_PROGRESS");
 
+        SudokuGame game;
         if (existingGameOpt.isPresent()) {
-            SudokuGame game = existingGameOpt.get();
-            if (game.getDifficulty().equals(difficulty) && game.getGameMode().equals(gameMode)) {
+            game = existingGameOpt.get();
+            if (isSameGame(game, difficulty, gameMode)) {
                 System.out.println("Partida en progreso encontrada para: " + userEmail);
+                gameStateCache.put(player.id(), game);
                 return game;
             }
             System.out.println("Sobrescribiendo partida en progreso para: " + userEmail);
             // ¡Llama al método HELPER actualizado!
-            SudokuGame updatedGame = generateNewBoard(user, difficulty, gameMode, game);
-            return sudokuGameRepository.save(updatedGame);
+            game = sudokuGameRepository.save(generateNewBoard(player, difficulty, gameMode, game));
 
         } else {
             System.out.println("Creando nueva partida para: " + userEmail);
             // ¡Llama al método HELPER actualizado!
-            SudokuGame newGame = generateNewBoard(user, difficulty, gameMode, null);
-            return sudokuGameRepository.save(newGame);
+            game = sudokuGameRepository.save(generateNewBoard(player, difficulty, gameMode, null));
         }
+        // (Reemplaza lo que hubiera en la caché: el progreso del tablero viejo ya no cuenta)
+        gameStateCache.put(player.id(), game);
+        return game;
+    }
+
+    private static boolean isSameGame(SudokuGame game, String difficulty, String gameMode) {
+        return game.getDifficulty().equals(difficulty) && game.getGameMode().equals(gameMode);
     }
 
-    private SudokuGame generateNewBoard(User user, String difficulty, String gameMode, SudokuGame gameToUpdate) {
+    private SudokuGame generateNewBoard(AuthenticatedUser player, String difficulty, String gameMode, SudokuGame gameToUpdate) {
 
         String newBoard;
         String newSolution;
 
-        // 1. Intenta sacar un puzzle del pool
-        Optional<PreGeneratedPuzzle> puzzleOpt = puzzleRepository.findAnyAvailableByDifficulty(difficulty);
+        // 1. Intenta sacar un puzzle del pool (en memoria: sin BBDD)
+        Optional<PreGeneratedPuzzle> puzzleOpt = puzzlePool.claim(difficulty);
 
         if (puzzleOpt.isPresent()) {
             // ¡Genial! El pool tenía uno.
@@ -81,28 +108,23 @@ public class SudokuService {
             System.out.println("-> POOL: Puzzle encontrado en el pool para " + difficulty);
             newBoard = puzzle.getBoardString();
             newSolution = puzzle.getSolutionString();
-            puzzleRepository.delete(puzzle); // ¡Importante! Bórralo del pool.
-            GameMetric metric = GameMetric.builder()
-                    .eventType("PUZZLE_CONSUMED_" + difficulty)
-                    .build();
-            metricRepository.save(metric);
+            // (El pool lo borra de la BBDD en diferido)
+            metricRecorder.record("PUZZLE_CONSUMED_" + difficulty);
 
         } else {
             // ¡El pool está vacío! (El servidor acaba de despertar)
             System.out.println("-> POOL: Pool vacío para " + difficulty + ". Generando uno SÍNCRONAMENTE.");
 
-            // 2. Genera UNO síncronamente para este usuario (Llama al nuevo servicio)
-            var puzzle = generatorService.generateSudokuSync(difficulty); // Llama al método 'Sync'
-            newBoard = puzzle. boardString;
+            // 2. Genera síncronamente, pero compartiendo UN solo generador entre
+            //    todas las peticiones que fallan a la vez (single-flight)
+            var puzzle = singleFlightGenerator.generate(difficulty);
+            newBoard = puzzle.boardString;
             newSolution = puzzle.solutionString;
 
-            GameMetric metric = GameMetric.builder()
-                    .eventType("POOL_EMPTY_" + difficulty)
-                    .build();
-            metricRepository.save(metric);
+            metricRecorder.record("POOL_EMPTY_" + difficulty);
 
-            // 3. ¡Lanza la tarea ASÍNCRONA para rellenar el pool!
-            generatorService.populatePoolAsync(difficulty);
+            // 3. ¡Lanza el relleno ASÍNCRONO! (si ya hay uno en camino, no hace nada)
+            refillPipeline.populatePoolAsync(difficulty);
         }
 
         // --- (El resto del método sigue igual que antes) ---
@@ -115,41 +137,178 @@ public class SudokuService {
             if ("HARD".equals(difficulty)) timeLimit = 180L;
         }
 
-        game.setUser(user);
+        // Una referencia (solo el id) basta para la foreign key: sin SELECT a _user
+        game.setUser(userRepository.getReferenceById(player.id()));
         game.setBoardString(newBoard);
         game.setSolutionString(newSolution);
+        game.setGivenMask(PackedBoard.givenMask(PackedBoard.pack(newBoard)));
         game.setDifficulty(difficulty);
         game.setState("IN_PROGRESS");
         game.setGameMode(gameMode);
         game.setTimeLimitSeconds(timeLimit);
         game.setTimeElapsedSeconds(0L);
         game.setLastUpdatedAt(LocalDateTime.now());
+        game.setLastMoveSeq(0L); // Tablero nuevo: las jugadas vuelven a empezar en 1
 
         return game;
     }
 
-    public void saveGameProgress(String userEmail, SaveGameRequest request) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalStateException("Usuario no encontrado"));
-        SudokuGame game = sudokuGameRepository.findByUserAndState(user, "IN_PROGRESS")
+    /**
+     * Guarda el progreso EN MEMORIA (GameStateCache): la BBDD se entera en el
+     * siguiente volcado. Solo si la partida no está en la caché se lee (una vez).
+     * Las pistas del puzzle no se pueden cambiar (completeGame se fía de ellas).
+     * Sin transacción: abrirla ya coge una conexión del pool, y este es el camino
+     * del autoguardado (la lectura de loadIntoCache lleva la suya del repositorio).
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void saveGameProgress(AuthenticatedUser player, SaveGameRequest request) {
+        String board = request.getBoardString();
+        try {
+            PackedBoard.pack(board); // 81 dígitos
+        } catch (IllegalArgumentException e) {
+            throw new InvalidMoveException(e.getMessage());
+        }
+
+        boolean givensKept = gameStateCache.read(player.id(), game -> keepsGivens(game, board))
+                .orElseGet(() -> keepsGivens(loadIntoCache(player, "guardar"), board));
+        if (!givensKept) {
+            throw new InvalidMoveException("No se pueden cambiar las pistas del puzzle.");
+        }
+        if (gameStateCache.updateProgress(player.id(), board, request.getTimeElapsedSeconds())) {
+            return;
+        }
+        loadIntoCache(player, "guardar"); // (la acaban de sacar de la caché: otra vuelta)
+        if (!gameStateCache.updateProgress(player.id(), board, request.getTimeElapsedSeconds())) {
+            // (Se ha completado/fallado justo ahora: este guardado ya no cuenta)
+            throw new IllegalStateException("No se encontró partida en progreso para guardar");
+        }
+    }
+
+    private SudokuGame loadIntoCache(AuthenticatedUser player, String action) {
+        SudokuGame game = sudokuGameRepository.findByUserIdAndState(player.id(), "IN_PROGRESS")
+                .orElseThrow(() -> new IllegalStateException("No se encontró partida en progreso para " + action));
+        gameStateCache.put(player.id(), game);
+        return game;
+    }
+
+    private static boolean keepsGivens(SudokuGame game, String board) {
+        // (Partidas antiguas sin máscara: no se sabe cuáles son las pistas. Da igual:
+        // para completarlas hay que llegar a su solución exacta, ver isSolution)
+        return game.getGivenMask() == null || BoardValidator.keepsGivens(board, game.getBoardString(), game.getGivenMask());
+    }
+
+    /**
+     * Aplica un lote de jugadas numeradas (POST /moves).
+     *
+     * - Lote ya aplicado (reintento): no hace nada y responde OK. Si solo una
+     *   parte es nueva, se aplica esa parte.
+     * - Lote que deja un hueco (falta alguna jugada anterior): 409, sin escribir.
+     * - Dos lotes a la vez: el UPDATE condicional deja pasar solo a uno; el otro, 409.
+     *
+     * Sin transacción propia: el volcado de lo pendiente de /save se confirma en la
+     * suya (un 409/400 después no puede deshacerlo) y las jugadas van en UN UPDATE
+     * condicional, que no necesita más.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public MoveBatchResponse applyMoves(AuthenticatedUser player, MoveBatchRequest request) {
+        List<MoveBatchRequest.Move> moves = request.getMoves();
+        for (int i = 1; i < moves.size(); i++) {
+            if (moves.get(i).getSeq() != moves.get(i - 1).getSeq() + 1) {
+                throw new InvalidMoveException("Las jugadas del lote deben ser consecutivas.");
+            }
+        }
+
+        // Lo pendiente de /save va primero a la BBDD: las jugadas se aplican sobre ello
+        gameStateCache.flushAndEvict(player.id());
+        SudokuGame game = sudokuGameRepository.findByUserIdAndState(player.id(), "IN_PROGRESS")
                 .orElseThrow(() -> new IllegalStateException("No se encontró partida en progreso para guardar"));
-        game.setBoardString(request.getBoardString());
-        game.setTimeElapsedSeconds(request.getTimeElapsedSeconds());
-        game.setLastUpdatedAt(LocalDateTime.now());
-        sudokuGameRepository.save(game);
+
+        long current = game.getLastMoveSeq();
+        long first = moves.get(0).getSeq();
+        long last = moves.get(moves.size() - 1).getSeq();
+
+        if (last <= current) {
+            return MoveBatchResponse.builder().lastMoveSeq(current).applied(0).build(); // reintento
+        }
+        if (first > current + 1) {
+            throw new MoveConflictException("Faltan las jugadas " + (current + 1) + "-" + (first - 1) + ".", current);
+        }
+
+        char[] board = game.getBoardString().toCharArray();
+        byte[] givens = game.getGivenMask();
+        int applied = 0;
+        for (MoveBatchRequest.Move move : moves) {
+            if (move.getSeq() > current) {
+                if (givens != null && PackedBoard.isGiven(givens, move.getCell())) {
+                    throw new InvalidMoveException("La casilla " + move.getCell() + " es una pista del puzzle.");
+                }
+                board[move.getCell()] = (char) ('0' + move.getValue());
+                applied++;
+            }
+        }
+
+        int updated = sudokuGameRepository.applyMoves(game.getId(), current, new String(board), last,
+                request.getTimeElapsedSeconds(), LocalDateTime.now());
+        if (updated == 0) {
+            throw new MoveConflictException("Otro lote de jugadas se aplicó a la vez.", current);
+        }
+        return MoveBatchResponse.builder().lastMoveSeq(last).applied(applied).build();
     }
 
-    public boolean completeGame(String userEmail, SudokuSolutionRequest request) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalStateException("Usuario no encontrado"));
-        SudokuGame game = sudokuGameRepository.findByUserAndState(user, "IN_PROGRESS")
+    /**
+     * Comprueba un tablero o una jugada contra las reglas (POST /validate),
+     * sobre la partida en juego tal y como está en la caché (sin copiarla).
+     * Si no está en la caché, se lee una vez de la BBDD y se queda ahí.
+     * Sin transacción, como saveGameProgress.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ValidateBoardResponse validateBoard(AuthenticatedUser player, ValidateBoardRequest request) {
+        if (request.getCell() != null && request.getValue() == null) {
+            throw new InvalidMoveException("Para comprobar una jugada hace falta 'cell' y 'value'.");
+        }
+        return gameStateCache.read(player.id(), game -> validate(game, request))
+                .orElseGet(() -> validate(loadIntoCache(player, "validar"), request));
+    }
+
+    private static ValidateBoardResponse validate(SudokuGame game, ValidateBoardRequest request) {
+        BoardValidator validator = VALIDATOR.get();
+        String board = request.getBoardString() != null ? request.getBoardString() : game.getBoardString();
+        byte[] givens = game.getGivenMask();
+
+        if (request.getCell() != null) {
+            int cell = request.getCell();
+            validator.checkMove(board, cell, request.getValue());
+            if (givens != null && PackedBoard.isGiven(givens, cell)
+                    && game.getBoardString().charAt(cell) - '0' != request.getValue()) {
+                validator.markConflict(cell); // una pista no se puede cambiar
+            }
+        } else {
+            validator.check(board);
+            if (givens != null) {
+                validator.markChangedGivens(board, game.getBoardString(), givens);
+            }
+        }
+
+        List<Integer> conflicts = new ArrayList<>(validator.conflictCount());
+        for (int cell = 0; cell < SudokuSolver.CELLS; cell++) {
+            if (validator.isConflict(cell)) {
+                conflicts.add(cell);
+            }
+        }
+        return ValidateBoardResponse.builder().valid(conflicts.isEmpty()).conflicts(conflicts).build();
+    }
+
+    public boolean completeGame(AuthenticatedUser player, SudokuSolutionRequest request) {
+        String userEmail = player.email();
+        SudokuGame game = sudokuGameRepository.findByUserIdAndState(player.id(), "IN_PROGRESS")
                 .orElseThrow(() -> new IllegalStateException("No se encontró partida en progreso para completar"));
-        boolean isCorrect = game.getSolutionString().equals(request.getBoardString());
+        boolean isCorrect = isSolution(game, request.getBoardString());
         if (!isCorrect) {
             System.out.println("Intento de completar fallido para: " + userEmail);
             return false;
         }
         System.out.println("¡Partida completada exitosamente por: " + userEmail);
+        applyPendingProgress(player, game);
         if ("TIMED".equals(game.getGameMode())) {
             game.setState("COMPLETED");
             game.setTimeElapsedSeconds(request.getTimeElapsedSeconds());
@@ -161,11 +320,25 @@ public class SudokuService {
         return true;
     }
 
-    public void failGame(String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalStateException("Usuario no encontrado"));
-        sudokuGameRepository.findByUserAndState(user, "IN_PROGRESS")
+    /**
+     * Con máscara de pistas, cualquier solución válida vale (no se compara con
+     * solutionString): las 27 unidades con los 9 dígitos y las pistas intactas
+     * (las del tablero guardado: /save y /moves no dejan cambiarlas).
+     * Sin máscara (partidas de antes de V4) no se sabe cuáles son las pistas:
+     * como antes, tiene que ser exactamente la solución guardada.
+     */
+    private static boolean isSolution(SudokuGame game, String board) {
+        if (game.getGivenMask() == null) {
+            return game.getSolutionString().equals(board);
+        }
+        return VALIDATOR.get().isSolution(board, game.getBoardString(), game.getGivenMask());
+    }
+
+    public void failGame(AuthenticatedUser player) {
+        String userEmail = player.email();
+        sudokuGameRepository.findByUserIdAndState(player.id(), "IN_PROGRESS")
                 .ifPresent(game -> {
+                    applyPendingProgress(player, game);
                     game.setState("FAILED");
                     game.setLastUpdatedAt(LocalDateTime.now());
                     sudokuGameRepository.save(game);
@@ -173,18 +346,29 @@ public class SudokuService {
                 });
     }
 
-    public List<ScoreboardEntryDTO> getScoreboard(String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalStateException("Usuario no encontrado"));
+    /**
+     * Saca la partida de la caché y pasa su último progreso a la entidad:
+     * se escribe en el mismo UPDATE que el cambio de estado.
+     */
+    private void applyPendingProgress(AuthenticatedUser player, SudokuGame game) {
+        gameStateCache.take(player.id())
+                .filter(pending -> pending.getId().equals(game.getId()))
+                .ifPresent(pending -> {
+                    game.setBoardString(pending.getBoardString());
+                    game.setTimeElapsedSeconds(pending.getTimeElapsedSeconds());
+                });
+    }
+
+    public List<ScoreboardEntryDTO> getScoreboard(AuthenticatedUser player) {
         List<SudokuGame> completedGames = sudokuGameRepository
-                .findByUserAndStateOrderByTimeElapsedSecondsAsc(user, "COMPLETED");
+                .findByUserIdAndStateOrderByTimeElapsedSecondsAsc(player.id(), "COMPLETED");
         return completedGames.stream()
                 .map(game -> ScoreboardEntryDTO.builder()
                         .id(game.getId())
                         .difficulty(game.getDifficulty())
                         .timeElapsedSeconds(game.getTimeElapsedSeconds())
                         .lastUpdatedAt(game.getLastUpdatedAt())
-                        .userEmail(game.getUser().getEmail())
+                        .userEmail(player.email()) // (son todas suyas: no hace falta cargar el User)
                         .build())
                 .collect(Collectors.toList());
     }
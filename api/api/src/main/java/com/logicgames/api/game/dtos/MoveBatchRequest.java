@@ -0,0 +1,47 @@
+package com.logicgames.api.game.dtos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Lote de jugadas para POST /api/sudoku/moves (en vez de subir las 81 casillas).
+ * Las jugadas van numeradas (1, 2, 3...) y el lote debe ser consecutivo.
+ */
+@Data
+public class MoveBatchRequest {
+
+    @NotEmpty(message = "El lote no puede estar vacío")
+    @Size(max = 81, message = "Como mucho 81 jugadas por lote")
+    private List<@Valid @NotNull Move> moves;
+
+    // Los segundos que lleva jugados
+    @NotNull(message = "El tiempo es obligatorio")
+    @Min(value = 0, message = "El tiempo no puede ser negativo")
+    private Long timeElapsedSeconds;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Move {
+        // Casilla 0-80 (fila * 9 + columna)
+        @Min(0) @Max(80)
+        private int cell;
+
+        // 1-9, o 0 para borrar
+        @Min(0) @Max(9)
+        private int value;
+
+        // Número de jugada (empieza en 1 con cada tablero nuevo)
+        @Min(1)
+        private long seq;
+    }
+}
@@ -0,0 +1,21 @@
+package com.logicgames.api.game.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Respuesta de POST /api/sudoku/moves (también en el 409).
+ * El cliente debe seguir numerando desde 'lastMoveSeq' + 1.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MoveBatchResponse {
+    // Última jugada aplicada en el servidor
+    private long lastMoveSeq;
+    // Jugadas de este lote que se han aplicado ahora (0 si era un reintento)
+    private int applied;
+}
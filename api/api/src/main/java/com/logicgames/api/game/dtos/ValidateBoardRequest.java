@@ -0,0 +1,26 @@
+package com.logicgames.api.game.dtos;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+/**
+ * Para POST /api/sudoku/validate. Todo es opcional:
+ * - sin 'boardString' se usa el tablero guardado de la partida en juego;
+ * - con 'cell' + 'value' se comprueba solo esa jugada (O(1));
+ * - sin jugada se comprueba el tablero entero.
+ */
+@Data
+public class ValidateBoardRequest {
+
+    @Pattern(regexp = "^[0-9]{81}$", message = "El tablero debe tener exactamente 81 dígitos")
+    private String boardString;
+
+    @Min(0) @Max(80)
+    private Integer cell;
+
+    // 1-9, o 0 para borrar
+    @Min(0) @Max(9)
+    private Integer value;
+}
@@ -0,0 +1,22 @@
+package com.logicgames.api.game.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Respuesta de POST /api/sudoku/validate.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ValidateBoardResponse {
+    // true si no hay ningún conflicto
+    private boolean valid;
+    // Celdas (0-80) que chocan: dígitos repetidos en fila/columna/caja, o pistas cambiadas
+    private List<Integer> conflicts;
+}
@@ -0,0 +1,199 @@
+package com.logicgames.api.game.engine;
+
+import java.util.Arrays;
+
+/**
+ * Validador de tableros con máscaras de bits (como SudokuSolver, sin crear objetos).
+ *
+ * - check(board): tablero entero en una pasada. Por cada fila, columna y caja
+ *   guarda qué dígitos ha visto y cuáles ha visto DOS veces; una celda está en
+ *   conflicto si su dígito está repetido en alguna de sus 3 unidades.
+ * - checkMove(board, cell, digit): una jugada, mirando solo sus 20 vecinas (O(1)).
+ * - isSolution(board, ...): ¿está resuelto? (para completar la partida)
+ *
+ * Las celdas en conflicto quedan en un bitset de 81 bits (isConflict / conflictCount)
+ * hasta la siguiente comprobación.
+ *
+ * NO es thread-safe: una instancia por hilo (ver SudokuService).
+ */
+public final class BoardValidator {
+
+    private static final int UNITS = SudokuSolver.UNITS;
+    private static final int PEER_COUNT = SudokuSolver.PEER_COUNT;
+    private static final int[] PEERS = SudokuSolver.PEERS;
+
+    private final int[] digits = new int[SudokuSolver.CELLS];
+    private final int[] seen = new int[UNITS];
+    private final int[] repeated = new int[UNITS];
+    private int empty;
+
+    // Bitset de celdas en conflicto: 0-63 en 'low', 64-80 en 'high'
+    private long low;
+    private long high;
+
+    /**
+     * Comprueba un tablero "5300..." (0 = vacía). Devuelve cuántas celdas están en conflicto.
+     */
+    public int check(String board) {
+        parse(board);
+        return checkDigits();
+    }
+
+    /**
+     * Igual, con un tablero empaquetado (PackedBoard).
+     */
+    public int check(byte[] packed) {
+        PackedBoard.unpackTo(packed, digits);
+        return checkDigits();
+    }
+
+    /**
+     * ¿Chocaría 'digit' en 'cell'? Marca las vecinas que ya tienen ese dígito.
+     * (Lo que haya en la propia celda no cuenta: se va a sobrescribir)
+     */
+    public int checkMove(String board, int cell, int digit) {
+        low = 0;
+        high = 0;
+        if (digit == 0) {
+            return 0; // borrar nunca choca
+        }
+        char c = (char) ('0' + digit);
+        for (int i = cell * PEER_COUNT, end = i + PEER_COUNT; i < end; i++) {
+            if (board.charAt(PEERS[i]) == c) {
+                markConflict(PEERS[i]);
+            }
+        }
+        return conflictCount();
+    }
+
+    /**
+     * Marca las pistas del puzzle ('givenMask') que 'board' ha cambiado
+     * respecto a 'reference' (un tablero donde las pistas siguen intactas).
+     * Se suma a lo que ya hubiera marcado check().
+     */
+    public int markChangedGivens(String board, String reference, byte[] givenMask) {
+        for (int cell = 0; cell < SudokuSolver.CELLS; cell++) {
+            if (PackedBoard.isGiven(givenMask, cell) && board.charAt(cell) != reference.charAt(cell)) {
+                markConflict(cell);
+            }
+        }
+        return conflictCount();
+    }
+
+    /**
+     * ¿Es 'board' un sudoku resuelto? 81 dígitos del 1 al 9, cada fila, columna
+     * y caja con los 9 dígitos (9 celdas con 9 dígitos distintos = una permutación)
+     * y, si hay máscara, las pistas iguales que en 'reference'.
+     * Cualquier solución válida vale: no se compara con una solución guardada.
+     * Nunca lanza: un tablero mal formado simplemente no es solución.
+     */
+    public boolean isSolution(String board, String reference, byte[] givenMask) {
+        if (board == null || board.length() != SudokuSolver.CELLS) {
+            return false;
+        }
+        Arrays.fill(seen, 0);
+        for (int cell = 0; cell < SudokuSolver.CELLS; cell++) {
+            int digit = board.charAt(cell) - '0';
+            if (digit < 1 || digit > 9) {
+                return false;
+            }
+            int bit = 1 << (digit - 1);
+            seen[SudokuSolver.ROW_OF[cell]] |= bit;
+            seen[SudokuSolver.COL_OF[cell]] |= bit;
+            seen[SudokuSolver.BOX_OF[cell]] |= bit;
+        }
+        for (int unit = 0; unit < UNITS; unit++) {
+            if (seen[unit] != SudokuSolver.ALL_DIGITS) {
+                return false;
+            }
+        }
+        return givenMask == null || keepsGivens(board, reference, givenMask);
+    }
+
+    /**
+     * ¿Tiene 'board' las mismas pistas ('givenMask') que 'reference'?
+     */
+    public static boolean keepsGivens(String board, String reference, byte[] givenMask) {
+        for (int cell = 0; cell < SudokuSolver.CELLS; cell++) {
+            if (PackedBoard.isGiven(givenMask, cell) && board.charAt(cell) != reference.charAt(cell)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void markConflict(int cell) {
+        if (cell < 64) {
+            low |= 1L << cell;
+        } else {
+            high |= 1L << (cell - 64);
+        }
+    }
+
+    public boolean isConflict(int cell) {
+        return cell < 64 ? (low & (1L << cell)) != 0 : (high & (1L << (cell - 64))) != 0;
+    }
+
+    public int conflictCount() {
+        return Long.bitCount(low) + Long.bitCount(high);
+    }
+
+    /**
+     * Celdas vacías del último tablero comprobado con check().
+     */
+    public int emptyCells() {
+        return empty;
+    }
+
+    private void parse(String board) {
+        if (board.length() != SudokuSolver.CELLS) {
+            throw new IllegalArgumentException("El tablero debe tener 81 celdas (tiene " + board.length() + ")");
+        }
+        for (int cell = 0; cell < SudokuSolver.CELLS; cell++) {
+            int digit = board.charAt(cell) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Celda " + cell + " no es un dígito: '" + board.charAt(cell) + "'");
+            }
+            digits[cell] = digit;
+        }
+    }
+
+    private int checkDigits() {
+        Arrays.fill(seen, 0);
+        Arrays.fill(repeated, 0);
+        low = 0;
+        high = 0;
+        empty = 0;
+
+        // 1ª pasada: qué dígitos aparecen, y cuáles más de una vez, en cada unidad
+        for (int cell = 0; cell < SudokuSolver.CELLS; cell++) {
+            int digit = digits[cell];
+            if (digit == 0) {
+                empty++;
+                continue;
+            }
+            int bit = 1 << (digit - 1);
+            note(SudokuSolver.ROW_OF[cell], bit);
+            note(SudokuSolver.COL_OF[cell], bit);
+            note(SudokuSolver.BOX_OF[cell], bit);
+        }
+
+        // 2ª pasada: una celda choca si su dígito está repetido en alguna de sus unidades
+        for (int cell = 0; cell < SudokuSolver.CELLS; cell++) {
+            int digit = digits[cell];
+            if (digit != 0) {
+                int clash = repeated[SudokuSolver.ROW_OF[cell]] | repeated[SudokuSolver.COL_OF[cell]]
+                        | repeated[SudokuSolver.BOX_OF[cell]];
+                if ((clash & (1 << (digit - 1))) != 0) {
+                    markConflict(cell);
+                }
+            }
+        }
+        return conflictCount();
+    }
+
+    private void note(int unit, int bit) {
+        repeated[unit] |= seen[unit] & bit;
+        seen[unit] |= bit;
+    }
+}
@@ -0,0 +1,113 @@
+package com.logicgames.api.game.engine;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tablero empaquetado: 4 bits por celda (81 celdas = 41 bytes, en vez de 81 caracteres).
+ *
+ * La celda i va en el byte i / 2: las pares en el nibble alto y las impares
+ * en el bajo (el último nibble sobra y va a 0). Así el hexadecimal de los
+ * bytes ES el tablero de la API + un '0' final, y Postgres convierte con
+ * decode(board || '0', 'hex') / left(encode(bytes, 'hex'), 81).
+ *
+ * Las pistas (celdas fijas del puzzle) van en una máscara aparte de 81 bits
+ * (11 bytes): bit i = la celda i es pista.
+ *
+ * Solo métodos estáticos, sin estado: thread-safe.
+ */
+public final class PackedBoard {
+
+    public static final int PACKED_BYTES = (SudokuSolver.CELLS + 1) / 2;
+    public static final int MASK_BYTES = (SudokuSolver.CELLS + 7) / 8;
+
+    private PackedBoard() {
+    }
+
+    /**
+     * "5300..." (81 dígitos, 0 = vacía) -> 41 bytes.
+     */
+    public static byte[] pack(String board) {
+        if (board.length() != SudokuSolver.CELLS) {
+            throw new IllegalArgumentException("El tablero debe tener 81 celdas (tiene " + board.length() + ")");
+        }
+        byte[] packed = new byte[PACKED_BYTES];
+        for (int cell = 0; cell < SudokuSolver.CELLS; cell++) {
+            int digit = board.charAt(cell) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Celda " + cell + " no es un dígito: '" + board.charAt(cell) + "'");
+            }
+            packed[cell >> 1] |= (byte) ((cell & 1) == 0 ? digit << 4 : digit);
+        }
+        return packed;
+    }
+
+    public static byte[] pack(int[] board) {
+        byte[] packed = new byte[PACKED_BYTES];
+        for (int cell = 0; cell < SudokuSolver.CELLS; cell++) {
+            packed[cell >> 1] |= (byte) ((cell & 1) == 0 ? board[cell] << 4 : board[cell]);
+        }
+        return packed;
+    }
+
+    /**
+     * 41 bytes -> "5300..." (el formato de la API).
+     */
+    public static String unpack(byte[] packed) {
+        checkLength(packed);
+        byte[] chars = new byte[PACKED_BYTES * 2];
+        for (int i = 0; i < PACKED_BYTES; i++) {
+            // Dos celdas por byte (más rápido que get() celda a celda)
+            chars[2 * i] = (byte) ('0' + ((packed[i] >> 4) & 0xF));
+            chars[2 * i + 1] = (byte) ('0' + (packed[i] & 0xF));
+        }
+        return new String(chars, 0, SudokuSolver.CELLS, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Vuelca el tablero a un array plano de 81 posiciones (el formato del solver).
+     */
+    public static void unpackTo(byte[] packed, int[] target) {
+        checkLength(packed);
+        for (int i = 0; i < PACKED_BYTES - 1; i++) {
+            target[2 * i] = (packed[i] >> 4) & 0xF;
+            target[2 * i + 1] = packed[i] & 0xF;
+        }
+        target[SudokuSolver.CELLS - 1] = (packed[PACKED_BYTES - 1] >> 4) & 0xF;
+    }
+
+    public static int get(byte[] packed, int cell) {
+        int b = packed[cell >> 1];
+        return (cell & 1) == 0 ? (b >> 4) & 0xF : b & 0xF;
+    }
+
+    public static void set(byte[] packed, int cell, int digit) {
+        int i = cell >> 1;
+        packed[i] = (byte) ((cell & 1) == 0
+                ? (packed[i] & 0x0F) | (digit << 4)
+                : (packed[i] & 0xF0) | digit);
+    }
+
+    /**
+     * Máscara de pistas de un puzzle: bit i a 1 si la celda i viene rellena.
+     */
+    public static byte[] givenMask(byte[] packedPuzzle) {
+        checkLength(packedPuzzle);
+        byte[] mask = new byte[MASK_BYTES];
+        for (int cell = 0; cell < SudokuSolver.CELLS; cell++) {
+            if (get(packedPuzzle, cell) != 0) {
+                mask[cell >> 3] |= (byte) (1 << (cell & 7));
+            }
+        }
+        return mask;
+    }
+
+    public static boolean isGiven(byte[] mask, int cell) {
+        return (mask[cell >> 3] & (1 << (cell & 7))) != 0;
+    }
+
+    private static void checkLength(byte[] packed) {
+        if (packed.length != PACKED_BYTES) {
+            throw new IllegalArgumentException("Un tablero empaquetado ocupa " + PACKED_BYTES + " bytes (tiene " + packed.length + ")");
+        }
+    }
+}
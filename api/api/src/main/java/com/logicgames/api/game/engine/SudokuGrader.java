@@ -0,0 +1,457 @@
+package com.logicgames.api.game.engine;
+
+import java.util.Arrays;
+
+/**
+ * Resolutor LÓGICO para poner nota a un puzzle (sin backtracking).
+ *
+ * Con los candidatos de cada celda en máscaras de 9 bits, aplica siempre la
+ * técnica más fácil que avance (Technique, en orden) hasta resolverlo. La nota
+ * es la técnica más difícil que hizo falta; si se atasca, TRIAL_AND_ERROR.
+ *
+ * Sin objetos por puzzle: todo son arrays de la instancia.
+ * NO es thread-safe: una instancia por hilo (ver SudokuGeneratorService).
+ */
+public final class SudokuGrader {
+
+    private static final int CELLS = SudokuSolver.CELLS;
+    private static final int SIZE = SudokuSolver.SIZE;
+    private static final int UNITS = SudokuSolver.UNITS;
+    private static final int ALL = SudokuSolver.ALL_DIGITS;
+    private static final int[] UNIT_CELLS = SudokuSolver.UNIT_CELLS;
+    private static final int[] PEERS = SudokuSolver.PEERS;
+
+    private final int[] digits = new int[CELLS];
+    private final int[] candidates = new int[CELLS];
+    private int unsolved;
+    private boolean broken;
+
+    // Para las cadenas: color de cada celda (0 = sin color) y cola del recorrido
+    private final int[] color = new int[CELLS];
+    private final int[] queue = new int[CELLS];
+
+    /**
+     * Nota de un puzzle (81 celdas, 0 = vacía). Si las pistas se contradicen,
+     * o el puzzle no tiene solución única, también sale TRIAL_AND_ERROR.
+     */
+    public Technique grade(int[] puzzle) {
+        load(puzzle);
+        Technique hardest = Technique.NAKED_SINGLE;
+        while (unsolved > 0 && !broken) {
+            Technique used = step();
+            if (used == null) {
+                return Technique.TRIAL_AND_ERROR;
+            }
+            if (used.isHarderThan(hardest)) {
+                hardest = used;
+            }
+        }
+        return broken ? Technique.TRIAL_AND_ERROR : hardest;
+    }
+
+    public Technique grade(byte[] packed) {
+        PackedBoard.unpackTo(packed, digits);
+        return grade(digits);
+    }
+
+    /**
+     * El tablero tal y como lo dejó el último grade() (resuelto salvo TRIAL_AND_ERROR).
+     */
+    public void copyTo(int[] target) {
+        System.arraycopy(digits, 0, target, 0, CELLS);
+    }
+
+    /**
+     * Un paso: la técnica más fácil que consigue algo (colocar o descartar).
+     */
+    private Technique step() {
+        if (nakedSingles()) return Technique.NAKED_SINGLE;
+        if (hiddenSingles()) return Technique.HIDDEN_SINGLE;
+        if (nakedPairs()) return Technique.NAKED_PAIR;
+        if (hiddenPairs()) return Technique.HIDDEN_PAIR;
+        if (lockedCandidates()) return Technique.LOCKED_CANDIDATES;
+        if (xWings()) return Technique.X_WING;
+        if (singleDigitChains()) return Technique.SINGLE_DIGIT_CHAIN;
+        return null;
+    }
+
+    private void load(int[] puzzle) {
+        if (puzzle != digits) {
+            System.arraycopy(puzzle, 0, digits, 0, CELLS);
+        }
+        Arrays.fill(candidates, ALL);
+        unsolved = CELLS;
+        broken = false;
+        for (int cell = 0; cell < CELLS; cell++) {
+            int digit = digits[cell];
+            if (digit != 0) {
+                digits[cell] = 0;
+                if ((candidates[cell] & bit(digit)) == 0) {
+                    broken = true; // pistas repetidas
+                }
+                place(cell, digit);
+            }
+        }
+    }
+
+    private void place(int cell, int digit) {
+        digits[cell] = digit;
+        candidates[cell] = 0;
+        unsolved--;
+        int clear = ~bit(digit);
+        for (int i = cell * SudokuSolver.PEER_COUNT, end = i + SudokuSolver.PEER_COUNT; i < end; i++) {
+            candidates[PEERS[i]] &= clear;
+        }
+    }
+
+    /**
+     * Quita 'mask' de los candidatos de la celda. Devuelve true si cambió algo.
+     */
+    private boolean eliminate(int cell, int mask) {
+        int before = candidates[cell];
+        if ((before & mask) == 0) {
+            return false;
+        }
+        candidates[cell] = before & ~mask;
+        if (candidates[cell] == 0) {
+            broken = true; // celda vacía sin candidatos: puzzle contradictorio
+        }
+        return true;
+    }
+
+    // --- 1. Singles ---
+
+    private boolean nakedSingles() {
+        boolean progress = false;
+        for (int cell = 0; cell < CELLS; cell++) {
+            int mask = candidates[cell];
+            if (digits[cell] == 0) {
+                if (mask == 0) {
+                    broken = true;
+                    return false;
+                }
+                if ((mask & (mask - 1)) == 0) {
+                    place(cell, Integer.numberOfTrailingZeros(mask) + 1);
+                    progress = true;
+                }
+            }
+        }
+        return progress;
+    }
+
+    private boolean hiddenSingles() {
+        boolean progress = false;
+        for (int unit = 0; unit < UNITS; unit++) {
+            int base = unit * SIZE;
+            // once: dígitos vistos en 1+ celdas; twice: en 2+ celdas
+            int once = 0, twice = 0, placed = 0;
+            for (int i = 0; i < SIZE; i++) {
+                int cell = UNIT_CELLS[base + i];
+                int mask = candidates[cell];
+                twice |= once & mask;
+                once |= mask;
+                if (digits[cell] != 0) {
+                    placed |= bit(digits[cell]);
+                }
+            }
+            int lonely = once & ~twice & ~placed;
+            while (lonely != 0) {
+                int b = lonely & -lonely;
+                lonely ^= b;
+                for (int i = 0; i < SIZE; i++) {
+                    int cell = UNIT_CELLS[base + i];
+                    if ((candidates[cell] & b) != 0) {
+                        place(cell, Integer.numberOfTrailingZeros(b) + 1);
+                        progress = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return progress;
+    }
+
+    // --- 2. Parejas y candidatos bloqueados ---
+
+    private boolean nakedPairs() {
+        boolean progress = false;
+        for (int unit = 0; unit < UNITS; unit++) {
+            int base = unit * SIZE;
+            for (int i = 0; i < SIZE; i++) {
+                int mask = candidates[UNIT_CELLS[base + i]];
+                if (Integer.bitCount(mask) != 2) {
+                    continue;
+                }
+                for (int j = i + 1; j < SIZE; j++) {
+                    if (candidates[UNIT_CELLS[base + j]] != mask) {
+                        continue;
+                    }
+                    for (int k = 0; k < SIZE; k++) {
+                        if (k != i && k != j) {
+                            progress |= eliminate(UNIT_CELLS[base + k], mask);
+                        }
+                    }
+                }
+            }
+        }
+        return progress;
+    }
+
+    private boolean hiddenPairs() {
+        boolean progress = false;
+        for (int unit = 0; unit < UNITS; unit++) {
+            int base = unit * SIZE;
+            for (int d1 = 1; d1 < SIZE; d1++) {
+                int where1 = positions(base, bit(d1));
+                if (Integer.bitCount(where1) != 2) {
+                    continue;
+                }
+                for (int d2 = d1 + 1; d2 <= SIZE; d2++) {
+                    if (positions(base, bit(d2)) != where1) {
+                        continue;
+                    }
+                    int keep = bit(d1) | bit(d2);
+                    for (int w = where1; w != 0; w &= w - 1) {
+                        progress |= eliminate(UNIT_CELLS[base + Integer.numberOfTrailingZeros(w)], ~keep & ALL);
+                    }
+                }
+            }
+        }
+        return progress;
+    }
+
+    /**
+     * Pointing: si en una caja un dígito solo está en una fila (o columna), sale
+     * del resto de esa fila. Claiming: si en una fila/columna solo está en una caja,
+     * sale del resto de la caja.
+     */
+    private boolean lockedCandidates() {
+        boolean progress = false;
+        for (int unit = 0; unit < UNITS; unit++) {
+            int base = unit * SIZE;
+            for (int digit = 1; digit <= SIZE; digit++) {
+                int b = bit(digit);
+                int where = positions(base, b);
+                if (Integer.bitCount(where) < 2) {
+                    continue;
+                }
+                int first = UNIT_CELLS[base + Integer.numberOfTrailingZeros(where)];
+                if (unit >= 2 * SIZE) {
+                    // Caja: ¿todo en su fila, o todo en su columna?
+                    int row = SudokuSolver.ROW_OF[first], col = SudokuSolver.COL_OF[first];
+                    if (allIn(base, where, row)) {
+                        progress |= eliminateOutside(row, unit, b);
+                    }
+                    if (allIn(base, where, col)) {
+                        progress |= eliminateOutside(col, unit, b);
+                    }
+                } else {
+                    // Fila/columna: ¿todo en una caja?
+                    int box = SudokuSolver.BOX_OF[first];
+                    if (allIn(base, where, box)) {
+                        progress |= eliminateOutside(box, unit, b);
+                    }
+                }
+            }
+        }
+        return progress;
+    }
+
+    private boolean allIn(int base, int where, int unit) {
+        for (int w = where; w != 0; w &= w - 1) {
+            int cell = UNIT_CELLS[base + Integer.numberOfTrailingZeros(w)];
+            if (SudokuSolver.ROW_OF[cell] != unit && SudokuSolver.COL_OF[cell] != unit && SudokuSolver.BOX_OF[cell] != unit) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean eliminateOutside(int unit, int keepUnit, int b) {
+        boolean progress = false;
+        int base = unit * SIZE;
+        for (int i = 0; i < SIZE; i++) {
+            int cell = UNIT_CELLS[base + i];
+            if (SudokuSolver.ROW_OF[cell] != keepUnit && SudokuSolver.COL_OF[cell] != keepUnit
+                    && SudokuSolver.BOX_OF[cell] != keepUnit) {
+                progress |= eliminate(cell, b);
+            }
+        }
+        return progress;
+    }
+
+    // --- 3. X-Wing y cadenas ---
+
+    private boolean xWings() {
+        for (int digit = 1; digit <= SIZE; digit++) {
+            int b = bit(digit);
+            // Filas (unidades 0-8) contra columnas (9-17), y al revés
+            if (xWing(b, 0, SIZE) || xWing(b, SIZE, 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean xWing(int b, int lineStart, int crossStart) {
+        for (int l1 = 0; l1 < SIZE; l1++) {
+            int where = positions((lineStart + l1) * SIZE, b);
+            if (Integer.bitCount(where) != 2) {
+                continue;
+            }
+            for (int l2 = l1 + 1; l2 < SIZE; l2++) {
+                if (positions((lineStart + l2) * SIZE, b) != where) {
+                    continue;
+                }
+                // Las dos líneas tienen el dígito en las mismas 2 posiciones:
+                // sale del resto de las 2 líneas cruzadas
+                boolean progress = false;
+                for (int w = where; w != 0; w &= w - 1) {
+                    int crossBase = (crossStart + Integer.numberOfTrailingZeros(w)) * SIZE;
+                    for (int i = 0; i < SIZE; i++) {
+                        if (i != l1 && i != l2) {
+                            progress |= eliminate(UNIT_CELLS[crossBase + i], b);
+                        }
+                    }
+                }
+                if (progress) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Coloreado simple: por cada dígito, las celdas unidas por "pares conjugados"
+     * (una unidad con el dígito en exactamente 2 celdas) se colorean alternando;
+     * uno de los dos colores es el bueno.
+     *  - Si dos celdas del mismo color se ven, ese color es falso.
+     *  - Una celda que ve los dos colores no puede llevar el dígito.
+     */
+    private boolean singleDigitChains() {
+        for (int digit = 1; digit <= SIZE; digit++) {
+            int b = bit(digit);
+            Arrays.fill(color, 0);
+            int nextColor = 1;
+            for (int start = 0; start < CELLS; start++) {
+                if ((candidates[start] & b) == 0 || color[start] != 0 || !hasConjugate(start, b)) {
+                    continue;
+                }
+                int colorA = nextColor, colorB = nextColor + 1;
+                nextColor += 2;
+                colorChain(start, b, colorA, colorB);
+                if (applyColorWrap(b, colorA, colorB) || applyColorTrap(b, colorA, colorB)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean hasConjugate(int cell, int b) {
+        return conjugateIn(SudokuSolver.ROW_OF[cell], cell, b) >= 0
+                || conjugateIn(SudokuSolver.COL_OF[cell], cell, b) >= 0
+                || conjugateIn(SudokuSolver.BOX_OF[cell], cell, b) >= 0;
+    }
+
+    /**
+     * La otra celda de la unidad con el dígito, si son exactamente 2; si no, -1.
+     */
+    private int conjugateIn(int unit, int cell, int b) {
+        int base = unit * SIZE;
+        int other = -1, count = 0;
+        for (int i = 0; i < SIZE; i++) {
+            int c = UNIT_CELLS[base + i];
+            if ((candidates[c] & b) != 0) {
+                count++;
+                if (c != cell) {
+                    other = c;
+                }
+            }
+        }
+        return count == 2 ? other : -1;
+    }
+
+    private void colorChain(int start, int b, int colorA, int colorB) {
+        int head = 0, tail = 0;
+        color[start] = colorA;
+        queue[tail++] = start;
+        while (head < tail) {
+            int cell = queue[head++];
+            int opposite = color[cell] == colorA ? colorB : colorA;
+            tail = colorConjugate(SudokuSolver.ROW_OF[cell], cell, b, opposite, tail);
+            tail = colorConjugate(SudokuSolver.COL_OF[cell], cell, b, opposite, tail);
+            tail = colorConjugate(SudokuSolver.BOX_OF[cell], cell, b, opposite, tail);
+        }
+    }
+
+    private int colorConjugate(int unit, int cell, int b, int opposite, int tail) {
+        int other = conjugateIn(unit, cell, b);
+        if (other >= 0 && color[other] == 0) {
+            color[other] = opposite;
+            queue[tail++] = other;
+        }
+        return tail;
+    }
+
+    private boolean applyColorWrap(int b, int colorA, int colorB) {
+        for (int cell = 0; cell < CELLS; cell++) {
+            int c = color[cell];
+            if (c != colorA && c != colorB) {
+                continue;
+            }
+            for (int i = cell * SudokuSolver.PEER_COUNT, end = i + SudokuSolver.PEER_COUNT; i < end; i++) {
+                if (color[PEERS[i]] == c) {
+                    // Este color se contradice: fuera el dígito de todas sus celdas
+                    boolean progress = false;
+                    for (int other = 0; other < CELLS; other++) {
+                        if (color[other] == c) {
+                            progress |= eliminate(other, b);
+                        }
+                    }
+                    return progress;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean applyColorTrap(int b, int colorA, int colorB) {
+        boolean progress = false;
+        for (int cell = 0; cell < CELLS; cell++) {
+            if ((candidates[cell] & b) == 0 || color[cell] == colorA || color[cell] == colorB) {
+                continue;
+            }
+            boolean seesA = false, seesB = false;
+            for (int i = cell * SudokuSolver.PEER_COUNT, end = i + SudokuSolver.PEER_COUNT; i < end; i++) {
+                int c = color[PEERS[i]];
+                seesA |= c == colorA;
+                seesB |= c == colorB;
+            }
+            if (seesA && seesB) {
+                progress |= eliminate(cell, b);
+            }
+        }
+        return progress;
+    }
+
+    // --- Utilidades ---
+
+    /**
+     * En qué posiciones (0-8) de la unidad cabe el dígito 'b' (máscara de 9 bits).
+     */
+    private int positions(int base, int b) {
+        int where = 0;
+        for (int i = 0; i < SIZE; i++) {
+            if ((candidates[UNIT_CELLS[base + i]] & b) != 0) {
+                where |= 1 << i;
+            }
+        }
+        return where;
+    }
+
+    private static int bit(int digit) {
+        return 1 << (digit - 1);
+    }
+}
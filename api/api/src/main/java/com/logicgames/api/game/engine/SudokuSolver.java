@@ -0,0 +1,259 @@
+package com.logicgames.api.game.engine;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Núcleo de restricciones del Sudoku basado en máscaras de bits.
+ *
+ * Cada fila, columna y caja guarda en un 'int' de 9 bits qué dígitos ya usa
+ * (bit 0 = dígito 1 ... bit 8 = dígito 9). Colocar un dígito es un OR y
+ * deshacerlo es un AND NOT, así que el backtracking no vuelve a escanear el
+ * tablero ni crea objetos.
+ *
+ * NO es thread-safe: cada hilo debe usar su propia instancia (ver
+ * SudokuGeneratorService, que guarda una por hilo).
+ */
+public final class SudokuSolver {
+
+    public static final int SIZE = 9;
+    public static final int CELLS = SIZE * SIZE;
+    public static final int ALL_DIGITS = 0x1FF;
+
+    // Unidades: 0-8 filas, 9-17 columnas, 18-26 cajas
+    static final int UNITS = 27;
+    static final int PEER_COUNT = 20;
+
+    // Tablas precalculadas: a qué fila/columna/caja pertenece cada celda
+    static final int[] ROW_OF = new int[CELLS];
+    static final int[] COL_OF = new int[CELLS];
+    static final int[] BOX_OF = new int[CELLS];
+    // Las 9 celdas de cada unidad (aplanadas de 9 en 9)
+    static final int[] UNIT_CELLS = new int[UNITS * SIZE];
+    // Las 20 vecinas de cada celda (misma fila, columna o caja), aplanadas de 20 en 20
+    static final int[] PEERS = new int[CELLS * PEER_COUNT];
+
+    // Órdenes de dígitos ya barajados (aplanados de 9 en 9) para no crear
+    // un 'stream' aleatorio por cada celda visitada
+    private static final int SHUFFLED_ORDERS = 256;
+    private static final byte[] DIGIT_ORDERS = new byte[SHUFFLED_ORDERS * SIZE];
+
+    static {
+        for (int cell = 0; cell < CELLS; cell++) {
+            int row = cell / SIZE;
+            int col = cell % SIZE;
+            ROW_OF[cell] = row;
+            COL_OF[cell] = SIZE + col;
+            BOX_OF[cell] = 2 * SIZE + (row / 3) * 3 + col / 3;
+        }
+        int[] filled = new int[UNITS];
+        for (int cell = 0; cell < CELLS; cell++) {
+            UNIT_CELLS[ROW_OF[cell] * SIZE + filled[ROW_OF[cell]]++] = cell;
+            UNIT_CELLS[COL_OF[cell] * SIZE + filled[COL_OF[cell]]++] = cell;
+            UNIT_CELLS[BOX_OF[cell] * SIZE + filled[BOX_OF[cell]]++] = cell;
+        }
+        for (int cell = 0; cell < CELLS; cell++) {
+            int n = 0;
+            for (int other = 0; other < CELLS; other++) {
+                if (other != cell && (ROW_OF[other] == ROW_OF[cell] || COL_OF[other] == COL_OF[cell]
+                        || BOX_OF[other] == BOX_OF[cell])) {
+                    PEERS[cell * PEER_COUNT + n++] = other;
+                }
+            }
+        }
+
+        Random seed = new Random();
+        for (int o = 0; o < SHUFFLED_ORDERS; o++) {
+            int base = o * SIZE;
+            for (int i = 0; i < SIZE; i++) {
+                DIGIT_ORDERS[base + i] = (byte) (i + 1);
+            }
+            for (int i = SIZE - 1; i > 0; i--) {
+                int j = seed.nextInt(i + 1);
+                byte tmp = DIGIT_ORDERS[base + i];
+                DIGIT_ORDERS[base + i] = DIGIT_ORDERS[base + j];
+                DIGIT_ORDERS[base + j] = tmp;
+            }
+        }
+    }
+
+    private final int[] cells = new int[CELLS];
+    private final int[] used = new int[UNITS];
+    // Para load(byte[]): se desempaqueta aquí (dos celdas por byte) y se carga
+    private final int[] unpacked = new int[CELLS];
+
+    /**
+     * Deja el tablero vacío.
+     */
+    public void clear() {
+        Arrays.fill(cells, 0);
+        Arrays.fill(used, 0);
+    }
+
+    /**
+     * Carga un tablero (0 = vacío). Devuelve false si las pistas ya se contradicen.
+     */
+    public boolean load(int[] board) {
+        clear();
+        for (int cell = 0; cell < CELLS; cell++) {
+            int digit = board[cell];
+            if (digit != 0 && !place(cell, digit)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Igual que load(int[]), pero leyendo directamente un tablero empaquetado
+     * (PackedBoard, como se guarda en la BBDD): sin pasar por el String.
+     */
+    public boolean load(byte[] packed) {
+        PackedBoard.unpackTo(packed, unpacked);
+        return load(unpacked);
+    }
+
+    /**
+     * Coloca un dígito si no rompe ninguna restricción.
+     */
+    public boolean place(int cell, int digit) {
+        int bit = 1 << (digit - 1);
+        int row = ROW_OF[cell], col = COL_OF[cell], box = BOX_OF[cell];
+        if (cells[cell] != 0 || ((used[row] | used[col] | used[box]) & bit) != 0) {
+            return false;
+        }
+        cells[cell] = digit;
+        used[row] |= bit;
+        used[col] |= bit;
+        used[box] |= bit;
+        return true;
+    }
+
+    /**
+     * Vacía una celda limpiando sus bits.
+     */
+    public void unplace(int cell) {
+        int digit = cells[cell];
+        if (digit == 0) {
+            return;
+        }
+        int mask = ~(1 << (digit - 1));
+        used[ROW_OF[cell]] &= mask;
+        used[COL_OF[cell]] &= mask;
+        used[BOX_OF[cell]] &= mask;
+        cells[cell] = 0;
+    }
+
+    /**
+     * Máscara de dígitos que todavía caben en la celda.
+     */
+    public int candidates(int cell) {
+        return ALL_DIGITS & ~(used[ROW_OF[cell]] | used[COL_OF[cell]] | used[BOX_OF[cell]]);
+    }
+
+    public int get(int cell) {
+        return cells[cell];
+    }
+
+    /**
+     * Rellena todas las celdas vacías con una solución aleatoria.
+     */
+    public boolean fillRandom(Random random) {
+        return fillFrom(0, random);
+    }
+
+    private boolean fillFrom(int cell, Random random) {
+        while (cell < CELLS && cells[cell] != 0) {
+            cell++;
+        }
+        if (cell == CELLS) {
+            return true;
+        }
+
+        int free = candidates(cell);
+        if (free == 0) {
+            return false;
+        }
+
+        int base = random.nextInt(SHUFFLED_ORDERS) * SIZE;
+        for (int i = 0; i < SIZE; i++) {
+            int digit = DIGIT_ORDERS[base + i];
+            if ((free & (1 << (digit - 1))) != 0) {
+                place(cell, digit);
+                if (fillFrom(cell + 1, random)) {
+                    return true;
+                }
+                unplace(cell);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Cuenta soluciones del tablero actual, parando al llegar a 'limit'.
+     * Con limit = 2 sirve para comprobar que el puzzle tiene solución única.
+     * Deja el tablero exactamente como estaba.
+     */
+    public int countSolutions(int limit) {
+        return countFrom(0, limit);
+    }
+
+    private int countFrom(int found, int limit) {
+        // Heurística MRV: elegimos la celda vacía con menos candidatos
+        int bestCell = -1;
+        int bestMask = 0;
+        int bestCount = SIZE + 1;
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (cells[cell] != 0) {
+                continue;
+            }
+            int mask = candidates(cell);
+            int count = Integer.bitCount(mask);
+            if (count < bestCount) {
+                if (count == 0) {
+                    return found; // callejón sin salida
+                }
+                bestCell = cell;
+                bestMask = mask;
+                bestCount = count;
+                if (count == 1) {
+                    break;
+                }
+            }
+        }
+        if (bestCell < 0) {
+            return found + 1; // tablero completo: una solución más
+        }
+
+        while (bestMask != 0 && found < limit) {
+            int bit = bestMask & -bestMask;
+            bestMask ^= bit;
+            place(bestCell, Integer.numberOfTrailingZeros(bit) + 1);
+            found = countFrom(found, limit);
+            unplace(bestCell);
+        }
+        return found;
+    }
+
+    /**
+     * Copia el tablero actual a un array plano de 81 posiciones.
+     */
+    public void copyTo(int[] target) {
+        System.arraycopy(cells, 0, target, 0, CELLS);
+    }
+
+    /**
+     * Convierte un tablero plano al formato de 81 caracteres de la API.
+     */
+    public static String toBoardString(int[] board) {
+        char[] chars = new char[CELLS];
+        for (int i = 0; i < CELLS; i++) {
+            chars[i] = (char) ('0' + board[i]);
+        }
+        return new String(chars);
+    }
+
+    public String toBoardString() {
+        return toBoardString(cells);
+    }
+}
@@ -0,0 +1,20 @@
+package com.logicgames.api.game.engine;
+
+/**
+ * Técnicas "humanas" de resolución, de la más fácil a la más difícil.
+ * La nota de un puzzle es la más difícil que hace falta (ver SudokuGrader).
+ */
+public enum Technique {
+    NAKED_SINGLE,        // una celda con un solo candidato
+    HIDDEN_SINGLE,       // un dígito que solo cabe en una celda de la unidad
+    NAKED_PAIR,          // dos celdas de una unidad con los mismos 2 candidatos
+    HIDDEN_PAIR,         // dos dígitos que solo caben en las mismas 2 celdas
+    LOCKED_CANDIDATES,   // "pointing"/"claiming": caja y fila/columna se recortan
+    X_WING,              // un dígito en 2 filas y las mismas 2 columnas (o al revés)
+    SINGLE_DIGIT_CHAIN,  // cadenas de un dígito por pares conjugados (coloreado simple)
+    TRIAL_AND_ERROR;     // nada de lo anterior basta: hay que probar y retroceder
+
+    public boolean isHarderThan(Technique other) {
+        return compareTo(other) > 0;
+    }
+}
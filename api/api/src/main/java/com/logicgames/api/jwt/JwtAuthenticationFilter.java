@@ -1,6 +1,8 @@
 package com.logicgames.api.jwt;
 
 
+import com.logicgames.api.user.AuthenticatedUser;
+import com.logicgames.api.user.User;
 import com.logicgames.api.user.UserRepository;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -9,20 +11,20 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends  OncePerRequestFilter {
 
     private  final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final UserRepository userRepository;
+    private final VerifiedTokenCache tokenCache;
 
 
     @Override
@@ -45,48 +47,59 @@ public class JwtAuthenticationFilter extends  OncePerRequestFilter {
 
         // 3. Extrae el "carnet" (token) (quitando "Bearer ")
         final String jwt = authHeader.substring(7);
-        final String userEmail;
-
-        try {
-            // 4. Usa el JwtService para "leer" el carnet y sacar el email
-            userEmail = jwtService.extractUsername(jwt);
-        } catch (Exception e) {
-            // Si el token está caducado o es falso, fallará.
-            System.err.println("Token JWT inválido: " + e.getMessage());
+
+        // 4. Si el usuario ya está autenticado, no hay nada que hacer
+        if (SecurityContextHolder.getContext().getAuthentication() != null) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        // 5. Si tenemos email Y el usuario NO está ya autenticado...
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-
-            // 6. Carga los detalles del usuario desde la BBDD
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-
-
-
-
-            // 7. ¡AHORA SÍ! Validamos el token
-            //Si el token NO es válido,  el 'if' se salta y el usuario no se autentica.
+        // 5. ¿Este carnet ya se verificó hace poco? Entonces ni parseo ni BBDD
+        AuthenticatedUser principal = tokenCache.get(jwt);
+
+        if (principal == null) {
+            final JwtService.ParsedToken parsed;
+            try {
+                // 6. Un único parseo: comprueba firma y caducidad y nos da el email
+                parsed = jwtService.validateAndParse(jwt);
+            } catch (Exception e) {
+                // Si el token está caducado o es falso, fallará.
+                System.err.println("Token JWT inválido: " + e.getMessage());
+                filterChain.doFilter(request, response);
+                return;
+            }
 
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            final String userEmail = parsed.subject();
+            if (userEmail == null) {
+                filterChain.doFilter(request, response);
+                return;
+            }
 
-                // 8. Creamos un "ticket de autenticación" para Spring Security
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                );
+            // 7. Comprueba contra la BBDD que el usuario sigue existiendo (solo la primera vez)
+            Optional<User> user = userRepository.findByEmail(userEmail);
+            if (user.isEmpty() || (parsed.userId() != null && !parsed.userId().equals(user.get().getId()))) {
+                // Usuario borrado (o borrado y vuelto a registrar: el id ya no es el del carnet)
+                System.err.println("Token JWT de un usuario que ya no existe: " + userEmail);
+                filterChain.doFilter(request, response);
+                return;
+            }
+            principal = AuthenticatedUser.of(user.get());
+            tokenCache.put(jwt, principal, parsed.expiresAt().toInstant());
+        }
 
-                authToken.setDetails(
-                        new WebAuthenticationDetailsSource().buildDetails(request)
-                );
+        // 8. Creamos un "ticket de autenticación" para Spring Security
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                principal,
+                null,
+                principal.getAuthorities()
+        );
 
-                // 9. ¡Ponemos el "ticket" en el "contexto de seguridad"!
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+        authToken.setDetails(
+                new WebAuthenticationDetailsSource().buildDetails(request)
+        );
 
-        }
+        // 9. ¡Ponemos el "ticket" en el "contexto de seguridad"!
+        SecurityContextHolder.getContext().setAuthentication(authToken);
 
         // 10. Dejamos pasar la petición (ahora autenticada)
         filterChain.doFilter(request, response);
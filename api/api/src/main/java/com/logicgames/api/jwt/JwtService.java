@@ -2,6 +2,7 @@ package com.logicgames.api.jwt;
 
 import com.logicgames.api.user.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -19,11 +20,29 @@ import java.util.function.Function;
 @Service
 public class JwtService {
 
-    // 1. La "llave secreta" para firmar los carnets.
-    // ¡Debería estar en un archivo de propiedades, pero esto funciona por ahora!
-    // Es una llave de 256 bits codificada en Base64.
-    @Value("${app.jwt.secret-key}")
-    private String SECRET_KEY;
+    // 1. La "llave secreta" para firmar los carnets, ya traducida (una vez, al arrancar).
+    // Viene de app.jwt.secret-key: una llave de 256 bits codificada en Base64.
+    private final Key signInKey;
+
+    // El "lector" de carnets: es inmutable y seguro entre hilos, así que se reutiliza
+    private final JwtParser parser;
+
+    // Claim con el id del usuario: los endpoints de juego lo usan sin consultar _user
+    static final String USER_ID_CLAIM = "uid";
+
+    /**
+     * Lo que nos interesa de un carnet válido: de quién es y hasta cuándo vale.
+     * ('userId' es null en los carnets emitidos antes de añadir el claim "uid")
+     */
+    public record ParsedToken(String subject, Long userId, Date expiresAt) {
+    }
+
+    public JwtService(@Value("${app.jwt.secret-key}") String secretKey) {
+        this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signInKey)
+                .build();
+    }
 
     // --- 1. ¡NUESTRA CONSTANTE DE TIEMPO! ---
     // 7 Días en milisegundos: 1000ms * 60s * 60m * 24h * 7d
@@ -36,13 +55,15 @@ public class JwtService {
     }
 
     public String generateToken(Map<String, Object> extraClaims, User user) {
+        Map<String, Object> claims = new HashMap<>(extraClaims); // Información extra (ej. roles)
+        claims.put(USER_ID_CLAIM, user.getId()); // Y el id, para no buscarlo por email
         return Jwts.builder()
-                .setClaims(extraClaims) // Información extra (ej. roles)
+                .setClaims(claims)
                 .setSubject(user.getEmail()) // El "dueño" del carnet (nuestro "username")
                 .setIssuedAt(new Date(System.currentTimeMillis())) // Cuándo se emitió
                 // Ahora usa nuestra constante de 7 días
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME_MS))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256) // La firma con nuestra llave
+                .signWith(signInKey, SignatureAlgorithm.HS256) // La firma con nuestra llave
                 .compact(); // Constrúyelo
     }
 
@@ -51,6 +72,20 @@ public class JwtService {
         return extractClaim(token, Claims::getSubject);
     }
 
+    /**
+     * ¡La entrada principal! Lee y valida el carnet en UNA sola pasada:
+     * si la firma es falsa o ha caducado, lanza excepción. Si no, devuelve
+     * el email y la caducidad juntos.
+     */
+    public ParsedToken validateAndParse(String token) {
+        Claims claims = extractAllClaims(token);
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        return new ParsedToken(
+                claims.getSubject(),
+                userId != null ? userId.longValue() : null,
+                claims.getExpiration());
+    }
+
     // 4. Métodos de ayuda para "leer" el carnet
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
         final Claims claims = extractAllClaims(token);
@@ -58,36 +93,17 @@ public class JwtService {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
+        return parser
                 .parseClaimsJws(token)
                 .getBody();
     }
 
-    // 5. Método de ayuda para "traducir" la llave secreta
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
     // Nuevo método: Comprueba si un token es válido
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
+        final ParsedToken parsed = validateAndParse(token);
         // Comprueba si el email del token coincide con el de la BBDD
         // Y si el token NO ha caducado
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
-
-    // Nuevo método: Comprueba si el token ha caducado
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    // Nuevo método: Extrae la fecha de expiración
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return parsed.subject().equals(userDetails.getUsername()) && parsed.expiresAt().after(new Date());
     }
 
 }
@@ -0,0 +1,90 @@
+package com.logicgames.api.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.logicgames.api.user.AuthenticatedUser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Caché de tokens YA VERIFICADOS (firma, caducidad y usuario existente).
+ *
+ * Con un acierto, el filtro no parsea el token ni toca la BBDD.
+ * - La clave es el SHA-256 del token (no guardamos el token en claro).
+ * - Acotada en tamaño y con TTL; una entrada nunca dura más que su token.
+ * - Guarda el AuthenticatedUser (id + email, inmutable), no la entidad.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final Cache<String, Entry> cache;
+
+    public VerifiedTokenCache(
+            @Value("${app.jwt.cache.max-size:10000}") long maxSize,
+            @Value("${app.jwt.cache.ttl-seconds:300}") long ttlSeconds
+    ) {
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        // Lo que antes llegue: el TTL o la caducidad del propio token
+                        Duration untilExpiry = Duration.between(Instant.now(), entry.tokenExpiresAt());
+                        return Math.max(0, Math.min(ttl.toNanos(), untilExpiry.toNanos()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration; // leer no alarga la vida
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * El usuario del token si ya se verificó hace poco; null si hay que verificarlo.
+     */
+    public AuthenticatedUser get(String token) {
+        Entry entry = cache.getIfPresent(hash(token));
+        return entry != null ? entry.principal() : null;
+    }
+
+    public void put(String token, AuthenticatedUser principal, Instant tokenExpiresAt) {
+        cache.put(hash(token), new Entry(principal, tokenExpiresAt));
+    }
+
+    /**
+     * Olvida todos los tokens de un usuario (ej. tras cambiar su contraseña):
+     * la siguiente petición vuelve a comprobarlo contra la BBDD.
+     * Recorre la caché, pero solo pasa en reseteos y verificaciones.
+     */
+    public void invalidateUser(String email) {
+        cache.asMap().values().removeIf(entry -> entry.principal().email().equals(email));
+    }
+
+    static String hash(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e); // (toda JVM lo trae)
+        }
+    }
+
+    private record Entry(AuthenticatedUser principal, Instant tokenExpiresAt) {
+    }
+}
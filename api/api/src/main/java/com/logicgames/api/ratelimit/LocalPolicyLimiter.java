@@ -0,0 +1,54 @@
+package com.logicgames.api.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.MathType;
+import io.github.bucket4j.Refill;
+import io.github.bucket4j.TimeMeter;
+import io.github.bucket4j.local.LockFreeBucket;
+
+/**
+ * Modo "memory": un cubo de Bucket4j por cliente, en una caché acotada.
+ * Cada instancia tiene los suyos (con dos réplicas, el doble de presupuesto)
+ * y se pierden al reiniciar.
+ */
+class LocalPolicyLimiter implements PolicyLimiter {
+
+    // La configuración es la misma para todos los cubos de la política: se comparte
+    private final BucketConfiguration configuration;
+    private final Cache<String, Bucket> buckets;
+
+    LocalPolicyLimiter(RateLimitProperties.Policy policy, int maxKeys) {
+        Bandwidth limit = Bandwidth.classic(policy.getCapacity(),
+                Refill.greedy(policy.getCapacity(), policy.getRefillPeriod()));
+        this.configuration = BucketConfiguration.builder().addLimit(limit).build();
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(policy.getRefillPeriod())
+                // El mantenimiento (echar cubos) en el propio hilo: en un flood casi todo
+                // son altas, y mandarlo a otro pool cuesta más que hacerlo
+                .executor(Runnable::run)
+                .build();
+    }
+
+    @Override
+    public RateLimitDecision tryConsume(String key) {
+        ConsumptionProbe probe = buckets.get(key, k -> newBucket()).tryConsumeAndReturnRemaining(1);
+        return probe.isConsumed()
+                ? RateLimitDecision.ALLOWED
+                : new RateLimitDecision(false, probe.getNanosToWaitForRefill());
+    }
+
+    @Override
+    public long trackedKeys() {
+        return buckets.estimatedSize();
+    }
+
+    private Bucket newBucket() {
+        return new LockFreeBucket(configuration, MathType.INTEGER_64_BITS, TimeMeter.SYSTEM_MILLISECONDS);
+    }
+}
@@ -0,0 +1,13 @@
+package com.logicgames.api.ratelimit;
+
+/**
+ * Los cubos de UNA política: en memoria (LocalPolicyLimiter) o compartidos
+ * entre instancias en Postgres (PostgresPolicyLimiter).
+ */
+interface PolicyLimiter {
+
+    RateLimitDecision tryConsume(String key);
+
+    // Clientes recordados en esta instancia (aproximado)
+    long trackedKeys();
+}
@@ -0,0 +1,107 @@
+package com.logicgames.api.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Modo "postgres": el presupuesto de cada cliente es UNO para todas las instancias
+ * (y sobrevive a los reinicios), guardado en rate_limit_buckets.
+ *
+ * Para no ir a la BBDD en cada petición, cada instancia se "alquila" unas pocas
+ * fichas del cubo compartido y las gasta en memoria durante un rato corto:
+ * - Alquiler = ~lease-fraction de la capacidad (al menos 1), válido lease-millis.
+ * - Las que sobran al caducar se devuelven en el siguiente alquiler.
+ * - Un "no" también se recuerda (hasta que haya ficha o caduque el alquiler):
+ *   un flood de peticiones rechazadas no llega a la BBDD.
+ * Si la BBDD falla, se sigue con cubos en memoria (LocalPolicyLimiter) hasta que vuelva.
+ */
+class PostgresPolicyLimiter implements PolicyLimiter {
+
+    private final String policyName;
+    private final RateLimitProperties.Policy policy;
+    private final RateLimitBucketStore store;
+    private final int leaseTokens;
+    private final long leaseNanos;
+    private final Cache<String, Lease> leases;
+    private final LocalPolicyLimiter fallback;
+    private final AtomicLong lastFailureLog = new AtomicLong();
+
+    PostgresPolicyLimiter(String policyName, RateLimitProperties.Policy policy, RateLimitBucketStore store,
+                          int maxKeys, RateLimitProperties.Distributed distributed) {
+        this.policyName = policyName;
+        this.policy = policy;
+        this.store = store;
+        this.leaseTokens = (int) Math.max(1, Math.floor(policy.getCapacity() * distributed.getLeaseFraction()));
+        this.leaseNanos = TimeUnit.MILLISECONDS.toNanos(distributed.getLeaseMillis());
+        this.leases = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(leaseNanos).multipliedBy(2))
+                .executor(Runnable::run)
+                .build();
+        this.fallback = new LocalPolicyLimiter(policy, maxKeys);
+    }
+
+    @Override
+    public RateLimitDecision tryConsume(String key) {
+        Lease lease = leases.get(key, k -> new Lease());
+        synchronized (lease) {
+            long now = System.nanoTime();
+            if (now - lease.deniedUntil < 0) {
+                return new RateLimitDecision(false, lease.retryAt - now);
+            }
+            boolean expired = now - lease.expiresAt >= 0;
+            if (lease.tokens > 0 && !expired) {
+                lease.tokens--;
+                return RateLimitDecision.ALLOWED;
+            }
+
+            // Toca ir al cubo compartido (devolviendo lo que sobró del alquiler caducado)
+            RateLimitBucketStore.Grant grant;
+            try {
+                grant = store.acquire(policyName, key, leaseTokens, expired ? lease.tokens : 0,
+                        policy.getCapacity(), policy.getRefillPeriod().toMillis());
+            } catch (RuntimeException e) {
+                logFailure(e);
+                return fallback.tryConsume(key);
+            }
+
+            if (grant.tokens() > 0) {
+                lease.tokens = grant.tokens() - 1;
+                lease.expiresAt = now + leaseNanos;
+                return RateLimitDecision.ALLOWED;
+            }
+            long waitNanos = TimeUnit.MILLISECONDS.toNanos(grant.millisToWait());
+            lease.tokens = 0;
+            lease.expiresAt = now;
+            lease.retryAt = now + waitNanos;
+            lease.deniedUntil = now + Math.min(waitNanos, leaseNanos);
+            return new RateLimitDecision(false, waitNanos);
+        }
+    }
+
+    @Override
+    public long trackedKeys() {
+        return leases.estimatedSize();
+    }
+
+    private void logFailure(RuntimeException e) {
+        long now = System.currentTimeMillis();
+        long last = lastFailureLog.get();
+        if (now - last > 60_000 && lastFailureLog.compareAndSet(last, now)) { // uno por minuto como mucho
+            System.err.println("-> RATE LIMIT: Sin acceso a rate_limit_buckets (" + e.getMessage()
+                    + "), " + policyName + " sigue en memoria");
+        }
+    }
+
+    // Fichas alquiladas por esta instancia para un cliente (tiempos en System.nanoTime)
+    private static class Lease {
+        int tokens;
+        long expiresAt = System.nanoTime();
+        long deniedUntil = System.nanoTime();
+        long retryAt;
+    }
+}
@@ -0,0 +1,97 @@
+package com.logicgames.api.ratelimit;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Cubos de fichas COMPARTIDOS entre instancias, en la tabla rate_limit_buckets
+ * (modo "postgres"). Sin bloqueos: se lee la fila y se escribe solo si nadie
+ * la ha tocado entretanto (compare-and-set sobre 'version'); si alguien se
+ * adelantó, se vuelve a leer y calcular.
+ *
+ * Las fechas son milisegundos del reloj de la instancia que escribe: un desfase
+ * entre réplicas solo adelanta o retrasa un poco el relleno (nunca da fichas de más
+ * de golpe: un "hueco" negativo cuenta como 0).
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitBucketStore {
+
+    // Compare-and-set fallidos seguidos antes de rendirse (solo con mucha contención)
+    private static final int MAX_CAS_ATTEMPTS = 5;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Resultado de pedir fichas: cuántas se concedieron y, si ninguna, cuánto esperar.
+     */
+    record Grant(int tokens, long millisToWait) {
+    }
+
+    /**
+     * Devuelve 'refund' fichas sin usar y se lleva hasta 'wanted' del cubo compartido
+     * de (policy, key), tras rellenarlo por el tiempo pasado.
+     */
+    Grant acquire(String policy, String key, int wanted, int refund, long capacity, long refillPeriodMillis) {
+        for (int attempt = 0; attempt < MAX_CAS_ATTEMPTS; attempt++) {
+            long now = System.currentTimeMillis();
+            List<BucketRow> rows = jdbcTemplate.query(
+                    "SELECT tokens, refilled_at, version FROM rate_limit_buckets WHERE policy = ? AND bucket_key = ?",
+                    (rs, i) -> new BucketRow(rs.getDouble(1), rs.getLong(2), rs.getLong(3)),
+                    policy, key);
+
+            if (rows.isEmpty()) {
+                // Cliente nuevo: cubo lleno. Si otra instancia lo crea a la vez, se reintenta como UPDATE
+                int granted = (int) Math.min(wanted, capacity);
+                int inserted = jdbcTemplate.update(
+                        "INSERT INTO rate_limit_buckets (policy, bucket_key, tokens, refilled_at, version) " +
+                                "VALUES (?, ?, ?, ?, 0) ON CONFLICT (policy, bucket_key) DO NOTHING",
+                        policy, key, (double) (capacity - granted), now);
+                if (inserted == 1) {
+                    return new Grant(granted, 0);
+                }
+                continue;
+            }
+
+            BucketRow row = rows.get(0);
+            double tokensPerMilli = capacity / (double) refillPeriodMillis;
+            double tokens = Math.min(capacity,
+                    row.tokens() + Math.max(0, now - row.refilledAt()) * tokensPerMilli + refund);
+            int granted = (int) Math.min(wanted, Math.floor(tokens));
+            if (granted == 0 && refund == 0) {
+                // Nada que escribir: solo decimos cuándo habrá una ficha
+                return new Grant(0, (long) Math.ceil((1 - tokens) / tokensPerMilli));
+            }
+
+            int updated = jdbcTemplate.update(
+                    "UPDATE rate_limit_buckets SET tokens = ?, refilled_at = ?, version = version + 1 " +
+                            "WHERE policy = ? AND bucket_key = ? AND version = ?",
+                    tokens - granted, now, policy, key, row.version());
+            if (updated == 1) {
+                return granted > 0
+                        ? new Grant(granted, 0)
+                        : new Grant(0, (long) Math.ceil((1 - tokens) / tokensPerMilli));
+            }
+            // Otra instancia escribió entre medias: otra vuelta con lo que haya ahora
+        }
+        throw new IllegalStateException("Demasiada contención en el cubo " + policy + "/" + key);
+    }
+
+    /**
+     * Borra como mucho 'limit' cubos de la política sin tocar desde antes de 'idleBefore'
+     * (ya estarían llenos: olvidarlos es lo mismo). Devuelve cuántos borró.
+     */
+    int deleteIdleBatch(String policy, long idleBefore, int limit) {
+        return jdbcTemplate.update(
+                "DELETE FROM rate_limit_buckets WHERE (policy, bucket_key) IN " +
+                        "(SELECT policy, bucket_key FROM rate_limit_buckets " +
+                        " WHERE policy = ? AND refilled_at < ? LIMIT ?)",
+                policy, idleBefore, limit);
+    }
+
+    private record BucketRow(double tokens, long refilledAt, long version) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.logicgames.api.ratelimit;
+
+/**
+ * Resultado de pedir una ficha: si pasa y, si no, cuánto falta para la siguiente.
+ */
+public record RateLimitDecision(boolean allowed, long nanosToWait) {
+
+    static final RateLimitDecision ALLOWED = new RateLimitDecision(true, 0);
+
+    public long retryAfterSeconds() {
+        return Math.max(1, (nanosToWait + 999_999_999L) / 1_000_000_000L);
+    }
+}
@@ -0,0 +1,53 @@
+package com.logicgames.api.ratelimit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Aplica las políticas de RateLimitProperties ANTES de llegar a los controladores
+ * (va en la cadena de seguridad, justo después de CORS: ver SecurityConfig).
+ * Sin ficha: 429 con Retry-After, sin tocar la BBDD ni hashear nada.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitingService rateLimitingService;
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        String policy = rateLimitingService.policyFor(request.getMethod(), request.getRequestURI());
+        if (policy == null) {
+            filterChain.doFilter(request, response); // endpoint sin límite
+            return;
+        }
+
+        RateLimitDecision decision = rateLimitingService.tryConsume(policy, request.getRemoteAddr());
+        if (decision.allowed()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(decision.retryAfterSeconds()));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("Has excedido el límite de intentos. Inténtalo de nuevo en "
+                + decision.retryAfterSeconds() + " segundos.");
+    }
+}
@@ -0,0 +1,56 @@
+package com.logicgames.api.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Límites de peticiones POR ENDPOINT (app.rate-limit.policies.login.capacity=..., etc.).
+ * Cada política es un "cubo" de 'capacity' fichas por cliente (IP) que se
+ * rellena entero cada 'refill-period'.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    // "memory": cubos en cada instancia. "postgres": un solo presupuesto para todas
+    private String mode = "memory";
+
+    // Clientes recordados como mucho POR POLÍTICA (la memoria no crece sin límite)
+    private int maxKeysPerPolicy = 100_000;
+
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+
+    private Distributed distributed = new Distributed();
+
+    public boolean isDistributed() {
+        return "postgres".equalsIgnoreCase(mode);
+    }
+
+    @Data
+    public static class Policy {
+        private String method = "POST";
+        // Ruta exacta, ej. /api/auth/login
+        private String path;
+        private long capacity = 10;
+        private Duration refillPeriod = Duration.ofHours(1);
+    }
+
+    /**
+     * Modo "postgres" (ver PostgresPolicyLimiter).
+     */
+    @Data
+    public static class Distributed {
+        // Cuánto vale un alquiler de fichas de una instancia
+        private long leaseMillis = 2000;
+        // Fichas por alquiler, como fracción de la capacidad (al menos 1)
+        private double leaseFraction = 0.1;
+        // Borrado de cubos sin tocar (ya llenos) de la tabla, en lotes
+        private int purgeBatchSize = 5000;
+    }
+}
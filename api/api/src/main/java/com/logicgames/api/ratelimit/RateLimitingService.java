@@ -0,0 +1,113 @@
+package com.logicgames.api.ratelimit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Un "cubo" de fichas por política y cliente, en cachés ACOTADAS.
+ *
+ * Antes era un ConcurrentHashMap que nunca olvidaba: con un escaneo o IPs
+ * falsas, la memoria crecía sin límite. Ahora, por política:
+ * - Como mucho 'max-keys-per-policy' clientes (Caffeine echa a los menos usados).
+ * - Un cubo sin tocar durante 'refill-period' se olvida: a esas alturas ya
+ *   estaría lleno otra vez, así que olvidarlo no regala fichas a nadie.
+ *
+ * Ojo: si la caché se llena, olvida cubos que aún no se habían rellenado
+ * (el cliente vuelve a empezar con el cubo lleno). Preferimos eso a quedarnos sin memoria.
+ *
+ * Dos modos (app.rate-limit.mode):
+ * - "memory" (por defecto): cada instancia con sus cubos (LocalPolicyLimiter).
+ * - "postgres": un solo presupuesto para todas las réplicas (PostgresPolicyLimiter).
+ */
+@Service
+public class RateLimitingService {
+
+    private final RateLimitProperties properties;
+    private final RateLimitBucketStore store;
+    private final Map<String, PolicyLimiter> limiters = new HashMap<>();
+    private final Map<String, String> policyByEndpoint = new HashMap<>();
+
+    // Solo en memoria (benchmarks y pruebas)
+    public RateLimitingService(RateLimitProperties properties) {
+        this(properties, null);
+    }
+
+    @Autowired
+    public RateLimitingService(RateLimitProperties properties, RateLimitBucketStore store) {
+        this.properties = properties;
+        this.store = store;
+        boolean distributed = properties.isDistributed() && store != null;
+        properties.getPolicies().forEach((name, policy) -> {
+            limiters.put(name, distributed
+                    ? new PostgresPolicyLimiter(name, policy, store, properties.getMaxKeysPerPolicy(),
+                            properties.getDistributed())
+                    : new LocalPolicyLimiter(policy, properties.getMaxKeysPerPolicy()));
+            policyByEndpoint.put(endpoint(policy.getMethod(), policy.getPath()), name);
+            System.out.println("-> RATE LIMIT: " + name + " = " + policy.getCapacity() + " cada "
+                    + policy.getRefillPeriod() + " (" + policy.getMethod() + " " + policy.getPath() + ")"
+                    + (distributed ? " [postgres]" : ""));
+        });
+    }
+
+    /**
+     * La política que aplica a esa petición; null si ninguna.
+     */
+    public String policyFor(String method, String path) {
+        return policyByEndpoint.get(endpoint(method, path));
+    }
+
+    /**
+     * Intenta gastar una ficha del cubo de 'key' (ej. la IP) en esa política.
+     */
+    public RateLimitDecision tryConsume(String policyName, String key) {
+        PolicyLimiter limiter = limiters.get(policyName);
+        if (limiter == null) {
+            throw new IllegalArgumentException("Política de rate limit desconocida: " + policyName);
+        }
+        return limiter.tryConsume(key);
+    }
+
+    /**
+     * Clientes recordados ahora mismo en esa política (aproximado).
+     */
+    public long trackedKeys(String policyName) {
+        PolicyLimiter limiter = limiters.get(policyName);
+        return limiter == null ? 0 : limiter.trackedKeys();
+    }
+
+    /**
+     * Modo "postgres": la tabla no tiene caché que eche a nadie, así que de vez en
+     * cuando se borran (en lotes) los cubos sin tocar en un 'refill-period': ya estaban llenos.
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.distributed.purge-interval-ms:600000}")
+    public void purgeIdleBuckets() {
+        if (!properties.isDistributed() || store == null) {
+            return;
+        }
+        int batchSize = properties.getDistributed().getPurgeBatchSize();
+        properties.getPolicies().forEach((name, policy) -> {
+            long idleBefore = System.currentTimeMillis() - policy.getRefillPeriod().toMillis();
+            try {
+                long deleted = 0;
+                int batch;
+                do {
+                    batch = store.deleteIdleBatch(name, idleBefore, batchSize);
+                    deleted += batch;
+                } while (batch == batchSize);
+                if (deleted > 0) {
+                    System.out.println("-> RATE LIMIT: " + deleted + " cubos sin uso borrados de " + name);
+                }
+            } catch (RuntimeException e) {
+                System.err.println("-> RATE LIMIT: Falló el borrado de cubos de " + name + ": " + e.getMessage());
+            }
+        });
+    }
+
+    private static String endpoint(String method, String path) {
+        return method.toUpperCase() + " " + path;
+    }
+}
@@ -0,0 +1,37 @@
+package com.logicgames.api.user;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * El usuario de una petición ya autenticada (lo pone JwtAuthenticationFilter).
+ *
+ * Solo lleva lo que necesitan los endpoints: el id (para buscar sus partidas
+ * por user_id sin pasar por _user) y el email. Es inmutable, así que se puede
+ * guardar en la caché de tokens y compartir entre hilos.
+ * (Los controladores lo reciben con @AuthenticationPrincipal)
+ */
+public record AuthenticatedUser(Long id, String email) implements UserDetails {
+
+    public static AuthenticatedUser of(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail());
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(); // (igual que User: de momento no hay roles)
+    }
+
+    @Override
+    public String getPassword() {
+        return ""; // la contraseña no hace falta para nada después del login
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+}
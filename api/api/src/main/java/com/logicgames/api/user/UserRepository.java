@@ -6,6 +6,8 @@ import java.time.LocalDateTime;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,7 +22,16 @@ public interface UserRepository  extends JpaRepository<User,Long>{
 
     Optional<User> findByResetToken(String token); //
 
+    /**
+     * Borra como mucho 'limit' usuarios sin verificar creados antes de la fecha
+     * (un lote = un DELETE corto, ver BatchedPurger). Devuelve cuántos borró.
+     * Los que tengan partidas se saltan: la FK haría fallar el lote entero.
+     */
     @Modifying
     @Transactional
-    void deleteByIsVerifiedFalseAndCreatedAtBefore(LocalDateTime cutOffDate);
+    @Query(value = "DELETE FROM _user WHERE id IN " +
+            "(SELECT u.id FROM _user u WHERE u.is_verified = false AND u.created_at < :cutOffDate " +
+            " AND NOT EXISTS (SELECT 1 FROM sudoku_game g WHERE g.user_id = u.id) LIMIT :limit)",
+            nativeQuery = true)
+    int deleteUnverifiedBatchBefore(@Param("cutOffDate") LocalDateTime cutOffDate, @Param("limit") int limit);
 }
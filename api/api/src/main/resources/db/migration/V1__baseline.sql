@@ -0,0 +1,90 @@
+-- =====================================================================
+-- V1: esquema de partida (el que hasta ahora creaba ddl-auto=update).
+--
+-- Todo lleva IF NOT EXISTS: en una BBDD nueva lo crea todo y en una que
+-- ya creó Hibernate no toca nada (ver spring.flyway.baseline-*).
+-- =====================================================================
+
+-- --- Usuarios ---
+CREATE SEQUENCE IF NOT EXISTS _user_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS _user (
+    id                        bigint       NOT NULL,
+    created_at                timestamp(6) NOT NULL,
+    email                     varchar(255) NOT NULL,
+    is_verified               boolean      DEFAULT false NOT NULL,
+    password                  varchar(255) NOT NULL,
+    reset_code                varchar(255),
+    reset_code_expiry         timestamp(6),
+    reset_token               varchar(255),
+    reset_token_expiry        timestamp(6),
+    verification_code         varchar(255),
+    verification_code_expiry  timestamp(6),
+    verification_token        varchar(255),
+    verification_token_expiry timestamp(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_user_email UNIQUE (email)
+);
+
+-- --- Partidas ---
+CREATE SEQUENCE IF NOT EXISTS sudoku_game_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS sudoku_game (
+    id                   bigint       NOT NULL,
+    board_string         varchar(81)  NOT NULL,
+    difficulty           varchar(255) NOT NULL,
+    game_mode            varchar(255) NOT NULL,
+    last_updated_at      timestamp(6) NOT NULL,
+    solution_string      varchar(81)  NOT NULL,
+    state                varchar(255) NOT NULL,
+    time_elapsed_seconds bigint       NOT NULL,
+    time_limit_seconds   bigint       NOT NULL,
+    user_id              bigint       NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_sudoku_game_user FOREIGN KEY (user_id) REFERENCES _user (id)
+);
+
+-- --- Pool de puzzles ---
+CREATE SEQUENCE IF NOT EXISTS pre_generated_puzzles_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS pre_generated_puzzles (
+    id              bigint       NOT NULL,
+    board_string    varchar(100) NOT NULL,
+    created_at      timestamp(6) NOT NULL,
+    difficulty      varchar(255) NOT NULL,
+    solution_string varchar(100) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+-- --- Métricas ---
+CREATE SEQUENCE IF NOT EXISTS game_metrics_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS game_metrics (
+    id              bigint       NOT NULL,
+    event_timestamp timestamp(6) NOT NULL,
+    event_type      varchar(255) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+-- (Si se particionó con db/partitioning/game_metric_rollups.sql, ya existe y se deja tal cual)
+CREATE TABLE IF NOT EXISTS game_metric_rollups (
+    id           bigint GENERATED BY DEFAULT AS IDENTITY,
+    bucket_start timestamp(6) NOT NULL,
+    event_count  bigint       NOT NULL,
+    event_type   varchar(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_game_metric_rollups_bucket UNIQUE (event_type, bucket_start)
+);
+CREATE INDEX IF NOT EXISTS idx_game_metric_rollups_bucket ON game_metric_rollups (bucket_start);
+
+CREATE TABLE IF NOT EXISTS game_metric_aggregates (
+    id           bigint GENERATED BY DEFAULT AS IDENTITY,
+    bucket_start timestamp(6) NOT NULL,
+    event_count  bigint       NOT NULL,
+    event_type   varchar(255) NOT NULL,
+    granularity  varchar(8)   NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_game_metric_aggregates_bucket UNIQUE (event_type, granularity, bucket_start)
+);
+CREATE INDEX IF NOT EXISTS idx_game_metric_aggregates_granularity_bucket
+    ON game_metric_aggregates (granularity, bucket_start);
@@ -0,0 +1,31 @@
+-- =====================================================================
+-- V2: índices para las consultas calientes de sudoku_game.
+-- =====================================================================
+
+-- Sin índice único, dos "load-or-create" a la vez podían dejar a un usuario
+-- con DOS partidas IN_PROGRESS (y entonces findByUserIdAndState falla siempre).
+-- Antes de prohibirlo, nos quedamos con la más reciente y el resto pasan a FAILED.
+UPDATE sudoku_game g
+SET state = 'FAILED'
+WHERE g.state = 'IN_PROGRESS'
+  AND EXISTS (
+      SELECT 1 FROM sudoku_game newer
+      WHERE newer.user_id = g.user_id
+        AND newer.state = 'IN_PROGRESS'
+        AND (newer.last_updated_at > g.last_updated_at
+             OR (newer.last_updated_at = g.last_updated_at AND newer.id > g.id)));
+
+-- 1. "La partida en curso" (load-or-create, save, complete, fail): como mucho UNA por usuario
+CREATE UNIQUE INDEX IF NOT EXISTS uk_sudoku_game_user_in_progress
+    ON sudoku_game (user_id) WHERE state = 'IN_PROGRESS';
+
+-- 2. Scoreboard: partidas de un usuario en un estado, ya ordenadas por tiempo (sin Sort)
+CREATE INDEX IF NOT EXISTS idx_sudoku_game_user_state_time
+    ON sudoku_game (user_id, state, time_elapsed_seconds);
+
+-- 3. Limpieza de partidas FAILED antiguas (GameCleanupService)
+CREATE INDEX IF NOT EXISTS idx_sudoku_game_state_updated
+    ON sudoku_game (state, last_updated_at);
+
+-- El que creaba Hibernate por (user_id, state) ya lo cubre el 2
+DROP INDEX IF EXISTS idx_sudoku_game_user_state;
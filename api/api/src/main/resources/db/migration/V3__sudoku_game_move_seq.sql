@@ -0,0 +1,5 @@
+-- =====================================================================
+-- V3: número de la última jugada aplicada (POST /api/sudoku/moves).
+-- Las partidas existentes empiezan en 0.
+-- =====================================================================
+ALTER TABLE sudoku_game ADD COLUMN IF NOT EXISTS last_move_seq bigint NOT NULL DEFAULT 0;
@@ -0,0 +1,23 @@
+-- =====================================================================
+-- V4: tableros empaquetados (4 bits por celda, 41 bytes; ver PackedBoard).
+--
+-- El hexadecimal del tablero empaquetado es el propio tablero + un '0',
+-- así que las filas existentes se convierten con decode(... || '0', 'hex').
+-- (Las columnas mantienen el nombre *_string: la entidad sigue viendo texto)
+-- =====================================================================
+
+ALTER TABLE sudoku_game
+    ALTER COLUMN board_string    TYPE bytea USING decode(board_string || '0', 'hex'),
+    ALTER COLUMN solution_string TYPE bytea USING decode(solution_string || '0', 'hex'),
+    ADD CONSTRAINT ck_sudoku_game_packed
+        CHECK (octet_length(board_string) = 41 AND octet_length(solution_string) = 41);
+
+-- Pistas del puzzle (81 bits). Las partidas antiguas no guardaban el puzzle
+-- original, así que se quedan a NULL.
+ALTER TABLE sudoku_game ADD COLUMN IF NOT EXISTS given_mask bytea;
+
+ALTER TABLE pre_generated_puzzles
+    ALTER COLUMN board_string    TYPE bytea USING decode(board_string || '0', 'hex'),
+    ALTER COLUMN solution_string TYPE bytea USING decode(solution_string || '0', 'hex'),
+    ADD CONSTRAINT ck_pre_generated_puzzles_packed
+        CHECK (octet_length(board_string) = 41 AND octet_length(solution_string) = 41);
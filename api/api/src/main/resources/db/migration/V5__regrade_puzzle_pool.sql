@@ -0,0 +1,7 @@
+-- =====================================================================
+-- V5: la dificultad ya no son los huecos sino la técnica más difícil que
+-- hace falta (SudokuGrader). Los puzzles del pool se generaron sin corregir,
+-- así que se vacía: el job elástico lo vuelve a llenar solo con puzzles
+-- de la banda de cada dificultad.
+-- =====================================================================
+DELETE FROM pre_generated_puzzles;
@@ -0,0 +1,27 @@
+-- =====================================================================
+-- V6: bandeja de salida de emails (outbox).
+--
+-- EmailService solo inserta aquí, en la MISMA transacción que el registro
+-- o el reseteo: si esa transacción falla, el email no sale. El envío real
+-- lo hace EmailOutboxDispatcher en segundo plano, con reintentos.
+-- =====================================================================
+CREATE SEQUENCE IF NOT EXISTS email_jobs_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS email_jobs (
+    id              bigint        NOT NULL,
+    to_email        varchar(255)  NOT NULL,
+    subject         varchar(255)  NOT NULL,
+    html_body       text          NOT NULL,
+    debug_info      text,
+    status          varchar(16)   NOT NULL,
+    attempts        integer       NOT NULL DEFAULT 0,
+    next_attempt_at timestamp(6)  NOT NULL,
+    created_at      timestamp(6)  NOT NULL,
+    sent_at         timestamp(6),
+    last_error      varchar(1000),
+    PRIMARY KEY (id)
+);
+
+-- El dispatcher solo busca los PENDING que ya toca enviar, por orden de turno
+CREATE INDEX IF NOT EXISTS idx_email_jobs_pending
+    ON email_jobs (next_attempt_at) WHERE status = 'PENDING';
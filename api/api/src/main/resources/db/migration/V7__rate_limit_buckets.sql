@@ -0,0 +1,19 @@
+-- =====================================================================
+-- V7: cubos de rate limit compartidos entre instancias
+-- (solo se usa con app.rate-limit.mode=postgres).
+--
+-- Una fila por política y cliente. Se actualiza con compare-and-set sobre
+-- 'version' (ver RateLimitBucketStore); las fechas son milisegundos epoch.
+-- =====================================================================
+CREATE TABLE IF NOT EXISTS rate_limit_buckets (
+    policy      varchar(64)      NOT NULL,
+    bucket_key  varchar(255)     NOT NULL,
+    tokens      double precision NOT NULL,
+    refilled_at bigint           NOT NULL,
+    version     bigint           NOT NULL,
+    PRIMARY KEY (policy, bucket_key)
+);
+
+-- Borrado de los cubos sin tocar (RateLimitingService.purgeIdleBuckets)
+CREATE INDEX IF NOT EXISTS idx_rate_limit_buckets_refilled
+    ON rate_limit_buckets (policy, refilled_at);
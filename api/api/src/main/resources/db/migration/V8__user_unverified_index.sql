@@ -0,0 +1,8 @@
+-- =====================================================================
+-- V8: índice para la limpieza de usuarios sin verificar (GameCleanupService).
+-- =====================================================================
+
+-- Cada lote busca "sin verificar y creado antes de X": sin índice, un seq scan
+-- de _user por lote. Parcial: los verificados (casi todos) no ocupan nada.
+CREATE INDEX IF NOT EXISTS idx_user_unverified_created
+    ON _user (created_at) WHERE is_verified = false;
@@ -0,0 +1,11 @@
+-- =====================================================================
+-- V9: limpieza de email_jobs (EmailJobRetention).
+-- =====================================================================
+
+-- Los terminados (enviados o perdidos) ya no guardan el cuerpo (código y enlace
+-- en claro): se vacían los que ya había
+UPDATE email_jobs SET html_body = '', debug_info = NULL WHERE status IN ('SENT', 'FAILED');
+
+-- La purga busca los terminados (SENT/FAILED) más antiguos que la retención
+CREATE INDEX IF NOT EXISTS idx_email_jobs_finished
+    ON email_jobs (created_at) WHERE status <> 'PENDING';
@@ -0,0 +1,54 @@
+-- =====================================================================
+-- game_metric_rollups PARTICIONADA POR DÍA (opcional)
+--
+-- Se ejecuta UNA vez, a mano y con el backend parado. Después hay que
+-- activar app.metrics.partitioning.enabled=true: GameMetricPartitionMaintainer
+-- crea las particiones de los próximos días y tira las que salen de la
+-- retención (DROP TABLE en vez de DELETE fila a fila).
+-- =====================================================================
+BEGIN;
+
+ALTER TABLE game_metric_rollups RENAME TO game_metric_rollups_old;
+ALTER INDEX IF EXISTS idx_game_metric_rollups_bucket RENAME TO idx_game_metric_rollups_old_bucket;
+ALTER TABLE game_metric_rollups_old RENAME CONSTRAINT uk_game_metric_rollups_bucket TO uk_game_metric_rollups_old_bucket;
+
+-- En una tabla particionada la clave primaria y los UNIQUE deben incluir
+-- la columna de partición (bucket_start)
+CREATE TABLE game_metric_rollups (
+    id           bigserial    NOT NULL,
+    event_type   varchar(255) NOT NULL,
+    bucket_start timestamp(6) NOT NULL,
+    event_count  bigint       NOT NULL,
+    PRIMARY KEY (id, bucket_start),
+    CONSTRAINT uk_game_metric_rollups_bucket UNIQUE (event_type, bucket_start)
+) PARTITION BY RANGE (bucket_start);
+
+CREATE INDEX idx_game_metric_rollups_bucket ON game_metric_rollups (bucket_start);
+
+-- Por si llega algo fuera de las particiones diarias (ej. un reloj desajustado)
+CREATE TABLE game_metric_rollups_default PARTITION OF game_metric_rollups DEFAULT;
+
+-- Una partición por cada día con datos y los 3 siguientes
+-- (mismo nombre que GameMetricPartitionMaintainer: game_metric_rollups_pYYYYMMDD)
+DO $$
+DECLARE
+    day date;
+BEGIN
+    FOR day IN
+        SELECT generate_series(
+            COALESCE((SELECT min(bucket_start)::date FROM game_metric_rollups_old), current_date),
+            current_date + 3,
+            interval '1 day')::date
+    LOOP
+        EXECUTE format('CREATE TABLE game_metric_rollups_p%s PARTITION OF game_metric_rollups '
+                       'FOR VALUES FROM (%L) TO (%L)',
+                       to_char(day, 'YYYYMMDD'), day, day + 1);
+    END LOOP;
+END $$;
+
+INSERT INTO game_metric_rollups (event_type, bucket_start, event_count)
+SELECT event_type, bucket_start, event_count FROM game_metric_rollups_old;
+
+DROP TABLE game_metric_rollups_old;
+
+COMMIT;
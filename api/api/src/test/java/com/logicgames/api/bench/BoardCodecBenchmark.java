@@ -0,0 +1,120 @@
+package com.logicgames.api.bench;
+
+import com.logicgames.api.game.engine.PackedBoard;
+import com.logicgames.api.game.engine.SudokuSolver;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tablero como texto (81 caracteres) frente a empaquetado (PackedBoard, 41 bytes).
+ *
+ *  - readCells*:  recorrer las 81 celdas (charAt frente a nibbles).
+ *  - solverLoad*: cargar el solver (parsear el String frente a leer los bytes).
+ *  - equals*:     comparar tablero y solución.
+ *  - pack/unpack: lo que cuesta el AttributeConverter en cada lectura/escritura.
+ *
+ * Antes de JMH, main() imprime lo que ocupa cada formato en Postgres
+ * (pg_column_size, con un PostgreSQL embebido).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BoardCodecBenchmark {
+
+    private static final String BOARD = "530070000600195000098000060800060003400803001700020006060000280000419005000080079";
+
+    private final String board = BOARD;
+    private final String boardCopy = new String(BOARD.toCharArray());
+    private final byte[] packed = PackedBoard.pack(BOARD);
+    private final byte[] packedCopy = PackedBoard.pack(BOARD);
+    private final int[] cells = new int[SudokuSolver.CELLS];
+    private final SudokuSolver solver = new SudokuSolver();
+
+    @Benchmark
+    public int readCellsString() {
+        int sum = 0;
+        for (int cell = 0; cell < SudokuSolver.CELLS; cell++) {
+            sum += board.charAt(cell) - '0';
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int readCellsPacked() {
+        int sum = 0;
+        for (int cell = 0; cell < SudokuSolver.CELLS; cell++) {
+            sum += PackedBoard.get(packed, cell);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public boolean solverLoadString() {
+        for (int cell = 0; cell < SudokuSolver.CELLS; cell++) {
+            cells[cell] = board.charAt(cell) - '0';
+        }
+        return solver.load(cells);
+    }
+
+    @Benchmark
+    public boolean solverLoadPacked() {
+        return solver.load(packed);
+    }
+
+    @Benchmark
+    public boolean equalsString() {
+        return board.equals(boardCopy);
+    }
+
+    @Benchmark
+    public boolean equalsPacked() {
+        return Arrays.equals(packed, packedCopy);
+    }
+
+    @Benchmark
+    public byte[] pack() {
+        return PackedBoard.pack(board);
+    }
+
+    @Benchmark
+    public String unpack() {
+        return PackedBoard.unpack(packed);
+    }
+
+    private static void printStorageSizes() throws Exception {
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.start();
+             Connection connection = postgres.getPostgresDatabase().getConnection();
+             Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT pg_column_size('" + BOARD + "'::varchar(100)), "
+                     + "pg_column_size(decode('" + BOARD + "' || '0', 'hex'))")) {
+            rs.next();
+            System.out.println("Bytes por tablero en Postgres: varchar = " + rs.getInt(1) + ", bytea empaquetado = " + rs.getInt(2));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        printStorageSizes();
+        new Runner(new OptionsBuilder()
+                .include(BoardCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,68 @@
+package com.logicgames.api.bench;
+
+import com.logicgames.api.game.SudokuGeneratorService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Puzzles por segundo y por núcleo (1 hilo): generador original contra el
+ * nuevo (máscaras de bits + excavado con solución única).
+ *
+ * Ejecutar:
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.logicgames.api.bench.GeneratorBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+public class GeneratorBenchmark {
+
+    @Param({"EASY", "MEDIUM", "HARD"})
+    private String difficulty;
+
+    private SudokuGeneratorService generator;
+    private LegacySudokuGenerator legacy;
+    private int removals;
+
+    @Setup
+    public void setUp() {
+        generator = new SudokuGeneratorService();
+        legacy = new LegacySudokuGenerator();
+        removals = "EASY".equals(difficulty) ? 33 : "HARD".equals(difficulty) ? 53 : 43;
+    }
+
+    @Benchmark
+    public Object legacyGenerator() {
+        return legacy.generate(removals);
+    }
+
+    @Benchmark
+    public Object uniqueBitmaskGenerator() {
+        return generator.generateSudokuSync(difficulty);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(GeneratorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
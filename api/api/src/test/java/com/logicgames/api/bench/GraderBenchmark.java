@@ -0,0 +1,89 @@
+package com.logicgames.api.bench;
+
+import com.logicgames.api.game.SudokuGeneratorService;
+import com.logicgames.api.game.engine.PackedBoard;
+import com.logicgames.api.game.engine.SudokuGrader;
+import com.logicgames.api.game.engine.Technique;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Por segundo y por núcleo (1 hilo):
+ *
+ *  - grade:          candidatos corregidos con SudokuGrader (los mismos
+ *                    candidatos sin filtrar que corrige la generación).
+ *  - generateInBand: puzzles generados DENTRO de la banda de su dificultad
+ *                    (candidatos + corrección + los descartes).
+ *
+ * En el setup imprime cómo se reparten las notas de los candidatos.
+ *
+ * Ejecutar:
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.logicgames.api.bench.GraderBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+public class GraderBenchmark {
+
+    private static final int CANDIDATES = 1024;
+
+    @Param({"EASY", "MEDIUM", "HARD"})
+    private String difficulty;
+
+    private SudokuGeneratorService generator;
+    private SudokuGrader grader;
+    private byte[][] candidates;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        generator = new SudokuGeneratorService();
+        grader = new SudokuGrader();
+        candidates = new byte[CANDIDATES][];
+        Map<Technique, Integer> grades = new EnumMap<>(Technique.class);
+        for (int i = 0; i < CANDIDATES; i++) {
+            candidates[i] = PackedBoard.pack(generator.generateCandidate(difficulty).getBoardString());
+            grades.merge(grader.grade(candidates[i]), 1, Integer::sum);
+        }
+        System.out.println("\nNotas de " + CANDIDATES + " candidatos " + difficulty + ": " + grades);
+    }
+
+    @Benchmark
+    public Technique grade() {
+        next = (next + 1) & (CANDIDATES - 1);
+        return grader.grade(candidates[next]);
+    }
+
+    @Benchmark
+    public Object generateInBand() {
+        return generator.generateSudokuSync(difficulty);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(GraderBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
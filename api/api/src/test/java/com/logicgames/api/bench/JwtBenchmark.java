@@ -0,0 +1,93 @@
+package com.logicgames.api.bench;
+
+import com.logicgames.api.jwt.JwtService;
+import com.logicgames.api.user.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens validados por segundo y por núcleo (1 hilo):
+ *  - legacyFilterPath: lo que hacía el filtro antes (extractUsername + isTokenValid
+ *    = 3 parseos, y cada uno traduce la llave Base64 y crea un parser nuevo).
+ *  - legacySingleParse: un solo parseo, pero con llave y parser nuevos.
+ *  - validateAndParse: un parseo con la llave y el parser creados al arrancar.
+ *
+ * Ejecutar:
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.logicgames.api.bench.JwtBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+public class JwtBenchmark {
+
+    private String secretKey;
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        secretKey = Encoders.BASE64.encode(Keys.secretKeyFor(io.jsonwebtoken.SignatureAlgorithm.HS256).getEncoded());
+        jwtService = new JwtService(secretKey);
+        token = jwtService.generateToken(User.builder().email("bench@logicgames.com").build());
+    }
+
+    @Benchmark
+    public boolean legacyFilterPath() {
+        String username = legacyClaims(token).getSubject();              // extractUsername
+        boolean sameUser = legacyClaims(token).getSubject().equals(username); // isTokenValid...
+        return sameUser && !legacyClaims(token).getExpiration().before(new Date()); // ...y isTokenExpired
+    }
+
+    @Benchmark
+    public Object legacySingleParse() {
+        Claims claims = legacyClaims(token);
+        return new JwtService.ParsedToken(claims.getSubject(), null, claims.getExpiration());
+    }
+
+    @Benchmark
+    public Object validateAndParse() {
+        return jwtService.validateAndParse(token);
+    }
+
+    // Copia del extractAllClaims original
+    private Claims legacyClaims(String jwt) {
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(jwt)
+                .getBody();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,93 @@
+package com.logicgames.api.bench;
+
+import java.util.Random;
+
+/**
+ * Copia del generador original (int[][] + isValid + removeCells sin
+ * comprobar unicidad). Solo existe para comparar en los benchmarks.
+ */
+final class LegacySudokuGenerator {
+
+    private static final Random RANDOM = new Random();
+
+    private static final int BOARD_SIZE = 9;
+    private static final int SUB_GRID_SIZE = 3;
+
+    String[] generate(int numRemoves) {
+        int[][] board = new int[BOARD_SIZE][BOARD_SIZE];
+        if (!solve(board, 0, 0)) {
+            throw new IllegalStateException("No se pudo generar un sudoku válido.");
+        }
+        String solutionString = gridToString(board);
+        removeCells(board, numRemoves);
+        return new String[]{gridToString(board), solutionString};
+    }
+
+    private static boolean solve(int[][] board, int row, int col) {
+        if (col == BOARD_SIZE) {
+            col = 0;
+            row++;
+            if (row == BOARD_SIZE) {
+                return true;
+            }
+        }
+
+        if (board[row][col] != 0) {
+            return solve(board, row, col + 1);
+        }
+
+        for (int num : RANDOM.ints(1, BOARD_SIZE + 1).distinct().limit(BOARD_SIZE).toArray()) {
+            if (isValid(board, row, col, num)) {
+                board[row][col] = num;
+                if (solve(board, row, col + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        board[row][col] = 0;
+        return false;
+    }
+
+    private static boolean isValid(int[][] board, int row, int col, int num) {
+        for (int i = 0; i < BOARD_SIZE; i++) {
+            if (board[row][i] == num || board[i][col] == num) {
+                return false;
+            }
+        }
+
+        int r = row - row % SUB_GRID_SIZE;
+        int c = col - col % SUB_GRID_SIZE;
+        for (int i = r; i < r + SUB_GRID_SIZE; i++) {
+            for (int j = c; j < c + SUB_GRID_SIZE; j++) {
+                if (board[i][j] == num) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private static void removeCells(int[][] board, int numRemoves) {
+        for (int i = 0; i < numRemoves; i++) {
+            int row = RANDOM.nextInt(BOARD_SIZE);
+            int col = RANDOM.nextInt(BOARD_SIZE);
+            if (board[row][col] != 0) {
+                board[row][col] = 0;
+            } else {
+                i--;
+            }
+        }
+    }
+
+    private static String gridToString(int[][] grid) {
+        StringBuilder sb = new StringBuilder(81);
+        for (int i = 0; i < 9; i++) {
+            for (int j = 0; j < 9; j++) {
+                sb.append(grid[i][j]);
+            }
+        }
+        return sb.toString();
+    }
+}
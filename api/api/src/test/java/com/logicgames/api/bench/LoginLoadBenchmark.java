@@ -0,0 +1,181 @@
+package com.logicgames.api.bench;
+
+import com.logicgames.api.config.BoundedPasswordEncoder;
+import com.logicgames.api.config.PasswordHashingBusyException;
+import com.logicgames.api.game.engine.BoardValidator;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Logins por segundo con un p99 FIJO (carga en bucle abierto: las peticiones
+ * llegan a ritmo constante, respondamos o no, como en producción).
+ *
+ * Simula Tomcat (200 hilos, cola sin límite) y mide en cada escalón de ritmo:
+ *  - p99 de los logins aceptados (desde que "llegan", no desde que empiezan),
+ *  - logins rechazados con 429,
+ *  - p99 de una petición de partida (BoardValidator.check cada 5 ms) que
+ *    compite por la CPU con los logins.
+ *
+ * Dos modos:
+ *  - inline:  el matches() de BCrypt en el propio hilo de Tomcat (lo de antes).
+ *  - bounded: BoundedPasswordEncoder (hilos = la mitad de los núcleos) con la cola
+ *             dimensionada para el p99 pedido: (cola / hilos + 1) * coste <= p99.
+ *
+ * Sube el ritmo un 25% por escalón hasta pasarse del p99 y da el último que cumple.
+ * No es JMH: JMH mide en bucle cerrado y no da percentiles a ritmo fijo.
+ *
+ * Ejecutar:
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.logicgames.api.bench.LoginLoadBenchmark [coste] [p99-ms] [segundos-por-escalón]
+ */
+public class LoginLoadBenchmark {
+
+    private static final String PASSWORD = "contraseña-de-prueba";
+    private static final String BOARD = "534678912672195348198342567859761423426853791713924856961537284287419635345286179";
+    private static final int TOMCAT_THREADS = 200;
+    private static final long PROBE_INTERVAL_NANOS = 5_000_000L;
+
+    public static void main(String[] args) throws Exception {
+        int strength = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        long p99TargetMillis = args.length > 1 ? Long.parseLong(args[1]) : 250;
+        int stepSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        BCryptPasswordEncoder inline = new BCryptPasswordEncoder(strength);
+        String hash = inline.encode(PASSWORD);
+        for (int i = 0; i < 5; i++) {
+            inline.matches(PASSWORD, hash); // calentamiento
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            inline.matches(PASSWORD, hash);
+        }
+        double hashMillis = (System.nanoTime() - start) / 5 / 1e6;
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        int threads = Math.max(1, cores / 2);
+        int queueCapacity = (int) Math.max(1, threads * (p99TargetMillis / hashMillis - 1));
+        System.out.printf("Coste %d: %.1f ms por hash, %d núcleo(s). Objetivo p99 <= %d ms%n",
+                strength, hashMillis, cores, p99TargetMillis);
+        System.out.printf("bounded: %d hilo(s), cola de %d (app.security.hashing.queue-capacity)%n%n",
+                threads, queueCapacity);
+
+        double bestInline = ramp("inline", inline, hash, p99TargetMillis, stepSeconds);
+        BoundedPasswordEncoder bounded = new BoundedPasswordEncoder(strength, threads, queueCapacity);
+        double bestBounded = ramp("bounded", bounded, hash, p99TargetMillis, stepSeconds);
+        bounded.shutdown();
+
+        System.out.printf("%nLogins/s con p99 <= %d ms:  inline %.1f   bounded %.1f%n",
+                p99TargetMillis, bestInline, bestBounded);
+    }
+
+    /**
+     * Sube el ritmo hasta pasarse del p99; devuelve los logins/s aceptados
+     * en el último escalón que lo cumplía.
+     */
+    private static double ramp(String mode, PasswordEncoder encoder, String hash,
+                               long p99TargetMillis, int stepSeconds) throws InterruptedException {
+        System.out.printf("%-8s %9s %9s %9s %10s %11s%n",
+                mode, "ofrecido", "ok/s", "429/s", "p99 login", "p99 partida");
+        double best = 0;
+        for (double rate = 2; ; rate *= 1.25) {
+            Step step = runStep(encoder, hash, rate, stepSeconds);
+            System.out.printf("%-8s %9.1f %9.1f %9.1f %8.0fms %9.1fms%n", "", rate,
+                    step.accepted / (double) stepSeconds, step.rejected / (double) stepSeconds,
+                    step.loginP99Millis, step.probeP99Millis);
+            if (step.loginP99Millis > p99TargetMillis || step.accepted == 0) {
+                return best;
+            }
+            best = Math.max(best, step.accepted / (double) stepSeconds);
+            if (step.rejected > step.accepted) {
+                return best; // ya rechaza más de lo que acepta: la capacidad es esta
+            }
+        }
+    }
+
+    private static Step runStep(PasswordEncoder encoder, String hash, double rate, int seconds)
+            throws InterruptedException {
+        ExecutorService tomcat = new ThreadPoolExecutor(TOMCAT_THREADS, TOMCAT_THREADS,
+                0, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        int maxLogins = (int) (rate * seconds) + 1;
+        long[] loginLatencies = new long[maxLogins];
+        long[] probeLatencies = new long[(int) (seconds * 1_000_000_000L / PROBE_INTERVAL_NANOS) + 1];
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger probes = new AtomicInteger();
+        BoardValidator validator = new BoardValidator();
+
+        long interval = (long) (1_000_000_000L / rate);
+        long begin = System.nanoTime();
+        long end = begin + seconds * 1_000_000_000L;
+        long nextLogin = begin;
+        long nextProbe = begin;
+        int logins = 0;
+        while (true) {
+            long now = System.nanoTime();
+            if (now >= end) {
+                break;
+            }
+            if (now >= nextLogin && logins < maxLogins) {
+                long arrival = nextLogin;
+                tomcat.execute(() -> {
+                    try {
+                        encoder.matches(PASSWORD, hash);
+                        loginLatencies[accepted.getAndIncrement()] = System.nanoTime() - arrival;
+                    } catch (PasswordHashingBusyException e) {
+                        rejected.incrementAndGet();
+                    }
+                });
+                logins++;
+                nextLogin += interval;
+            }
+            if (now >= nextProbe) {
+                long arrival = nextProbe;
+                tomcat.execute(() -> {
+                    synchronized (validator) {
+                        validator.check(BOARD);
+                    }
+                    int i = probes.getAndIncrement();
+                    if (i < probeLatencies.length) {
+                        probeLatencies[i] = System.nanoTime() - arrival;
+                    }
+                });
+                nextProbe += PROBE_INTERVAL_NANOS;
+            }
+            LockSupport.parkNanos(Math.max(0, Math.min(nextLogin, nextProbe) - System.nanoTime()));
+        }
+        // Lo que sigue en cola también cuenta (si no, el p99 saldría mejor de lo que es)
+        tomcat.shutdown();
+        tomcat.awaitTermination(2, TimeUnit.MINUTES);
+
+        Step step = new Step();
+        step.accepted = accepted.get();
+        step.rejected = rejected.get();
+        step.loginP99Millis = p99(loginLatencies, step.accepted);
+        step.probeP99Millis = p99(probeLatencies, Math.min(probes.get(), probeLatencies.length));
+        return step;
+    }
+
+    private static double p99(long[] latencies, int count) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return sorted[Math.min(count - 1, (int) Math.ceil(count * 0.99) - 1)] / 1e6;
+    }
+
+    private static class Step {
+        int accepted;
+        int rejected;
+        double loginP99Millis;
+        double probeP99Millis;
+    }
+}
@@ -0,0 +1,137 @@
+package com.logicgames.api.bench;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filas por segundo insertadas en pre_generated_puzzles con las mismas
+ * sentencias que emite Hibernate:
+ *
+ *  - rowByRow: un 'save' por puzzle (INSERT de una fila, commit por fila).
+ *  - batched:  'saveAll' con hibernate.jdbc.batch_size=50, un nextval por
+ *              cada 50 ids (secuencia pooled) y reWriteBatchedInserts=true.
+ *
+ * Usa un PostgreSQL embebido (sin Docker). Para medir contra otro servidor:
+ *   -Dbench.jdbcUrl=jdbc:postgresql://localhost:5432/db -Dbench.user=... -Dbench.password=...
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersistenceBenchmark {
+
+    private static final int ROWS = 50;
+    private static final String BOARD = "530070000600195000098000060800060003400803001700020006060000280000419005000080079";
+
+    private EmbeddedPostgres postgres;
+    private Connection rowByRow;
+    private Connection batched;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String url = System.getProperty("bench.jdbcUrl");
+        String user = System.getProperty("bench.user", "postgres");
+        String password = System.getProperty("bench.password", "postgres");
+        if (url == null) {
+            postgres = EmbeddedPostgres.start();
+            url = postgres.getJdbcUrl("postgres", "postgres");
+        }
+        rowByRow = DriverManager.getConnection(url, user, password);
+        batched = DriverManager.getConnection(url + (url.contains("?") ? "&" : "?") + "reWriteBatchedInserts=true", user, password);
+        batched.setAutoCommit(false);
+
+        try (Statement st = rowByRow.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS bench_puzzles");
+            st.execute("DROP SEQUENCE IF EXISTS bench_puzzles_seq");
+            st.execute("CREATE TABLE bench_puzzles (id bigint PRIMARY KEY, board_string varchar(100) NOT NULL, "
+                    + "created_at timestamp(6) NOT NULL, difficulty varchar(255) NOT NULL, solution_string varchar(100) NOT NULL)");
+            st.execute("CREATE SEQUENCE bench_puzzles_seq START WITH 1 INCREMENT BY " + ROWS);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        rowByRow.close();
+        batched.close();
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void rowByRow() throws Exception {
+        // Antes: cada save() es una transacción con su propio INSERT
+        try (PreparedStatement insert = rowByRow.prepareStatement(
+                "INSERT INTO bench_puzzles (board_string, created_at, difficulty, solution_string, id) VALUES (?, ?, ?, ?, ?)")) {
+            long id = nextIdBlock(rowByRow);
+            for (int i = 0; i < ROWS; i++) {
+                bind(insert, id + i);
+                insert.executeUpdate();
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void batched() throws Exception {
+        // Después: un nextval para todo el lote y un único executeBatch
+        try (PreparedStatement insert = batched.prepareStatement(
+                "INSERT INTO bench_puzzles (board_string, created_at, difficulty, solution_string, id) VALUES (?, ?, ?, ?, ?)")) {
+            long id = nextIdBlock(batched);
+            for (int i = 0; i < ROWS; i++) {
+                bind(insert, id + i);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+            batched.commit();
+        }
+    }
+
+    private static long nextIdBlock(Connection connection) throws Exception {
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT nextval('bench_puzzles_seq')")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static void bind(PreparedStatement insert, long id) throws Exception {
+        insert.setString(1, BOARD);
+        insert.setTimestamp(2, new Timestamp(System.currentTimeMillis()));
+        insert.setString(3, "MEDIUM");
+        insert.setString(4, BOARD);
+        insert.setLong(5, id);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PersistenceBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
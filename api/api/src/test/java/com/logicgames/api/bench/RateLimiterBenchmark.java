@@ -0,0 +1,105 @@
+package com.logicgames.api.bench;
+
+import com.logicgames.api.ratelimit.RateLimitProperties;
+import com.logicgames.api.ratelimit.RateLimitingService;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Refill;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decisiones de rate limit por segundo (1 hilo) con UN MILLÓN de IPs distintas
+ * (un escaneo o un flood con IPs falsas: casi todas las peticiones son de un cliente nuevo):
+ *
+ *  - legacyUnboundedMap: lo de antes, un ConcurrentHashMap que nunca olvida
+ *                        (y un BucketConfiguration nuevo por cubo).
+ *  - boundedCache:       RateLimitingService (Caffeine, 100.000 clientes como mucho).
+ *
+ * Al terminar cada iteración imprime el heap usado: el del mapa sin límite crece
+ * con cada IP nueva; el de la caché se queda en su tope.
+ *
+ * Ejecutar:
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.logicgames.api.bench.RateLimiterBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@Threads(1)
+public class RateLimiterBenchmark {
+
+    private static final int DISTINCT_KEYS = 1_000_000;
+
+    private String[] keys;
+    private RateLimitingService service;
+    private Map<String, Bucket> legacy;
+
+    @Setup
+    public void setUp() {
+        keys = new String[DISTINCT_KEYS];
+        for (int i = 0; i < DISTINCT_KEYS; i++) {
+            keys[i] = "10." + (i >>> 16) + "." + ((i >>> 8) & 0xFF) + "." + (i & 0xFF);
+        }
+        RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+        policy.setPath("/api/auth/login");
+        policy.setCapacity(30);
+        policy.setRefillPeriod(Duration.ofMinutes(1));
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setMaxKeysPerPolicy(100_000);
+        properties.getPolicies().put("login", policy);
+        service = new RateLimitingService(properties);
+        legacy = new ConcurrentHashMap<>();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        System.out.printf("  [heap usado: %d MB, cubos: legacy=%d, caché=%d]%n",
+                (runtime.totalMemory() - runtime.freeMemory()) >> 20, legacy.size(), service.trackedKeys("login"));
+    }
+
+    @Benchmark
+    public boolean legacyUnboundedMap() {
+        String key = keys[ThreadLocalRandom.current().nextInt(DISTINCT_KEYS)];
+        return legacy.computeIfAbsent(key, k -> Bucket.builder()
+                .addLimit(Bandwidth.classic(30, Refill.greedy(30, Duration.ofMinutes(1))))
+                .build()).tryConsume(1);
+    }
+
+    @Benchmark
+    public boolean boundedCache() {
+        String key = keys[ThreadLocalRandom.current().nextInt(DISTINCT_KEYS)];
+        return service.tryConsume("login", key).allowed();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RateLimiterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,61 @@
+package com.logicgames.api.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedPasswordEncoderTests {
+
+	@Test
+	void encodesAndMatchesWithTheConfiguredCost() {
+		BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(5, 1, 4);
+		try {
+			String hash = encoder.encode("secreta");
+			assertEquals(5, BoundedPasswordEncoder.costOf(hash));
+			assertTrue(encoder.matches("secreta", hash));
+			assertFalse(encoder.matches("otra", hash));
+		} finally {
+			encoder.shutdown();
+		}
+	}
+
+	@Test
+	void upgradesHashesWithAnyOtherCost() {
+		BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(5, 1, 4);
+		try {
+			assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("x")));
+			assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("x")));
+			assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("x")));
+			assertFalse(encoder.upgradeEncoding("no-es-bcrypt"));
+		} finally {
+			encoder.shutdown();
+		}
+	}
+
+	@Test
+	void rejectsAtOnceWhenTheQueueIsFull() throws Exception {
+		// 1 hilo + 1 hueco en cola: con dos hashes lentos en marcha, el tercero no espera
+		BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(13, 1, 1);
+		try {
+			Thread running = new Thread(() -> encoder.encode("a"));
+			running.start();
+			Thread.sleep(50);
+			Thread queued = new Thread(() -> encoder.encode("b"));
+			queued.start();
+			while (encoder.getQueuedCount() == 0) {
+				Thread.sleep(1);
+			}
+
+			long start = System.nanoTime();
+			assertThrows(PasswordHashingBusyException.class, () -> encoder.encode("c"));
+			assertTrue(System.nanoTime() - start < 50_000_000L);
+			assertEquals(1, encoder.getRejectedCount());
+		} finally {
+			encoder.shutdown();
+		}
+	}
+}
@@ -0,0 +1,130 @@
+package com.logicgames.api.email;
+
+import com.logicgames.api.EmbeddedPostgresJpaTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Las sentencias de la bandeja de salida contra Postgres de verdad
+ * (claimBatch es un UPDATE ... FOR UPDATE SKIP LOCKED ... RETURNING a mano).
+ * Sin transacción de test: hace falta otra conexión que bloquee filas de verdad.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EmailJobRepositoryTests extends EmbeddedPostgresJpaTest {
+
+	private static final LocalDateTime NOW = LocalDateTime.now().withNano(0);
+
+	@Autowired
+	private EmailJobRepository repository;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@AfterEach
+	void empty() {
+		repository.deleteAll();
+	}
+
+	@Test
+	void claimsTheDuePendingJobsInTurnAndLeasesThem() {
+		EmailJob first = save("PENDING", NOW.minusMinutes(3));
+		EmailJob second = save("PENDING", NOW.minusMinutes(2));
+		save("PENDING", NOW.minusMinutes(1));
+		save("PENDING", NOW.plusHours(1)); // aún no toca
+		save("SENT", NOW.minusMinutes(5));
+
+		List<EmailJob> claimed = repository.claimBatch(NOW, NOW.plusSeconds(60), 2);
+
+		assertEquals(List.of(first.getId(), second.getId()), claimed.stream().map(EmailJob::getId).sorted().toList());
+		assertEquals(NOW.plusSeconds(60), repository.findById(first.getId()).orElseThrow().getNextAttemptAt());
+		// Alquilados: nadie más los coge hasta que venza el alquiler
+		assertEquals(1, repository.claimBatch(NOW, NOW.plusSeconds(60), 10).size());
+		assertEquals(0, repository.claimBatch(NOW, NOW.plusSeconds(60), 10).size());
+		assertEquals(3, repository.claimBatch(NOW.plusSeconds(61), NOW.plusSeconds(120), 10).size());
+	}
+
+	@Test
+	void skipsRowsLockedByAnotherDispatcher() throws Exception {
+		EmailJob locked = save("PENDING", NOW.minusMinutes(2));
+		EmailJob free = save("PENDING", NOW.minusMinutes(1));
+
+		try (Connection other = dataSource.getConnection()) {
+			other.setAutoCommit(false);
+			try (PreparedStatement st = other.prepareStatement("SELECT id FROM email_jobs WHERE id = ? FOR UPDATE")) {
+				st.setLong(1, locked.getId());
+				st.executeQuery();
+			}
+
+			List<EmailJob> claimed = repository.claimBatch(NOW, NOW.plusSeconds(60), 10);
+
+			assertEquals(List.of(free.getId()), claimed.stream().map(EmailJob::getId).toList());
+			other.rollback();
+		}
+		assertEquals(NOW.minusMinutes(2), repository.findById(locked.getId()).orElseThrow().getNextAttemptAt());
+	}
+
+	@Test
+	void finishedJobsForgetTheirBodyAndOldOnesArePurged() {
+		EmailJob sent = save("PENDING", NOW);
+		repository.markSent(List.of(sent.getId()), NOW);
+		EmailJob stored = repository.findById(sent.getId()).orElseThrow();
+		assertEquals("", stored.getHtmlBody());
+		assertNull(stored.getDebugInfo());
+
+		EmailJob failed = save("PENDING", NOW);
+		repository.markFailed(failed.getId(), NOW, "SendGrid respondió 400");
+		EmailJob given = repository.findById(failed.getId()).orElseThrow();
+		assertEquals("FAILED", given.getStatus());
+		assertEquals("", given.getHtmlBody());
+		assertNull(given.getDebugInfo());
+
+		EmailJob oldFailed = save("FAILED", NOW);
+		EmailJob oldPending = save("PENDING", NOW);
+		EmailJob recentSent = save("SENT", NOW);
+		age(sent, oldFailed, oldPending);
+
+		assertEquals(2, repository.deleteFinishedBatchBefore(NOW.minusDays(7), 10));
+
+		List<Long> left = repository.findAll().stream().map(EmailJob::getId).sorted().toList();
+		assertEquals(List.of(failed.getId(), oldPending.getId(), recentSent.getId()), left);
+		assertTrue(repository.findById(sent.getId()).isEmpty());
+	}
+
+	private EmailJob save(String status, LocalDateTime nextAttemptAt) {
+		return repository.save(EmailJob.builder()
+				.toEmail("u@x.com")
+				.subject("Hola")
+				.htmlBody("<h1>123456</h1>")
+				.debugInfo("123456")
+				.status(status)
+				.nextAttemptAt(nextAttemptAt)
+				.build());
+	}
+
+	// (created_at no se actualiza desde la entidad)
+	private void age(EmailJob... jobs) {
+		try (Connection connection = dataSource.getConnection();
+			 PreparedStatement st = connection.prepareStatement(
+					 "UPDATE email_jobs SET created_at = now() - interval '30 days' WHERE id = ?")) {
+			for (EmailJob job : jobs) {
+				st.setLong(1, job.getId());
+				st.executeUpdate();
+			}
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package com.logicgames.api.email;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmailOutboxDispatcherTests {
+
+	private final EmailJobRepository repository = mock(EmailJobRepository.class);
+	private final EmailTransport transport = mock(EmailTransport.class);
+	private final EmailOutboxDispatcher dispatcher =
+			new EmailOutboxDispatcher(repository, transport, 20, 5000, 60, 3, 2000, 600000);
+
+	@Test
+	void marksTheWholeBatchAsSentInOneUpdate() throws Exception {
+		when(repository.claimBatch(any(), any(), eq(20))).thenReturn(List.of(job(1L, 0), job(2L, 0), job(3L, 0)));
+
+		assertEquals(3, dispatcher.dispatchBatch());
+
+		verify(repository).markSent(eq(List.of(1L, 2L, 3L)), any());
+		verify(repository, never()).markFailedAttempt(any(), any(), anyString());
+		verify(repository, never()).markFailed(any(), any(), anyString());
+	}
+
+	@Test
+	void retryableFailuresAreRescheduledWithBackoff() throws Exception {
+		EmailJob failing = job(2L, 0);
+		when(repository.claimBatch(any(), any(), anyInt())).thenReturn(List.of(job(1L, 0), failing));
+		doThrow(new EmailTransportException("SendGrid respondió 503", true)).when(transport).send(failing);
+
+		LocalDateTime before = LocalDateTime.now();
+		dispatcher.dispatchBatch();
+
+		verify(repository).markSent(eq(List.of(1L)), any());
+		verify(repository).markFailedAttempt(eq(2L),
+				argThat(next -> !next.isBefore(before.plusSeconds(1))), eq("SendGrid respondió 503"));
+	}
+
+	@Test
+	void givesUpOnPermanentFailuresAndAfterMaxAttempts() throws Exception {
+		EmailJob rejected = job(1L, 0);
+		EmailJob exhausted = job(2L, 2); // max-attempts = 3: este es el último
+		when(repository.claimBatch(any(), any(), anyInt())).thenReturn(List.of(rejected, exhausted));
+		doThrow(new EmailTransportException("SendGrid respondió 400", false)).when(transport).send(rejected);
+		doThrow(new EmailTransportException("timeout", true)).when(transport).send(exhausted);
+
+		dispatcher.dispatchBatch();
+
+		verify(repository).markFailed(eq(1L), any(), anyString());
+		verify(repository).markFailed(eq(2L), any(), anyString());
+		verify(repository, never()).markFailedAttempt(any(), any(), anyString());
+		verify(repository, never()).markSent(any(), any());
+	}
+
+	@Test
+	void backoffDoublesUpToTheCap() {
+		Duration initial = Duration.ofSeconds(2);
+		Duration max = Duration.ofMinutes(10);
+		for (int attempts = 1; attempts <= 40; attempts++) {
+			long ceiling = Math.min(max.toMillis(), initial.toMillis() << Math.min(attempts - 1, 30));
+			long wait = EmailOutboxDispatcher.backoff(attempts, initial, max).toMillis();
+			assertTrue(wait >= ceiling / 2 && wait <= ceiling, attempts + " -> " + wait);
+		}
+	}
+
+	private static EmailJob job(Long id, int attempts) {
+		return EmailJob.builder().id(id).toEmail("u" + id + "@x.com").subject("Hola")
+				.htmlBody("<h1>1234</h1>").status("PENDING").attempts(attempts).build();
+	}
+}
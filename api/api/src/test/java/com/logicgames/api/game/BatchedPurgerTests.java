@@ -0,0 +1,79 @@
+package com.logicgames.api.game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class BatchedPurgerTests {
+
+	private final GameMetricRecorder recorder = mock(GameMetricRecorder.class);
+	private final BatchedPurger purger = new BatchedPurger(recorder);
+
+	@Test
+	void deletesUntilABatchComesBackShort() {
+		AtomicInteger remaining = new AtomicInteger(2500);
+
+		BatchedPurger.PurgeResult result = purger.purge("USERS", 1000, Long.MAX_VALUE,
+				limit -> take(remaining, limit));
+
+		assertEquals(2500, result.rowsDeleted());
+		assertEquals(3, result.batches());
+		assertTrue(result.complete());
+		verify(recorder).record("PURGED_USERS", 2500);
+		assertSame(result, purger.lastRuns().get("USERS"));
+	}
+
+	@Test
+	void stopsWhenTheTimeBudgetRunsOut() {
+		AtomicInteger remaining = new AtomicInteger(1_000_000);
+		long deadline = System.currentTimeMillis() + 50;
+
+		BatchedPurger.PurgeResult result = purger.purge("USERS", 10, deadline, limit -> {
+			sleep(5);
+			return take(remaining, limit);
+		});
+
+		assertFalse(result.complete());
+		assertTrue(result.rowsDeleted() > 0);
+		assertTrue(remaining.get() > 0);
+	}
+
+	@Test
+	void aFailedBatchKeepsWhatWasAlreadyDeleted() {
+		AtomicInteger calls = new AtomicInteger();
+
+		BatchedPurger.PurgeResult result = purger.purge("GAMES", 100, Long.MAX_VALUE, limit -> {
+			if (calls.incrementAndGet() == 3) {
+				throw new IllegalStateException("lock timeout");
+			}
+			return limit;
+		});
+
+		assertEquals(200, result.rowsDeleted());
+		assertFalse(result.complete());
+		assertNotNull(result.error());
+		verify(recorder).record("PURGED_GAMES", 200);
+	}
+
+	private static int take(AtomicInteger remaining, int limit) {
+		int n = Math.min(limit, remaining.get());
+		remaining.addAndGet(-n);
+		return n;
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
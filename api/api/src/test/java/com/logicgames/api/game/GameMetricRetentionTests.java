@@ -0,0 +1,168 @@
+package com.logicgames.api.game;
+
+import com.logicgames.api.EmbeddedPostgresJpaTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * El SQL a mano de las métricas contra Postgres de verdad: agregados por hora/día,
+ * borrado en lotes de lo que sale de la retención y particiones diarias.
+ * (Cada test se deshace al terminar, también la conversión a tabla particionada)
+ */
+@Import({GameMetricRetentionService.class, GameMetricPartitionMaintainer.class, BatchedPurger.class,
+		GameMetricProperties.class})
+class GameMetricRetentionTests extends EmbeddedPostgresJpaTest {
+
+	private static final LocalDateTime YESTERDAY = LocalDate.now().minusDays(1).atStartOfDay();
+
+	@Autowired
+	private GameMetricAggregateRepository aggregateRepository;
+
+	@Autowired
+	private GameMetricRetentionService retentionService;
+
+	@Autowired
+	private GameMetricPartitionMaintainer partitionMaintainer;
+
+	@Autowired
+	private GameMetricProperties properties;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@MockitoBean
+	private GameMetricRecorder metricRecorder;
+
+	@BeforeEach
+	void defaults() {
+		properties.setRetention(new GameMetricProperties.Retention());
+		properties.setPartitioning(new GameMetricProperties.Partitioning());
+	}
+
+	@Test
+	void hoursAndDaysAreRecalculatedWithoutCountingTwice() {
+		minute("A", YESTERDAY.plusMinutes(600), 3);
+		minute("A", YESTERDAY.plusMinutes(630), 4);
+		minute("A", YESTERDAY.plusMinutes(675), 5);
+		event("A", YESTERDAY.plusMinutes(645));
+		event("A", YESTERDAY.plusMinutes(646));
+
+		aggregateRepository.rollUpHours(YESTERDAY, YESTERDAY.plusDays(1));
+		assertEquals(9, aggregate("HOUR", YESTERDAY.plusHours(10)));
+		assertEquals(5, aggregate("HOUR", YESTERDAY.plusHours(11)));
+
+		// Llega un minuto tarde: la hora se sobrescribe con el total nuevo
+		minute("A", YESTERDAY.plusMinutes(650), 1);
+		aggregateRepository.rollUpHours(YESTERDAY, YESTERDAY.plusDays(1));
+		assertEquals(10, aggregate("HOUR", YESTERDAY.plusHours(10)));
+
+		aggregateRepository.rollUpDays(YESTERDAY, YESTERDAY.plusDays(1));
+		aggregateRepository.rollUpDays(YESTERDAY, YESTERDAY.plusDays(1));
+		assertEquals(15, aggregate("DAY", YESTERDAY));
+	}
+
+	@Test
+	void expiredRowsAreDeletedInBatchesOnlyAfterBeingRolledUp() {
+		properties.getRetention().setBatchSize(2); // varios lotes por tabla
+		LocalDateTime tenDaysAgo = YESTERDAY.minusDays(9).plusHours(8);
+		for (int i = 0; i < 5; i++) {
+			minute("A", tenDaysAgo.plusMinutes(i), 1);
+			event("A", tenDaysAgo.plusMinutes(i));
+		}
+		minute("A", YESTERDAY.plusHours(8), 1);
+		event("A", YESTERDAY.plusHours(8));
+		for (int i = 0; i < 3; i++) {
+			hourAggregate("OLD_" + i, YESTERDAY.minusDays(100));
+		}
+
+		retentionService.run();
+
+		assertEquals(1, count("game_metric_rollups"));
+		assertEquals(1, count("game_metrics"));
+		// Las horas viejas se van; sus días se quedan (daily-days = 0: para siempre)
+		assertEquals(0, oldAggregates("HOUR"));
+		assertEquals(3, oldAggregates("DAY"));
+		// Lo borrado ya estaba agregado
+		assertEquals(10, aggregate("HOUR", tenDaysAgo));
+		assertEquals(10, aggregate("DAY", tenDaysAgo.toLocalDate().atStartOfDay()));
+		assertEquals(2, aggregate("HOUR", YESTERDAY.plusHours(8)));
+	}
+
+	@Test
+	void partitionsAreCreatedAheadDroppedWhenExpiredAndRescueRowsFromTheDefault() throws Exception {
+		LocalDate today = LocalDate.now();
+		minute("A", today.minusDays(10).atTime(9, 0), 1);
+		minute("A", today.atTime(9, 0), 2);
+		partitionTable();
+		// Un día para el que aún no hay partición: cae en la DEFAULT
+		minute("A", today.plusDays(5).atTime(9, 0), 3);
+
+		properties.getPartitioning().setEnabled(true);
+		properties.getPartitioning().setPremakeDays(5);
+		partitionMaintainer.maintain();
+
+		assertTrue(exists(today.plusDays(4)));
+		assertTrue(exists(today.plusDays(5)));
+		assertEquals(GameMetricPartitionMaintainer.partitionName(today.plusDays(5)), jdbcTemplate.queryForObject(
+				"SELECT tableoid::regclass::text FROM game_metric_rollups WHERE event_count = 3", String.class));
+		assertEquals(0, count("game_metric_rollups_default"));
+
+		assertFalse(exists(today.minusDays(10))); // minute-days = 3: fuera
+		assertTrue(exists(today.minusDays(2)));
+		assertEquals(2, count("game_metric_rollups"));
+	}
+
+	// db/partitioning/game_metric_rollups.sql, dentro de la transacción del test
+	private void partitionTable() throws Exception {
+		String script = new ClassPathResource("db/partitioning/game_metric_rollups.sql")
+				.getContentAsString(StandardCharsets.UTF_8);
+		jdbcTemplate.execute(script.replace("BEGIN;", "").replace("COMMIT;", ""));
+	}
+
+	private boolean exists(LocalDate day) {
+		return jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class,
+				GameMetricPartitionMaintainer.partitionName(day));
+	}
+
+	private void minute(String type, LocalDateTime bucketStart, long count) {
+		jdbcTemplate.update("INSERT INTO game_metric_rollups (event_type, bucket_start, event_count) VALUES (?, ?, ?)",
+				type, bucketStart, count);
+	}
+
+	private void event(String type, LocalDateTime at) {
+		jdbcTemplate.update("INSERT INTO game_metrics (id, event_type, event_timestamp) " +
+				"VALUES (nextval('game_metrics_seq'), ?, ?)", type, at);
+	}
+
+	private void hourAggregate(String type, LocalDateTime hour) {
+		jdbcTemplate.update("INSERT INTO game_metric_aggregates (event_type, granularity, bucket_start, event_count) " +
+				"VALUES (?, 'HOUR', ?, 1)", type, hour);
+	}
+
+	private long aggregate(String granularity, LocalDateTime bucketStart) {
+		return jdbcTemplate.queryForObject("SELECT event_count FROM game_metric_aggregates " +
+				"WHERE event_type = 'A' AND granularity = ? AND bucket_start = ?", Long.class, granularity, bucketStart);
+	}
+
+	private int oldAggregates(String granularity) {
+		return jdbcTemplate.queryForObject("SELECT count(*) FROM game_metric_aggregates " +
+				"WHERE event_type LIKE 'OLD_%' AND granularity = ?", Integer.class, granularity);
+	}
+
+	private int count(String table) {
+		return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Integer.class);
+	}
+}
@@ -0,0 +1,159 @@
+package com.logicgames.api.game;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GameStateCacheTests {
+
+	private static final String PUZZLE = "1".repeat(81);
+
+	private final SudokuGameRepository repository = mock(SudokuGameRepository.class);
+	private final GameStateCache cache = new GameStateCache(repository, 1800);
+
+	@Test
+	void repeatedSavesAreCoalescedIntoOneWritePerFlush() {
+		when(repository.saveProgress(anyLong(), anyLong(), anyString(), anyString(), anyLong(), any())).thenReturn(1);
+		cache.put(1L, game(10L));
+
+		for (int second = 1; second <= 20; second++) {
+			assertTrue(cache.updateProgress(1L, board(second % 10), second));
+		}
+		cache.flush();
+		cache.flush(); // nada nuevo: no escribe
+
+		verify(repository, times(1)).saveProgress(eq(10L), eq(0L), eq(PUZZLE), eq(board(0)), eq(20L), any());
+		assertEquals(board(0), cache.get(1L).orElseThrow().getBoardString());
+	}
+
+	@Test
+	void takeHandsOverPendingProgressAndEvicts() {
+		cache.put(1L, game(10L));
+		assertTrue(cache.take(1L).isEmpty()); // sin cambios: nada pendiente
+
+		cache.put(1L, game(10L));
+		cache.updateProgress(1L, board(7), 42);
+		SudokuGame pending = cache.take(1L).orElseThrow();
+
+		assertEquals(board(7), pending.getBoardString());
+		assertEquals(42L, pending.getTimeElapsedSeconds());
+		assertFalse(cache.updateProgress(1L, board(8), 43));
+		cache.flush();
+		verify(repository, never()).saveProgress(anyLong(), anyLong(), anyString(), anyString(), anyLong(), any());
+	}
+
+	@Test
+	void finishedGamesAreDroppedOnFlush() {
+		when(repository.saveProgress(anyLong(), anyLong(), anyString(), anyString(), anyLong(), any())).thenReturn(0);
+		cache.put(1L, game(10L));
+		cache.updateProgress(1L, board(3), 5);
+
+		cache.flush();
+
+		assertTrue(cache.get(1L).isEmpty());
+	}
+
+	@Test
+	void aFlushThatFallsBehindFlushAndEvictCarriesTheOlderCopy() throws Exception {
+		PausedFlush paused = new PausedFlush(); // el volcado se queda a medias en su UPDATE
+		cache.put(1L, game(10L));
+		cache.updateProgress(1L, board(1), 1);
+		paused.start();
+
+		// Mientras tanto: otro /save y un /moves que vuelca y saca la partida
+		cache.updateProgress(1L, board(2), 2);
+		cache.flushAndEvict(1L);
+		paused.finish();
+
+		ArgumentCaptor<LocalDateTime> writtenAt = ArgumentCaptor.forClass(LocalDateTime.class);
+		verify(repository).saveProgress(eq(10L), eq(0L), eq(PUZZLE), eq(board(1)), eq(1L), writtenAt.capture());
+		verify(repository).saveProgress(eq(10L), eq(0L), eq(PUZZLE), eq(board(2)), eq(2L), writtenAt.capture());
+		// El UPDATE del volcado lleva la fecha de SU copia: la BBDD lo descarta (ver SudokuGameRepositoryTests)
+		assertTrue(writtenAt.getAllValues().get(0).isBefore(writtenAt.getAllValues().get(1)));
+		assertTrue(cache.get(1L).isEmpty());
+	}
+
+	@Test
+	void aFlushThatFallsBehindANewPuzzleLeavesTheNewGameCached() throws Exception {
+		PausedFlush paused = new PausedFlush();
+		cache.put(1L, game(10L));
+		cache.updateProgress(1L, board(1), 1);
+		paused.start();
+
+		// loadOrCreateGame con otra dificultad: la misma fila con otro puzzle
+		cache.put(1L, game(10L, "2".repeat(81)));
+		paused.finish();
+
+		verify(repository).saveProgress(eq(10L), eq(0L), eq(PUZZLE), eq(board(1)), eq(1L), any());
+		assertEquals("2".repeat(81), cache.get(1L).orElseThrow().getSolutionString());
+	}
+
+	/**
+	 * Lanza flush() en otro hilo y lo para dentro del UPDATE (que la BBDD rechaza:
+	 * alguien escribió después de la copia) hasta llamar a finish().
+	 */
+	private final class PausedFlush {
+		private final CountDownLatch writing = new CountDownLatch(1);
+		private final CountDownLatch release = new CountDownLatch(1);
+		private Thread flusher;
+
+		void start() throws InterruptedException {
+			when(repository.saveProgress(anyLong(), anyLong(), anyString(), anyString(), anyLong(), any()))
+					.thenAnswer(invocation -> {
+						if (Thread.currentThread() != flusher) {
+							return 1;
+						}
+						writing.countDown();
+						release.await(5, TimeUnit.SECONDS);
+						return 0;
+					});
+			flusher = new Thread(cache::flush);
+			flusher.start();
+			assertTrue(writing.await(5, TimeUnit.SECONDS));
+		}
+
+		void finish() throws InterruptedException {
+			release.countDown();
+			flusher.join(5000);
+		}
+	}
+
+	private static SudokuGame game(Long id) {
+		return game(id, PUZZLE);
+	}
+
+	private static SudokuGame game(Long id, String solution) {
+		return SudokuGame.builder()
+				.id(id)
+				.boardString(board(0))
+				.solutionString(solution)
+				.difficulty("EASY")
+				.state("IN_PROGRESS")
+				.gameMode("FREE")
+				.timeLimitSeconds(0L)
+				.timeElapsedSeconds(0L)
+				.lastUpdatedAt(LocalDateTime.now())
+				.lastMoveSeq(0L)
+				.build();
+	}
+
+	private static String board(int digit) {
+		return String.valueOf(digit).repeat(81);
+	}
+}
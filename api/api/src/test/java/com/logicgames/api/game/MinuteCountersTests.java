@@ -0,0 +1,45 @@
+package com.logicgames.api.game;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MinuteCountersTests {
+
+	@Test
+	void windowSumsOnlyTheMinutesInside() {
+		MinuteCounters counters = new MinuteCounters(60);
+		counters.add(100, 3);
+		counters.add(130, 5);
+		counters.increment(159);
+
+		assertEquals(9, counters.sum(100, 159));
+		assertEquals(6, counters.sum(101, 159));
+		assertEquals(1, counters.sum(159, 159));
+	}
+
+	@Test
+	void reusedSlotForgetsTheOldMinute() {
+		MinuteCounters counters = new MinuteCounters(60);
+		counters.add(100, 7);
+		counters.add(160, 2); // mismo hueco, una hora después
+
+		assertEquals(0, counters.get(100));
+		assertEquals(2, counters.get(160));
+		// Un evento atrasado del minuto viejo no pisa al nuevo
+		counters.increment(100);
+		assertEquals(2, counters.get(160));
+	}
+
+	@Test
+	void onlyTheNewPartIsPendingToFlush() {
+		MinuteCounters counters = new MinuteCounters(60);
+		counters.load(100, 10); // ya estaba en la BBDD
+		counters.add(100, 4);
+		assertEquals(4, counters.unflushed(100));
+
+		counters.markFlushed(100, 4);
+		assertEquals(0, counters.unflushed(100));
+		assertEquals(14, counters.sum(100, 100));
+	}
+}
@@ -0,0 +1,68 @@
+package com.logicgames.api.game;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+class PuzzlePoolTests {
+
+	private static final LocalDateTime NOW = LocalDateTime.now();
+
+	private final PuzzlePool pool = new PuzzlePool(mock(PreGeneratedPuzzleRepository.class));
+
+	@Test
+	void trimRemovesOnlyTheOldPuzzles() {
+		pool.offer(List.of(puzzle(1L, NOW.minusDays(3)), puzzle(2L, NOW.minusDays(2)), puzzle(3L, NOW)));
+
+		assertEquals(2, pool.trim("HARD", 0, NOW.minusDays(1)));
+
+		assertEquals(1, pool.size("HARD"));
+		assertEquals(3L, pool.claim("HARD").orElseThrow().getId());
+	}
+
+	@Test
+	void aClaimBetweenPeekAndRemoveDoesNotCostANewPuzzle() {
+		// Justo cuando trim mira la edad del más antiguo, una petición se lo lleva
+		AtomicBoolean raced = new AtomicBoolean();
+		AtomicReference<Optional<PreGeneratedPuzzle>> claimed = new AtomicReference<>();
+		PreGeneratedPuzzle old = new PreGeneratedPuzzle(1L, "HARD", "0".repeat(81), "1".repeat(81), NOW.minusDays(3)) {
+			@Override
+			public LocalDateTime getCreatedAt() {
+				if (raced.compareAndSet(false, true)) {
+					claimed.set(pool.claim("HARD"));
+				}
+				return super.getCreatedAt();
+			}
+		};
+		pool.offer(List.of(old, puzzle(2L, NOW)));
+
+		assertEquals(0, pool.trim("HARD", 0, NOW.minusDays(1)));
+
+		assertEquals(1L, claimed.get().orElseThrow().getId());
+		assertEquals(1, pool.size("HARD"));
+		assertEquals(2L, pool.claim("HARD").orElseThrow().getId()); // el reciente sigue ahí
+	}
+
+	@Test
+	void onlyClaimCountsAsDemand() {
+		pool.offer(List.of(puzzle(1L, NOW), puzzle(2L, NOW)));
+
+		pool.claim("HARD");
+		pool.poll("HARD");
+		pool.poll("HARD"); // (vacío)
+
+		assertEquals(1, pool.demand("HARD"));
+		assertEquals(0, pool.size("HARD"));
+	}
+
+	private static PreGeneratedPuzzle puzzle(Long id, LocalDateTime createdAt) {
+		return new PreGeneratedPuzzle(id, "HARD", "0".repeat(81), "1".repeat(81), createdAt);
+	}
+}
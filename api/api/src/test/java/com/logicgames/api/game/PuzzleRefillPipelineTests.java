@@ -0,0 +1,138 @@
+package com.logicgames.api.game;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PuzzleRefillPipelineTests {
+
+	private final PreGeneratedPuzzleRepository repository = mock(PreGeneratedPuzzleRepository.class);
+	private final PuzzlePool pool = new PuzzlePool(repository);
+	private final GameMetricRecorder metricRecorder = mock(GameMetricRecorder.class); // demanda 0: lotes de 10
+
+	// Los generadores no terminan hasta que el test lo diga
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final AtomicInteger generated = new AtomicInteger();
+
+	private PuzzleRefillPipeline pipeline;
+
+	@BeforeEach
+	void start() {
+		AtomicLong ids = new AtomicLong();
+		when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+			List<PreGeneratedPuzzle> batch = invocation.getArgument(0);
+			batch.forEach(p -> p.setId(ids.incrementAndGet()));
+			return new ArrayList<>(batch);
+		});
+		SudokuGeneratorService generator = new SudokuGeneratorService() {
+			@Override
+			public GeneratedPuzzle generateSudokuSync(String difficulty) {
+				try {
+					release.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				generated.incrementAndGet();
+				GeneratedPuzzle puzzle = new GeneratedPuzzle("0".repeat(81), "1".repeat(81));
+				puzzle.inBand = true;
+				return puzzle;
+			}
+		};
+		pipeline = new PuzzleRefillPipeline(generator, repository, pool, metricRecorder);
+		ReflectionTestUtils.setField(pipeline, "parallelism", 2);
+		ReflectionTestUtils.setField(pipeline, "queueCapacity", 64);
+		ReflectionTestUtils.setField(pipeline, "batchSize", 4);
+		ReflectionTestUtils.setField(pipeline, "maxPendingTasks", 64);
+		pipeline.start();
+	}
+
+	@AfterEach
+	void stop() throws InterruptedException {
+		release.countDown();
+		pipeline.stop();
+	}
+
+	@Test
+	void concurrentRequestsScheduleASingleRefill() throws Exception {
+		int requests = 8;
+		ExecutorService callers = Executors.newFixedThreadPool(requests);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> calls = new ArrayList<>();
+		for (int i = 0; i < requests; i++) {
+			calls.add(callers.submit(() -> {
+				start.await();
+				pipeline.populatePoolAsync("HARD");
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> call : calls) {
+			call.get(10, TimeUnit.SECONDS);
+		}
+		callers.shutdown();
+
+		assertEquals(10, pipeline.inFlight("HARD")); // un relleno, no ocho
+
+		release.countDown();
+		awaitPoolSize("HARD", 10);
+		assertEquals(10, generated.get());
+		assertEquals(0, pipeline.inFlight("HARD"));
+	}
+
+	@Test
+	void savedPuzzlesReachThePool() throws Exception {
+		pipeline.refill("EASY", 6);
+		release.countDown();
+
+		awaitPoolSize("EASY", 6);
+		verify(repository, atLeastOnce()).saveAll(anyList());
+		for (int i = 0; i < 6; i++) {
+			PreGeneratedPuzzle puzzle = pool.claim("EASY").orElseThrow();
+			assertNotNull(puzzle.getId()); // guardado antes de entrar al pool
+			assertEquals("EASY", puzzle.getDifficulty());
+		}
+		assertEquals(0, pipeline.inFlight("EASY"));
+	}
+
+	@Test
+	void offeredLeftoversReachThePoolWithoutGeneratingAgain() throws Exception {
+		SudokuGeneratorService.GeneratedPuzzle inBand = new SudokuGeneratorService.GeneratedPuzzle("0".repeat(81), "1".repeat(81));
+		inBand.inBand = true;
+		SudokuGeneratorService.GeneratedPuzzle outOfBand = new SudokuGeneratorService.GeneratedPuzzle("0".repeat(81), "2".repeat(81));
+
+		pipeline.offer("MEDIUM", List.of(inBand, inBand, outOfBand));
+
+		awaitPoolSize("MEDIUM", 2);
+		assertEquals(0, generated.get());
+		assertEquals(0, pipeline.inFlight("MEDIUM"));
+	}
+
+	private void awaitPoolSize(String difficulty, int expected) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10_000;
+		// (El escritor deja los puzzles en el pool y después los descuenta de "en camino")
+		while ((pool.size(difficulty) < expected || pipeline.inFlight(difficulty) > 0)
+				&& System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		assertEquals(expected, pool.size(difficulty));
+	}
+}
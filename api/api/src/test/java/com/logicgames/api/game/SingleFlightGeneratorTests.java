@@ -0,0 +1,134 @@
+package com.logicgames.api.game;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class SingleFlightGeneratorTests {
+
+	private final PuzzlePool puzzlePool = mock(PuzzlePool.class); // (vacío: poll da Optional.empty())
+	private final PuzzleRefillPipeline refillPipeline = mock(PuzzleRefillPipeline.class);
+
+	@Test
+	void concurrentMissesShareGeneratorRuns() throws Exception {
+		AtomicInteger calls = new AtomicInteger();
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		SudokuGeneratorService slowGenerator = new SudokuGeneratorService() {
+			@Override
+			public GeneratedPuzzle generateSudokuSync(String difficulty) {
+				calls.incrementAndGet();
+				maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+				try {
+					Thread.sleep(20);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				running.decrementAndGet();
+				return new GeneratedPuzzle("0".repeat(81), "1".repeat(81));
+			}
+		};
+		SingleFlightGenerator singleFlight = new SingleFlightGenerator(slowGenerator, puzzlePool, refillPipeline);
+		ReflectionTestUtils.setField(singleFlight, "batchSize", 4);
+
+		int requests = 16;
+		runConcurrently(requests, singleFlight);
+
+		// Un solo generador a la vez, y nunca más puzzles que peticiones (la tubería no entrega nada)
+		assertEquals(1, maxRunning.get());
+		assertTrue(calls.get() <= requests, "llamadas: " + calls.get());
+	}
+
+	@Test
+	void followersShareTheLeadersBatch() throws Exception {
+		int requests = 4;
+		AtomicInteger calls = new AtomicInteger();
+		AtomicReference<SingleFlightGenerator> singleFlight = new AtomicReference<>();
+		SudokuGeneratorService generator = new SudokuGeneratorService() {
+			@Override
+			public GeneratedPuzzle generateSudokuSync(String difficulty) {
+				calls.incrementAndGet();
+				// La líder no termina hasta que las demás se han apuntado a su vuelo
+				long deadline = System.currentTimeMillis() + 5_000;
+				try {
+					while (singleFlight.get().waiting(difficulty) < requests - 1 && System.currentTimeMillis() < deadline) {
+						Thread.sleep(1);
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				GeneratedPuzzle puzzle = generateCandidate(difficulty);
+				puzzle.inBand = true;
+				return puzzle;
+			}
+		};
+		singleFlight.set(new SingleFlightGenerator(generator, puzzlePool, refillPipeline));
+		ReflectionTestUtils.setField(singleFlight.get(), "batchSize", 8);
+
+		List<SudokuGeneratorService.GeneratedPuzzle> puzzles = runConcurrently(requests, singleFlight.get());
+
+		// Una sola generación: las demás se llevan una variante, sin esperar a la tubería
+		assertEquals(1, calls.get());
+		assertEquals(requests, puzzles.stream().map(SudokuGeneratorService.GeneratedPuzzle::getBoardString).distinct().count());
+		verify(refillPipeline, times(1)).populatePoolAsync("HARD");
+		// Lo que sobra del lote (8 - 4), al pool
+		verify(refillPipeline).offer(eq("HARD"), argThat(leftovers -> leftovers.size() == 4));
+	}
+
+	@Test
+	void aMissCountsAsDemandOnlyOnce() {
+		PuzzlePool realPool = new PuzzlePool(mock(PreGeneratedPuzzleRepository.class));
+		SudokuGeneratorService generator = new SudokuGeneratorService() {
+			@Override
+			public GeneratedPuzzle generateSudokuSync(String difficulty) {
+				return new GeneratedPuzzle("0".repeat(81), "1".repeat(81));
+			}
+		};
+		SingleFlightGenerator singleFlight = new SingleFlightGenerator(generator, realPool, refillPipeline);
+		ReflectionTestUtils.setField(singleFlight, "batchSize", 4);
+
+		realPool.claim("HARD"); // el de SudokuService, que falla
+		singleFlight.generate("HARD"); // (mira el pool otras dos veces)
+
+		assertEquals(1, realPool.demand("HARD"));
+	}
+
+	private static List<SudokuGeneratorService.GeneratedPuzzle> runConcurrently(int requests, SingleFlightGenerator singleFlight)
+			throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(requests);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<SudokuGeneratorService.GeneratedPuzzle>> results = new ArrayList<>();
+		for (int i = 0; i < requests; i++) {
+			results.add(pool.submit(() -> {
+				start.await();
+				return singleFlight.generate("HARD");
+			}));
+		}
+		start.countDown();
+		List<SudokuGeneratorService.GeneratedPuzzle> puzzles = new ArrayList<>();
+		for (Future<SudokuGeneratorService.GeneratedPuzzle> result : results) {
+			puzzles.add(result.get(10, TimeUnit.SECONDS));
+			assertNotNull(puzzles.get(puzzles.size() - 1));
+		}
+		pool.shutdown();
+		return puzzles;
+	}
+}
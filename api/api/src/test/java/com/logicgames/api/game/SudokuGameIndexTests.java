@@ -0,0 +1,102 @@
+package com.logicgames.api.game;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Regresión de planes: las consultas calientes de sudoku_game deben usar los
+ * índices de db/migration/V2 (Postgres embebido + las migraciones reales).
+ */
+class SudokuGameIndexTests {
+
+	private static EmbeddedPostgres postgres;
+	private static DataSource dataSource;
+
+	@BeforeAll
+	static void migrateAndFill() throws Exception {
+		postgres = EmbeddedPostgres.start();
+		dataSource = postgres.getPostgresDatabase();
+		Flyway.configure().dataSource(dataSource).load().migrate();
+
+		try (Connection connection = dataSource.getConnection(); Statement st = connection.createStatement()) {
+			st.execute("INSERT INTO _user (id, created_at, email, is_verified, password) " +
+					"SELECT g, now(), 'user' || g || '@x.com', true, 'x' FROM generate_series(1, 5000) g");
+			// Por usuario: 1 en curso, 8 completadas y 1 fallida (la mitad de hace meses)
+			st.execute("INSERT INTO sudoku_game (id, board_string, difficulty, game_mode, last_updated_at, " +
+					"solution_string, state, time_elapsed_seconds, time_limit_seconds, user_id) " +
+					"SELECT g, decode(repeat('0', 82), 'hex'), 'EASY', 'TIMED', " +
+					"  CASE WHEN g % 10 = 9 AND g % 20 = 9 THEN now() - interval '90 days' ELSE now() END, " +
+					"  decode(repeat('1', 81) || '0', 'hex'), " +
+					"  CASE g % 10 WHEN 0 THEN 'IN_PROGRESS' WHEN 9 THEN 'FAILED' ELSE 'COMPLETED' END, " +
+					"  g % 600, 600, 1 + (g / 10) % 5000 " +
+					"FROM generate_series(0, 49999) g");
+			st.execute("ANALYZE");
+		}
+	}
+
+	@AfterAll
+	static void stop() throws Exception {
+		postgres.close();
+	}
+
+	@Test
+	void inProgressLookupUsesThePartialUniqueIndex() throws Exception {
+		String plan = explain("SELECT * FROM sudoku_game WHERE user_id = 42 AND state = 'IN_PROGRESS'");
+		assertTrue(plan.contains("uk_sudoku_game_user_in_progress"), plan);
+	}
+
+	@Test
+	void scoreboardIsReadInIndexOrder() throws Exception {
+		String plan = explain("SELECT * FROM sudoku_game WHERE user_id = 42 AND state = 'COMPLETED' " +
+				"ORDER BY time_elapsed_seconds ASC");
+		assertTrue(plan.contains("idx_sudoku_game_user_state_time"), plan);
+		assertFalse(plan.contains("Sort"), plan);
+	}
+
+	@Test
+	void failedCleanupUsesTheStateAndDateIndex() throws Exception {
+		String plan = explain("DELETE FROM sudoku_game WHERE state = 'FAILED' " +
+				"AND last_updated_at < now() - interval '7 days'");
+		assertTrue(plan.contains("idx_sudoku_game_state_updated"), plan);
+	}
+
+	@Test
+	void onlyOneGameInProgressPerUser() throws Exception {
+		try (Connection connection = dataSource.getConnection(); Statement st = connection.createStatement()) {
+			boolean rejected = false;
+			try {
+				st.execute("INSERT INTO sudoku_game (id, board_string, difficulty, game_mode, last_updated_at, " +
+						"solution_string, state, time_elapsed_seconds, time_limit_seconds, user_id) " +
+						"VALUES (999999, decode(repeat('0', 82), 'hex'), 'EASY', 'FREE', now(), decode(repeat('1', 81) || '0', 'hex'), 'IN_PROGRESS', 0, 0, 1)");
+			} catch (Exception e) {
+				rejected = true;
+			}
+			assertTrue(rejected);
+		}
+	}
+
+	private static String explain(String sql) throws Exception {
+		StringBuilder plan = new StringBuilder();
+		try (Connection connection = dataSource.getConnection(); Statement st = connection.createStatement()) {
+			connection.setAutoCommit(false); // el EXPLAIN de un DELETE no borra nada, pero por si acaso
+			try (ResultSet rs = st.executeQuery("EXPLAIN " + sql)) {
+				while (rs.next()) {
+					plan.append(rs.getString(1)).append('\n');
+				}
+			}
+			connection.rollback();
+		}
+		return plan.toString();
+	}
+}
@@ -0,0 +1,109 @@
+package com.logicgames.api.game;
+
+import com.logicgames.api.EmbeddedPostgresJpaTest;
+import com.logicgames.api.user.User;
+import com.logicgames.api.user.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Los UPDATE condicionales de sudoku_game: un volcado tardío de la caché
+ * (GameStateCache) nunca pisa lo que se escribió después de su copia.
+ */
+class SudokuGameRepositoryTests extends EmbeddedPostgresJpaTest {
+
+	private static final String PUZZLE = "1".repeat(81);
+	private static final String OTHER_PUZZLE = "2".repeat(81);
+
+	@Autowired
+	private SudokuGameRepository repository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	private SudokuGame game;
+
+	@BeforeEach
+	void newGame() {
+		User user = userRepository.save(User.builder().email("cache@x.com").password("x").build());
+		game = repository.saveAndFlush(SudokuGame.builder()
+				.user(user)
+				.boardString(board(0))
+				.solutionString(PUZZLE)
+				.difficulty("EASY")
+				.state("IN_PROGRESS")
+				.gameMode("FREE")
+				.timeLimitSeconds(0L)
+				.timeElapsedSeconds(0L)
+				.lastUpdatedAt(LocalDateTime.now().minusMinutes(1))
+				.lastMoveSeq(0L)
+				.build());
+	}
+
+	@Test
+	void anUpToDateCopyIsWritten() {
+		assertEquals(1, saveCopy(board(3), LocalDateTime.now()));
+		assertEquals(board(3), reload().getBoardString());
+	}
+
+	@Test
+	void aStaleCopyDoesNotOverwriteAppliedMoves() {
+		LocalDateTime copiedAt = LocalDateTime.now();
+		repository.applyMoves(game.getId(), 0, board(5), 3, 10, LocalDateTime.now());
+
+		assertEquals(0, saveCopy(board(3), copiedAt));
+
+		SudokuGame stored = reload();
+		assertEquals(board(5), stored.getBoardString());
+		assertEquals(3L, stored.getLastMoveSeq());
+	}
+
+	@Test
+	void aStaleCopyDoesNotLandOnANewPuzzleInTheSameRow() {
+		LocalDateTime copiedAt = LocalDateTime.now();
+		// loadOrCreateGame con otra dificultad: mismo id, otro puzzle, las jugadas desde 0
+		SudokuGame replaced = reload();
+		replaced.setBoardString(board(0));
+		replaced.setSolutionString(OTHER_PUZZLE);
+		replaced.setLastMoveSeq(0L);
+		replaced.setLastUpdatedAt(LocalDateTime.now().minusSeconds(5)); // aunque el reloj no ayude
+		repository.saveAndFlush(replaced);
+
+		assertEquals(0, saveCopy(board(3), copiedAt));
+		assertEquals(board(0), reload().getBoardString());
+	}
+
+	@Test
+	void anOlderCopyDoesNotOverwriteANewerOne() {
+		LocalDateTime older = LocalDateTime.now();
+		LocalDateTime newer = older.plusSeconds(1);
+		assertEquals(1, saveCopy(board(4), newer)); // flushAndEvict se adelantó
+
+		assertEquals(0, saveCopy(board(3), older)); // el volcado que se quedó atrás
+
+		assertEquals(board(4), reload().getBoardString());
+	}
+
+	// Lo que escribe GameStateCache con una copia de la partida tal y como se creó
+	private int saveCopy(String board, LocalDateTime lastUpdatedAt) {
+		return repository.saveProgress(game.getId(), 0L, PUZZLE, board, 7L, lastUpdatedAt);
+	}
+
+	private SudokuGame reload() {
+		entityManager.clear(); // (los UPDATE en bloque no pasan por el contexto de persistencia)
+		return repository.findById(game.getId()).orElseThrow();
+	}
+
+	private static String board(int digit) {
+		return String.valueOf(digit).repeat(81);
+	}
+}
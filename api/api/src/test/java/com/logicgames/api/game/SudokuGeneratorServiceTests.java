@@ -0,0 +1,76 @@
+package com.logicgames.api.game;
+
+import com.logicgames.api.game.engine.BoardValidator;
+import com.logicgames.api.game.engine.SudokuGrader;
+import com.logicgames.api.game.engine.SudokuSolver;
+import com.logicgames.api.game.engine.Technique;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SudokuGeneratorServiceTests {
+
+	private final SudokuGeneratorService generator = new SudokuGeneratorService();
+
+	@Test
+	void everyDeductionOfTheGraderMatchesTheUniqueSolution() {
+		SudokuGrader grader = new SudokuGrader();
+		int[] cells = new int[SudokuSolver.CELLS];
+		for (int i = 0; i < 300; i++) {
+			SudokuGeneratorService.GeneratedPuzzle puzzle = generator.generateCandidate("HARD");
+			for (int cell = 0; cell < SudokuSolver.CELLS; cell++) {
+				cells[cell] = puzzle.boardString.charAt(cell) - '0';
+			}
+			Technique grade = grader.grade(cells);
+
+			grader.copyTo(cells);
+			for (int cell = 0; cell < SudokuSolver.CELLS; cell++) {
+				// Lo que haya colocado (todo, salvo TRIAL_AND_ERROR) es lo de la solución
+				if (cells[cell] != 0) {
+					assertEquals(puzzle.solutionString.charAt(cell) - '0', cells[cell], grade + " en la celda " + cell);
+				}
+			}
+		}
+	}
+
+	@Test
+	void generatedPuzzlesFallInTheBandOfTheirDifficulty() {
+		for (String difficulty : new String[]{"EASY", "MEDIUM", "HARD"}) {
+			Technique[] band = SudokuGeneratorService.bandFor(difficulty);
+			for (int i = 0; i < 5; i++) {
+				SudokuGeneratorService.GeneratedPuzzle puzzle = generator.generateSudokuSync(difficulty);
+
+				assertTrue(puzzle.inBand, difficulty + ": " + puzzle.grade);
+				assertFalse(band[0].isHarderThan(puzzle.grade));
+				assertFalse(puzzle.grade.isHarderThan(band[1]));
+			}
+		}
+	}
+
+	@Test
+	void variantsAreOtherBoardsOfTheSameDifficulty() {
+		SudokuGrader grader = new SudokuGrader();
+		SudokuSolver solver = new SudokuSolver();
+		BoardValidator validator = new BoardValidator();
+		int[] cells = new int[SudokuSolver.CELLS];
+		SudokuGeneratorService.GeneratedPuzzle puzzle = generator.generateSudokuSync("HARD");
+
+		for (SudokuGeneratorService.GeneratedPuzzle variant : generator.variantsOf(puzzle, 20)) {
+			assertNotEquals(puzzle.boardString, variant.boardString);
+			assertTrue(validator.isSolution(variant.solutionString, null, null));
+			for (int cell = 0; cell < SudokuSolver.CELLS; cell++) {
+				cells[cell] = variant.boardString.charAt(cell) - '0';
+				if (cells[cell] != 0) {
+					assertEquals(variant.solutionString.charAt(cell), variant.boardString.charAt(cell));
+				}
+			}
+			solver.load(cells);
+			assertEquals(1, solver.countSolutions(2));
+			assertEquals(puzzle.grade, grader.grade(cells));
+			assertTrue(variant.inBand);
+		}
+	}
+}
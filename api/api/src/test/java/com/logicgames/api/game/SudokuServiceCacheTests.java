@@ -0,0 +1,122 @@
+package com.logicgames.api.game;
+
+import com.logicgames.api.EmbeddedPostgresJpaTest;
+import com.logicgames.api.game.dtos.SaveGameRequest;
+import com.logicgames.api.game.dtos.ValidateBoardRequest;
+import com.logicgames.api.game.engine.PackedBoard;
+import com.logicgames.api.user.AuthenticatedUser;
+import com.logicgames.api.user.User;
+import com.logicgames.api.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * /save y /validate a ritmo de autoguardado: si la partida está en la caché,
+ * ni transacción ni conexión a la BBDD.
+ * Sin transacción de test: si no, la habría siempre.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({SudokuService.class, GameStateCache.class})
+class SudokuServiceCacheTests extends EmbeddedPostgresJpaTest {
+
+	private static final String PUZZLE = "5" + "0".repeat(80);
+
+	@Autowired
+	private SudokuService sudokuService;
+
+	@MockitoSpyBean
+	private GameStateCache gameStateCache;
+
+	@Autowired
+	private SudokuGameRepository sudokuGameRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@MockitoBean
+	private PuzzlePool puzzlePool;
+
+	@MockitoBean
+	private SingleFlightGenerator singleFlightGenerator;
+
+	@MockitoBean
+	private PuzzleRefillPipeline refillPipeline;
+
+	@MockitoBean
+	private GameMetricRecorder metricRecorder;
+
+	private AuthenticatedUser player;
+
+	@BeforeEach
+	void newGame() {
+		User user = userRepository.save(User.builder().email("cache-tx@x.com").password("x").build());
+		player = AuthenticatedUser.of(user);
+		sudokuGameRepository.save(SudokuGame.builder()
+				.user(user)
+				.boardString(PUZZLE)
+				.solutionString("1".repeat(81))
+				.givenMask(PackedBoard.givenMask(PackedBoard.pack(PUZZLE)))
+				.difficulty("EASY")
+				.state("IN_PROGRESS")
+				.gameMode("FREE")
+				.timeLimitSeconds(0L)
+				.timeElapsedSeconds(0L)
+				.lastUpdatedAt(LocalDateTime.now())
+				.lastMoveSeq(0L)
+				.build());
+	}
+
+	@AfterEach
+	void cleanUp() {
+		gameStateCache.take(player.id());
+		sudokuGameRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	void cacheHitsDoNotOpenATransaction() {
+		List<Boolean> inTransaction = new ArrayList<>();
+		doAnswer(invocation -> {
+			inTransaction.add(TransactionSynchronizationManager.isActualTransactionActive());
+			return invocation.callRealMethod();
+		}).when(gameStateCache).read(anyLong(), any());
+		doAnswer(invocation -> {
+			inTransaction.add(TransactionSynchronizationManager.isActualTransactionActive());
+			return invocation.callRealMethod();
+		}).when(gameStateCache).updateProgress(anyLong(), anyString(), anyLong());
+
+		save("5100" + "0".repeat(77)); // la primera la lee de la BBDD y la deja en la caché
+		save("5120" + "0".repeat(77));
+		ValidateBoardRequest validate = new ValidateBoardRequest();
+		validate.setBoardString("5123" + "0".repeat(77));
+		assertTrue(sudokuService.validateBoard(player, validate).isValid());
+
+		assertEquals(List.of(false, false, false, false, false), inTransaction);
+	}
+
+	private void save(String board) {
+		SaveGameRequest request = new SaveGameRequest();
+		request.setBoardString(board);
+		request.setTimeElapsedSeconds(3L);
+		sudokuService.saveGameProgress(player, request);
+	}
+}
@@ -0,0 +1,94 @@
+package com.logicgames.api.game;
+
+import com.logicgames.api.EmbeddedPostgresJpaTest;
+import com.logicgames.api.game.dtos.SudokuSolutionRequest;
+import com.logicgames.api.game.engine.PackedBoard;
+import com.logicgames.api.user.AuthenticatedUser;
+import com.logicgames.api.user.User;
+import com.logicgames.api.user.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * POST /complete: con máscara de pistas vale cualquier solución que las respete;
+ * sin máscara (partidas de antes de V4), solo la solución guardada.
+ */
+@Import({SudokuService.class, GameStateCache.class})
+class SudokuServiceCompleteTests extends EmbeddedPostgresJpaTest {
+
+	private final SudokuGeneratorService generator = new SudokuGeneratorService();
+
+	@Autowired
+	private SudokuService sudokuService;
+
+	@Autowired
+	private SudokuGameRepository sudokuGameRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@MockitoBean
+	private PuzzlePool puzzlePool;
+
+	@MockitoBean
+	private SingleFlightGenerator singleFlightGenerator;
+
+	@MockitoBean
+	private PuzzleRefillPipeline refillPipeline;
+
+	@MockitoBean
+	private GameMetricRecorder metricRecorder;
+
+	@Test
+	void anOldGameWithoutMaskOnlyAcceptsItsOwnSolution() {
+		SudokuGeneratorService.GeneratedPuzzle puzzle = generator.generateCandidate("EASY");
+		AuthenticatedUser player = newGame(puzzle, null);
+		// Un sudoku resuelto y válido... pero de otro puzzle
+		String otherSolution = generator.variantsOf(puzzle, 1).get(0).solutionString;
+
+		assertFalse(sudokuService.completeGame(player, solution(otherSolution)));
+		assertTrue(sudokuService.completeGame(player, solution(puzzle.solutionString)));
+	}
+
+	@Test
+	void aGameWithMaskAcceptsAnySolutionThatKeepsTheGivens() {
+		SudokuGeneratorService.GeneratedPuzzle puzzle = generator.generateCandidate("EASY");
+		AuthenticatedUser player = newGame(puzzle, PackedBoard.givenMask(PackedBoard.pack(puzzle.boardString)));
+		String otherSolution = generator.variantsOf(puzzle, 1).get(0).solutionString;
+
+		assertFalse(sudokuService.completeGame(player, solution(otherSolution))); // otras pistas
+		assertTrue(sudokuService.completeGame(player, solution(puzzle.solutionString)));
+	}
+
+	private AuthenticatedUser newGame(SudokuGeneratorService.GeneratedPuzzle puzzle, byte[] givenMask) {
+		User user = userRepository.save(User.builder().email("complete@x.com").password("x").build());
+		sudokuGameRepository.save(SudokuGame.builder()
+				.user(user)
+				.boardString(puzzle.boardString)
+				.solutionString(puzzle.solutionString)
+				.givenMask(givenMask)
+				.difficulty("EASY")
+				.state("IN_PROGRESS")
+				.gameMode("FREE")
+				.timeLimitSeconds(0L)
+				.timeElapsedSeconds(0L)
+				.lastUpdatedAt(LocalDateTime.now())
+				.lastMoveSeq(0L)
+				.build());
+		return AuthenticatedUser.of(user);
+	}
+
+	private static SudokuSolutionRequest solution(String board) {
+		SudokuSolutionRequest request = new SudokuSolutionRequest();
+		request.setBoardString(board);
+		request.setTimeElapsedSeconds(60L);
+		return request;
+	}
+}
@@ -0,0 +1,200 @@
+package com.logicgames.api.game;
+
+import com.logicgames.api.EmbeddedPostgresJpaTest;
+import com.logicgames.api.game.dtos.MoveBatchRequest;
+import com.logicgames.api.game.dtos.MoveBatchResponse;
+import com.logicgames.api.game.dtos.SaveGameRequest;
+import com.logicgames.api.game.engine.PackedBoard;
+import com.logicgames.api.user.AuthenticatedUser;
+import com.logicgames.api.user.User;
+import com.logicgames.api.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+
+/**
+ * POST /moves contra Postgres de verdad: reintentos, solapes, huecos y dos lotes a la vez.
+ * Sin transacción de test: cada llamada al servicio confirma la suya, como en producción.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({SudokuService.class, GameStateCache.class})
+class SudokuServiceMovesTests extends EmbeddedPostgresJpaTest {
+
+	// La casilla 0 es una pista (un 5); el resto, vacías
+	private static final String PUZZLE = "5" + "0".repeat(80);
+
+	@Autowired
+	private SudokuService sudokuService;
+
+	@MockitoSpyBean
+	private SudokuGameRepository sudokuGameRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@MockitoBean
+	private PuzzlePool puzzlePool;
+
+	@MockitoBean
+	private SingleFlightGenerator singleFlightGenerator;
+
+	@MockitoBean
+	private PuzzleRefillPipeline refillPipeline;
+
+	@MockitoBean
+	private GameMetricRecorder metricRecorder;
+
+	private AuthenticatedUser player;
+	private Long gameId;
+
+	@BeforeEach
+	void newGame() {
+		User user = userRepository.save(User.builder().email("moves@x.com").password("x").build());
+		player = AuthenticatedUser.of(user);
+		gameId = sudokuGameRepository.save(SudokuGame.builder()
+				.user(user)
+				.boardString(PUZZLE)
+				.solutionString("1".repeat(81))
+				.givenMask(PackedBoard.givenMask(PackedBoard.pack(PUZZLE)))
+				.difficulty("EASY")
+				.state("IN_PROGRESS")
+				.gameMode("FREE")
+				.timeLimitSeconds(0L)
+				.timeElapsedSeconds(0L)
+				.lastUpdatedAt(LocalDateTime.now())
+				.lastMoveSeq(0L)
+				.build()).getId();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		sudokuGameRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	void aReplayedBatchIsAcceptedWithoutApplyingItTwice() {
+		MoveBatchRequest batch = moves(1, 3, 7);
+		assertEquals(3, sudokuService.applyMoves(player, batch).getApplied());
+
+		MoveBatchResponse replay = sudokuService.applyMoves(player, moves(1, 3, 8)); // (mismos seq, otro valor)
+
+		assertEquals(0, replay.getApplied());
+		assertEquals(3L, replay.getLastMoveSeq());
+		assertEquals("5777" + "0".repeat(77), stored().getBoardString());
+	}
+
+	@Test
+	void onlyTheNewTailOfAnOverlappingBatchIsApplied() {
+		sudokuService.applyMoves(player, moves(1, 3, 7));
+
+		MoveBatchResponse response = sudokuService.applyMoves(player, moves(2, 5, 9)); // 2-3 ya estaban
+
+		assertEquals(2, response.getApplied());
+		assertEquals(5L, response.getLastMoveSeq());
+		assertEquals("577799" + "0".repeat(75), stored().getBoardString());
+	}
+
+	@Test
+	void aBatchThatLeavesAGapIsAConflict() {
+		sudokuService.applyMoves(player, moves(1, 2, 7));
+
+		MoveConflictException conflict = assertThrows(MoveConflictException.class,
+				() -> sudokuService.applyMoves(player, moves(4, 5, 9)));
+
+		assertEquals(2L, conflict.getLastMoveSeq());
+		assertEquals(2L, stored().getLastMoveSeq());
+	}
+
+	@Test
+	void aRejectedBatchKeepsTheProgressSavedBeforeIt() {
+		String saved = "5123" + "0".repeat(77);
+		SaveGameRequest save = new SaveGameRequest();
+		save.setBoardString(saved);
+		save.setTimeElapsedSeconds(4L);
+		sudokuService.saveGameProgress(player, save); // solo en la caché
+
+		// El lote vuelca lo pendiente antes de leer... y luego lo rechaza
+		assertThrows(MoveConflictException.class, () -> sudokuService.applyMoves(player, moves(4, 5, 9)));
+
+		assertEquals(saved, stored().getBoardString());
+	}
+
+	@Test
+	void theLoserOfTwoConcurrentBatchesGetsAConflict() {
+		// Justo después de que este lote lea la partida, otro lote (otra petición) se aplica entero
+		AtomicBoolean raced = new AtomicBoolean();
+		AtomicReference<MoveBatchResponse> winner = new AtomicReference<>();
+		doAnswer(invocation -> {
+			Object read = realAnswer().answer(invocation);
+			if (raced.compareAndSet(false, true)) {
+				Thread other = new Thread(() -> winner.set(sudokuService.applyMoves(player, moves(1, 2, 8))));
+				other.start();
+				other.join();
+			}
+			return read;
+		}).when(sudokuGameRepository).findByUserIdAndState(anyLong(), any());
+
+		MoveConflictException conflict = assertThrows(MoveConflictException.class,
+				() -> sudokuService.applyMoves(player, moves(1, 2, 7)));
+
+		assertEquals(0L, conflict.getLastMoveSeq()); // lo que leyó antes de perder
+		assertEquals(2, winner.get().getApplied());
+		assertEquals("588" + "0".repeat(78), stored().getBoardString());
+	}
+
+	@Test
+	void aMoveOnAGivenIsRejected() {
+		MoveBatchRequest batch = new MoveBatchRequest();
+		batch.setMoves(List.of(new MoveBatchRequest.Move(0, 3, 1)));
+		batch.setTimeElapsedSeconds(1L);
+
+		assertThrows(InvalidMoveException.class, () -> sudokuService.applyMoves(player, batch));
+		assertEquals(PUZZLE, stored().getBoardString());
+	}
+
+	// Jugadas 'first'..'last' (la jugada n va a la casilla n) con el valor 'value'
+	private static MoveBatchRequest moves(int first, int last, int value) {
+		List<MoveBatchRequest.Move> moves = new ArrayList<>();
+		for (int seq = first; seq <= last; seq++) {
+			moves.add(new MoveBatchRequest.Move(seq, value, seq));
+		}
+		MoveBatchRequest request = new MoveBatchRequest();
+		request.setMoves(moves);
+		request.setTimeElapsedSeconds((long) last);
+		return request;
+	}
+
+	// El espía de un repositorio de Spring Data delega en el de verdad (no hay "método real")
+	private Answer<?> realAnswer() {
+		return mockingDetails(sudokuGameRepository).getMockCreationSettings().getDefaultAnswer();
+	}
+
+	private SudokuGame stored() {
+		Optional<SudokuGame> game = sudokuGameRepository.findById(gameId);
+		assertTrue(game.isPresent());
+		return game.get();
+	}
+}
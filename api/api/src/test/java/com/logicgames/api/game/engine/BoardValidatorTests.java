@@ -0,0 +1,79 @@
+package com.logicgames.api.game.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoardValidatorTests {
+
+	private static final String PUZZLE = "530070000600195000098000060800060003400803001700020006060000280000419005000080079";
+
+	private static final String SOLUTION = "534678912672195348198342567859761423426853791713924856961537284287419635345286179";
+
+	private final BoardValidator validator = new BoardValidator();
+
+	@Test
+	void cleanBoardHasNoConflicts() {
+		assertEquals(0, validator.check(PUZZLE));
+		assertEquals(0, validator.check(PackedBoard.pack(PUZZLE)));
+		assertEquals(51, validator.emptyCells());
+	}
+
+	@Test
+	void repeatedDigitsMarkEveryCellInvolved() {
+		// Un 5 en la celda 2: choca con el 5 de la celda 0 (fila y caja)
+		String board = "535" + PUZZLE.substring(3);
+
+		assertEquals(2, validator.check(board));
+		assertTrue(validator.isConflict(0));
+		assertTrue(validator.isConflict(2));
+		assertFalse(validator.isConflict(1));
+	}
+
+	@Test
+	void moveIsCheckedAgainstItsPeersOnly() {
+		assertEquals(0, validator.checkMove(PUZZLE, 2, 4));
+
+		// Un 8 en la celda 2 choca con el 8 de la celda 20 (misma caja y columna)
+		assertEquals(1, validator.checkMove(PUZZLE, 2, 8));
+		assertTrue(validator.isConflict(20));
+		assertFalse(validator.isConflict(2));
+
+		// Un 6 en la celda 17 choca con la 9 (fila), la 25 (caja) y la 53 (columna)
+		assertEquals(3, validator.checkMove(PUZZLE, 17, 6));
+		assertTrue(validator.isConflict(9) && validator.isConflict(25) && validator.isConflict(53));
+
+		assertEquals(0, validator.checkMove(PUZZLE, 0, 0)); // borrar nunca choca
+	}
+
+	@Test
+	void changedGivensAreConflicts() {
+		byte[] givens = PackedBoard.givenMask(PackedBoard.pack(PUZZLE));
+		String board = "634" + PUZZLE.substring(3); // cambia la pista 0, rellena la 2 (no es pista)
+
+		validator.check(board);
+		validator.markChangedGivens(board, PUZZLE, givens);
+
+		assertTrue(validator.isConflict(0));
+		assertFalse(validator.isConflict(2));
+	}
+
+	@Test
+	void solutionNeedsAllUnitsToBePermutationsAndTheGivensKept() {
+		byte[] givens = PackedBoard.givenMask(PackedBoard.pack(PUZZLE));
+		assertTrue(validator.isSolution(SOLUTION, PUZZLE, givens));
+
+		// Otra rejilla válida (dígitos 1<->2 intercambiados): vale sin máscara, pero cambia pistas
+		String relabeled = SOLUTION.replace('1', 'x').replace('2', '1').replace('x', '2');
+		assertTrue(validator.isSolution(relabeled, PUZZLE, null));
+		assertFalse(validator.isSolution(relabeled, PUZZLE, givens));
+
+		// Filas correctas pero columnas no: la fila 0 repetida en la fila 1
+		assertFalse(validator.isSolution(SOLUTION.substring(0, 9) + SOLUTION.substring(0, 72), PUZZLE, null));
+		assertFalse(validator.isSolution(SOLUTION.substring(0, 80) + "0", PUZZLE, null));
+		assertFalse(validator.isSolution("123", PUZZLE, null));
+		assertFalse(validator.isSolution(null, PUZZLE, null));
+	}
+}
@@ -0,0 +1,77 @@
+package com.logicgames.api.game.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PackedBoardTests {
+
+	private static final String PUZZLE = "530070000600195000098000060800060003400803001700020006060000280000419005000080079";
+
+	@Test
+	void packRoundTripsAndIsHexOfTheBoard() {
+		byte[] packed = PackedBoard.pack(PUZZLE);
+
+		assertEquals(PackedBoard.PACKED_BYTES, packed.length);
+		assertEquals(PUZZLE, PackedBoard.unpack(packed));
+		// Lo que hace la migración V4: decode(board || '0', 'hex')
+		assertArrayEquals(HexFormat.of().parseHex(PUZZLE + "0"), packed);
+	}
+
+	@Test
+	void cellsCanBeReadAndWrittenInPlace() {
+		byte[] packed = PackedBoard.pack(PUZZLE);
+		int[] cells = new int[SudokuSolver.CELLS];
+		PackedBoard.unpackTo(packed, cells);
+		for (int cell = 0; cell < SudokuSolver.CELLS; cell++) {
+			assertEquals(PUZZLE.charAt(cell) - '0', PackedBoard.get(packed, cell));
+			assertEquals(cells[cell], PackedBoard.get(packed, cell));
+		}
+
+		PackedBoard.set(packed, 2, 4);
+		PackedBoard.set(packed, 80, 1);
+		assertEquals("534" + PUZZLE.substring(3, 80) + "1", PackedBoard.unpack(packed));
+		assertArrayEquals(packed, PackedBoard.pack(cellsOf(PackedBoard.unpack(packed))));
+	}
+
+	@Test
+	void givenMaskMarksTheFilledCells() {
+		byte[] mask = PackedBoard.givenMask(PackedBoard.pack(PUZZLE));
+
+		assertEquals(PackedBoard.MASK_BYTES, mask.length);
+		for (int cell = 0; cell < SudokuSolver.CELLS; cell++) {
+			assertEquals(PUZZLE.charAt(cell) != '0', PackedBoard.isGiven(mask, cell));
+		}
+	}
+
+	@Test
+	void rejectsMalformedBoards() {
+		assertThrows(IllegalArgumentException.class, () -> PackedBoard.pack("123"));
+		assertThrows(IllegalArgumentException.class, () -> PackedBoard.pack("x" + PUZZLE.substring(1)));
+		assertThrows(IllegalArgumentException.class, () -> PackedBoard.unpack(new byte[40]));
+	}
+
+	@Test
+	void solverLoadsPackedBoards() {
+		SudokuSolver solver = new SudokuSolver();
+		assertTrue(solver.load(PackedBoard.pack(PUZZLE)));
+		assertEquals(PUZZLE, solver.toBoardString());
+		assertEquals(1, solver.countSolutions(2));
+
+		assertFalse(solver.load(PackedBoard.pack("55" + PUZZLE.substring(2))));
+	}
+
+	private static int[] cellsOf(String board) {
+		int[] cells = new int[SudokuSolver.CELLS];
+		for (int cell = 0; cell < SudokuSolver.CELLS; cell++) {
+			cells[cell] = board.charAt(cell) - '0';
+		}
+		return cells;
+	}
+}
@@ -0,0 +1,40 @@
+package com.logicgames.api.game.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class SudokuGraderTests {
+
+	private static final String EASY = "530070000600195000098000060800060003400803001700020006060000280000419005000080079";
+	private static final String EASY_SOLUTION = "534678912672195348198342567859761423426853791713924856961537284287419635345286179";
+	// Uno de los "más difíciles del mundo" (Arto Inkala, 2012): sin probar no sale
+	private static final String INKALA = "800000000003600000070090200050007000000045700000100030001000068008500010090000400";
+
+	private final SudokuGrader grader = new SudokuGrader();
+
+	@Test
+	void singlesPuzzleIsSolvedWithSinglesOnly() {
+		Technique grade = grader.grade(PackedBoard.pack(EASY));
+
+		assertFalse(grade.isHarderThan(Technique.HIDDEN_SINGLE));
+		int[] solved = new int[SudokuSolver.CELLS];
+		grader.copyTo(solved);
+		assertEquals(EASY_SOLUTION, SudokuSolver.toBoardString(solved));
+	}
+
+	@Test
+	void puzzlesBeyondTheTechniquesNeedTrialAndError() {
+		assertEquals(Technique.TRIAL_AND_ERROR, grader.grade(PackedBoard.pack(INKALA)));
+		// Sin pistas (muchas soluciones) y con pistas repetidas
+		assertEquals(Technique.TRIAL_AND_ERROR, grader.grade(new int[SudokuSolver.CELLS]));
+		assertEquals(Technique.TRIAL_AND_ERROR, grader.grade(PackedBoard.pack("55" + EASY.substring(2))));
+	}
+
+	@Test
+	void graderIsReusable() {
+		grader.grade(PackedBoard.pack(INKALA));
+		assertFalse(grader.grade(PackedBoard.pack(EASY)).isHarderThan(Technique.HIDDEN_SINGLE));
+	}
+}
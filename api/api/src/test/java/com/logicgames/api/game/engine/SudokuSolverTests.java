@@ -0,0 +1,57 @@
+package com.logicgames.api.game.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SudokuSolverTests {
+
+	@Test
+	void fillRandomProducesValidGrid() {
+		SudokuSolver solver = new SudokuSolver();
+		assertTrue(solver.fillRandom(new Random(42)));
+
+		int[] board = new int[SudokuSolver.CELLS];
+		solver.copyTo(board);
+
+		SudokuSolver check = new SudokuSolver();
+		assertTrue(check.load(board));
+		for (int cell = 0; cell < SudokuSolver.CELLS; cell++) {
+			assertTrue(board[cell] >= 1 && board[cell] <= 9);
+			assertEquals(0, check.candidates(cell));
+		}
+	}
+
+	@Test
+	void placeRejectsConflictsAndUnplaceRestoresCandidates() {
+		SudokuSolver solver = new SudokuSolver();
+		assertTrue(solver.place(0, 5));
+		assertFalse(solver.place(8, 5));  // misma fila
+		assertFalse(solver.place(72, 5)); // misma columna
+		assertFalse(solver.place(20, 5)); // misma caja
+
+		solver.unplace(0);
+		assertTrue(solver.place(20, 5));
+		assertEquals(SudokuSolver.ALL_DIGITS, solver.candidates(0) | (1 << 4));
+	}
+
+	@Test
+	void countSolutionsStopsAtLimitAndRestoresBoard() {
+		SudokuSolver solver = new SudokuSolver();
+		assertEquals(2, solver.countSolutions(2)); // tablero vacío: muchas soluciones
+
+		assertTrue(solver.fillRandom(new Random(7)));
+		String full = solver.toBoardString();
+		assertEquals(1, solver.countSolutions(2));
+
+		// Quitar una sola celda nunca rompe la unicidad
+		solver.unplace(40);
+		assertEquals(1, solver.countSolutions(2));
+		assertEquals(full.substring(0, 40), solver.toBoardString().substring(0, 40));
+		assertEquals(0, solver.get(40));
+	}
+}
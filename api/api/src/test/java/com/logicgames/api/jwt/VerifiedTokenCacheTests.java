@@ -0,0 +1,45 @@
+package com.logicgames.api.jwt;
+
+import com.logicgames.api.user.AuthenticatedUser;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class VerifiedTokenCacheTests {
+
+	@Test
+	void returnsTheCachedPrincipal() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(100, 300);
+		cache.put("token-a", new AuthenticatedUser(1L, "a@x.com"), Instant.now().plusSeconds(3600));
+
+		AuthenticatedUser cached = cache.get("token-a");
+		assertEquals(1L, cached.id());
+		assertEquals("a@x.com", cached.getUsername());
+		assertNull(cache.get("token-b"));
+	}
+
+	@Test
+	void invalidateUserDropsAllTheirTokens() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(100, 300);
+		cache.put("token-1", new AuthenticatedUser(1L, "a@x.com"), Instant.now().plusSeconds(3600));
+		cache.put("token-2", new AuthenticatedUser(1L, "a@x.com"), Instant.now().plusSeconds(3600));
+		cache.put("token-3", new AuthenticatedUser(2L, "b@x.com"), Instant.now().plusSeconds(3600));
+
+		cache.invalidateUser("a@x.com");
+
+		assertNull(cache.get("token-1"));
+		assertNull(cache.get("token-2"));
+		assertEquals("b@x.com", cache.get("token-3").email());
+	}
+
+	@Test
+	void expiredTokensAreNeverServed() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(100, 300);
+		cache.put("token-old", new AuthenticatedUser(1L, "a@x.com"), Instant.now().minusSeconds(1));
+
+		assertNull(cache.get("token-old"));
+	}
+}
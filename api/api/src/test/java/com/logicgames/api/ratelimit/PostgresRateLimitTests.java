@@ -0,0 +1,113 @@
+package com.logicgames.api.ratelimit;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Modo "postgres": varias "réplicas" (servicios distintos) contra la misma BBDD
+ * (Postgres embebido + las migraciones reales).
+ */
+class PostgresRateLimitTests {
+
+	private static EmbeddedPostgres postgres;
+	private static JdbcTemplate jdbcTemplate;
+	private static RateLimitBucketStore store;
+
+	@BeforeAll
+	static void migrate() throws Exception {
+		postgres = EmbeddedPostgres.start();
+		Flyway.configure().dataSource(postgres.getPostgresDatabase()).load().migrate();
+		jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+		store = new RateLimitBucketStore(jdbcTemplate);
+	}
+
+	@AfterAll
+	static void stop() throws Exception {
+		postgres.close();
+	}
+
+	@BeforeEach
+	void empty() {
+		jdbcTemplate.update("DELETE FROM rate_limit_buckets");
+	}
+
+	@Test
+	void twoReplicasShareOneBudget() {
+		RateLimitingService a = replica(10);
+		RateLimitingService b = replica(10);
+
+		int allowed = 0;
+		for (int i = 0; i < 20; i++) {
+			if ((i % 2 == 0 ? a : b).tryConsume("login", "1.1.1.1").allowed()) {
+				allowed++;
+			}
+		}
+		assertEquals(10, allowed);
+	}
+
+	@Test
+	void leasedTokensAreSpentWithoutGoingToTheDatabase() {
+		RateLimitingService a = replica(100); // alquileres de 10 fichas
+
+		for (int i = 0; i < 10; i++) {
+			assertTrue(a.tryConsume("login", "2.2.2.2").allowed());
+		}
+		assertEquals(90, tokensOf("2.2.2.2"), 0.5); // un solo alquiler
+
+		assertTrue(a.tryConsume("login", "2.2.2.2").allowed());
+		assertEquals(80, tokensOf("2.2.2.2"), 0.5);
+	}
+
+	@Test
+	void budgetSurvivesARestart() {
+		RateLimitingService before = replica(3);
+		for (int i = 0; i < 3; i++) {
+			assertTrue(before.tryConsume("login", "3.3.3.3").allowed());
+		}
+
+		RateLimitingService after = replica(3);
+		RateLimitDecision denied = after.tryConsume("login", "3.3.3.3");
+		assertFalse(denied.allowed());
+		assertTrue(denied.retryAfterSeconds() > 0);
+	}
+
+	@Test
+	void idleBucketsArePurged() {
+		RateLimitingService a = replica(5);
+		a.tryConsume("login", "4.4.4.4");
+		a.tryConsume("login", "5.5.5.5");
+		jdbcTemplate.update("UPDATE rate_limit_buckets SET refilled_at = refilled_at - 3600000 WHERE bucket_key = '4.4.4.4'");
+
+		a.purgeIdleBuckets();
+
+		assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM rate_limit_buckets", Integer.class));
+	}
+
+	private static RateLimitingService replica(long capacity) {
+		RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+		policy.setPath("/api/auth/login");
+		policy.setCapacity(capacity);
+		policy.setRefillPeriod(Duration.ofHours(1));
+		RateLimitProperties properties = new RateLimitProperties();
+		properties.setMode("postgres");
+		properties.getDistributed().setLeaseMillis(60_000);
+		properties.getPolicies().put("login", policy);
+		return new RateLimitingService(properties, store);
+	}
+
+	private static double tokensOf(String key) {
+		return jdbcTemplate.queryForObject("SELECT tokens FROM rate_limit_buckets WHERE bucket_key = ?",
+				Double.class, key);
+	}
+}
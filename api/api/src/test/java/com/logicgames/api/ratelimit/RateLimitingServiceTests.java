@@ -0,0 +1,50 @@
+package com.logicgames.api.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimitingServiceTests {
+
+	@Test
+	void findsThePolicyByMethodAndPath() {
+		RateLimitingService service = new RateLimitingService(properties(3, Duration.ofHours(1)));
+
+		assertEquals("verify-email", service.policyFor("POST", "/api/auth/verify-email"));
+		assertNull(service.policyFor("GET", "/api/auth/verify-email"));
+		assertNull(service.policyFor("POST", "/api/sudoku/save"));
+		assertThrows(IllegalArgumentException.class, () -> service.tryConsume("nope", "1.2.3.4"));
+	}
+
+	@Test
+	void eachClientHasItsOwnBudget() {
+		RateLimitingService service = new RateLimitingService(properties(3, Duration.ofHours(1)));
+
+		for (int i = 0; i < 3; i++) {
+			assertTrue(service.tryConsume("verify-email", "1.1.1.1").allowed());
+		}
+		RateLimitDecision denied = service.tryConsume("verify-email", "1.1.1.1");
+		assertFalse(denied.allowed());
+		// Se rellenan 3 fichas por hora: la siguiente, en unos 20 minutos
+		assertTrue(denied.retryAfterSeconds() > 19 * 60 && denied.retryAfterSeconds() <= 20 * 60,
+				"retry after " + denied.retryAfterSeconds());
+
+		assertTrue(service.tryConsume("verify-email", "2.2.2.2").allowed());
+	}
+
+	private static RateLimitProperties properties(long capacity, Duration refillPeriod) {
+		RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+		policy.setPath("/api/auth/verify-email");
+		policy.setCapacity(capacity);
+		policy.setRefillPeriod(refillPeriod);
+		RateLimitProperties properties = new RateLimitProperties();
+		properties.getPolicies().put("verify-email", policy);
+		return properties;
+	}
+}
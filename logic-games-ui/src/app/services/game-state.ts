@@ -5,9 +5,8 @@ import { BehaviorSubject } from 'rxjs';
 // con el JSON que envía nuestro backend (SudokuGame.java).
 export interface SudokuGame {
   id: number;
-  // No necesitamos el 'user' en el frontend
+  // No necesitamos el 'user' en el frontend (ni la solución: la comprueba el servidor)
   boardString: string;
-  solutionString: string;
   difficulty: string;
   state: string;
   gameMode: string;